@@ -0,0 +1,53 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/** Building and encoding the camera events {@link CameraEventScheduler} flushes every frame. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CameraEventBenchmark {
+    private DiscardingBinaryMessenger messenger;
+    private MethodChannel methodChannel;
+    private double latitude;
+    private double longitude;
+    private float zoom;
+
+    @Setup
+    public void setUp() {
+        messenger = new DiscardingBinaryMessenger();
+        methodChannel = new MethodChannel(messenger, "benchmark");
+        latitude = 37.5665;
+        longitude = 126.978;
+        zoom = 3;
+    }
+
+    @Benchmark
+    public int onMove() {
+        latitude += 1e-6;
+        longitude += 1e-6;
+        methodChannel.invokeMethod("camera#onMove", Convert.cameraMoveToJson(latitude, longitude));
+        return messenger.lastMessageBytes;
+    }
+
+    @Benchmark
+    public int onZoomChanged() {
+        zoom += 0.01f;
+        methodChannel.invokeMethod("camera#onZoomChanged", Convert.zoomToJson(zoom));
+        return messenger.lastMessageBytes;
+    }
+}
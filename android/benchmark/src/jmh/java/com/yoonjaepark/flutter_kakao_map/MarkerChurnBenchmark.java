@@ -0,0 +1,100 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * One {@code markers#update} worth of churn against a map holding {@code markerCount} markers:
+ * {@code batchSize} markers are added, as many are moved and as many of the oldest are removed,
+ * so the marker count stays the same from one operation to the next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MarkerChurnBenchmark {
+    @Param({"10000"})
+    public int markerCount;
+
+    @Param({"100"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean culling;
+
+    // Twice markerCount markers; the live ones are always markerCount consecutive entries.
+    private Object[] markers;
+    private Object[] movedMarkers;
+    private String[] markerIds;
+    private final List<Object> markersToAdd = new ArrayList<>();
+    private final List<Object> markersToChange = new ArrayList<>();
+    private final List<Object> markerIdsToRemove = new ArrayList<>();
+    private MarkerIconRegistry icons;
+    private InMemoryMapBackend map;
+    private MarkersController markersController;
+    private int first;
+
+    @Setup
+    public void setUp() {
+        final int ringSize = 2 * markerCount;
+        final Random random = new Random(1);
+        markers = new Object[ringSize];
+        movedMarkers = new Object[ringSize];
+        markerIds = new String[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            markerIds[i] = BenchmarkMarkers.markerId(i);
+            markers[i] = BenchmarkMarkers.marker(markerIds[i], random);
+            movedMarkers[i] = BenchmarkMarkers.marker(markerIds[i], random);
+        }
+        icons = BenchmarkMarkers.icons();
+        map = BenchmarkMarkers.map();
+        markersController = new MarkersController(new MethodChannel(new DiscardingBinaryMessenger(), "benchmark"));
+        markersController.setKakaoMap(map);
+        markersController.setCulling(culling, MarkersController.DEFAULT_CULLING_MARGIN);
+
+        final List<Object> initialMarkers = new ArrayList<>(markerCount);
+        for (int i = 0; i < markerCount; i++) {
+            initialMarkers.add(markers[i]);
+        }
+        apply(MarkerUpdate.prepare(initialMarkers, null, null, null, null, icons, map));
+        first = 0;
+    }
+
+    @Benchmark
+    public int addChangeRemove() {
+        final int ringSize = markers.length;
+        markersToAdd.clear();
+        markersToChange.clear();
+        markerIdsToRemove.clear();
+        for (int i = 0; i < batchSize; i++) {
+            markersToAdd.add(markers[(first + markerCount + i) % ringSize]);
+            markersToChange.add(movedMarkers[(first + batchSize + i) % ringSize]);
+            markerIdsToRemove.add(markerIds[(first + i) % ringSize]);
+        }
+        apply(MarkerUpdate.prepare(markersToAdd, null, markersToChange, null, markerIdsToRemove, icons, map));
+        first = (first + batchSize) % ringSize;
+        return map.getPoiCount();
+    }
+
+    // What MarkerBatchApplier does for an update that fits in one frame.
+    private void apply(MarkerUpdate update) {
+        markersController.applyUpdate(update, 0, Long.MAX_VALUE);
+        markersController.refreshVisibleMarkers();
+    }
+}
@@ -0,0 +1,64 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.StandardMethodCodec;
+
+/**
+ * Turns the markers of a {@code markers#update} call into a {@link MarkerUpdate}, either from
+ * already decoded maps or from the encoded message as it arrives from Dart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MarkerDecodeBenchmark {
+    @Param({"10000", "100000"})
+    public int markerCount;
+
+    private List<Object> markers;
+    private ByteBuffer message;
+    private MarkerIconRegistry icons;
+    private InMemoryMapBackend map;
+
+    @Setup
+    public void setUp() {
+        markers = BenchmarkMarkers.markers(markerCount, 1);
+        final Map<String, Object> arguments = new HashMap<>();
+        arguments.put("markersToAdd", markers);
+        message = StandardMethodCodec.INSTANCE.encodeMethodCall(new MethodCall("markers#update", arguments));
+        message.flip();
+        icons = BenchmarkMarkers.icons();
+        map = BenchmarkMarkers.map();
+    }
+
+    @Benchmark
+    public MarkerUpdate interpretMarkerOptions() {
+        return MarkerUpdate.prepare(markers, null, null, null, null, icons, map);
+    }
+
+    @Benchmark
+    public MarkerUpdate decodeAndInterpretMarkerOptions() {
+        message.rewind();
+        final MethodCall call = StandardMethodCodec.INSTANCE.decodeMethodCall(message);
+        final List<Object> markersToAdd = call.argument("markersToAdd");
+        return MarkerUpdate.prepare(markersToAdd, null, null, null, null, icons, map);
+    }
+}
@@ -0,0 +1,68 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * A POI tap as delivered by {@code onPOIItemSelected}: looking up the marker by the handle in the
+ * POI's user object and sending {@code marker#onTap} with its Dart id or, in handle mode, handle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarkerTapBenchmark {
+    private static final int TAP_COUNT = 4096;
+
+    @Param({"10000", "100000"})
+    public int markerCount;
+
+    @Param({"false", "true"})
+    public boolean handles;
+
+    private MarkersController markersController;
+    // User objects of the tapped POIs, as onPOIItemSelected passes them.
+    private Object[] taps;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        final InMemoryMapBackend map = BenchmarkMarkers.map();
+        markersController = new MarkersController(new MethodChannel(new DiscardingBinaryMessenger(), "benchmark"));
+        markersController.setKakaoMap(map);
+        markersController.setHandles(handles);
+        markersController.applyUpdate(
+                MarkerUpdate.prepare(
+                        BenchmarkMarkers.markers(markerCount, 1), null, null, null, null, BenchmarkMarkers.icons(), map),
+                0,
+                Long.MAX_VALUE);
+
+        final Random random = new Random(2);
+        taps = new Object[TAP_COUNT];
+        for (int i = 0; i < TAP_COUNT; i++) {
+            // Markers loaded into an empty controller get the handles 0 to markerCount - 1.
+            taps[i] = random.nextInt(markerCount);
+        }
+    }
+
+    @Benchmark
+    public boolean onMarkerTap() {
+        final Object tap = taps[next];
+        next = (next + 1) & (TAP_COUNT - 1);
+        return markersController.onMarkerTap(tap);
+    }
+}
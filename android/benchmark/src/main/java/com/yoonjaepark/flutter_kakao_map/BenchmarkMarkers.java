@@ -0,0 +1,70 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Marker fixtures shaped like what {@code StandardMessageCodec} hands the plugin. */
+final class BenchmarkMarkers {
+    /** Roughly the area of Seoul, where markers are scattered. */
+    static final double[] AREA = {37.42, 126.76, 37.70, 127.18};
+    /** The zoom level of {@link #map}, at which it shows about a thirtieth of {@link #AREA}. */
+    static final int ZOOM_LEVEL = 5;
+
+    private BenchmarkMarkers() {}
+
+    static String markerId(int i) {
+        return "marker_" + i;
+    }
+
+    /** Returns the option maps of {@code count} markers named by {@link #markerId}. */
+    static List<Object> markers(int count, long seed) {
+        final Random random = new Random(seed);
+        final List<Object> markers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            markers.add(marker(markerId(i), random));
+        }
+        return markers;
+    }
+
+    static Map<Object, Object> marker(String markerId, Random random) {
+        final Map<Object, Object> infoWindow = new HashMap<>();
+        infoWindow.put("title", markerId);
+        infoWindow.put("snippet", null);
+        infoWindow.put("anchor", Arrays.<Object>asList(0.5, 0.0));
+
+        final Map<Object, Object> marker = new HashMap<>();
+        marker.put("markerId", markerId);
+        marker.put("alpha", 1.0);
+        marker.put("anchor", Arrays.<Object>asList(0.5, 1.0));
+        marker.put("consumeTapEvents", false);
+        marker.put("draggable", false);
+        marker.put("flat", false);
+        marker.put("infoWindow", infoWindow);
+        marker.put("position", Arrays.<Object>asList(
+                AREA[0] + random.nextDouble() * (AREA[2] - AREA[0]),
+                AREA[1] + random.nextDouble() * (AREA[3] - AREA[1])));
+        marker.put("rotation", (double) random.nextInt(360));
+        marker.put("visible", true);
+        marker.put("zIndex", 0.0);
+        marker.put("markerType", 0);
+        marker.put("markerSelectedType", 1);
+        return marker;
+    }
+
+    /** A map centered on {@link #AREA}. */
+    static InMemoryMapBackend map() {
+        return new InMemoryMapBackend((AREA[0] + AREA[2]) / 2, (AREA[1] + AREA[3]) / 2, ZOOM_LEVEL);
+    }
+
+    static MarkerIconRegistry icons() {
+        return new MarkerIconRegistry(new MarkerIconCache(1024 * 1024, 2f));
+    }
+}
@@ -0,0 +1,27 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.nio.ByteBuffer;
+
+import io.flutter.plugin.common.BinaryMessenger;
+
+/** Accepts encoded messages and drops them, keeping only the size of the last one. */
+final class DiscardingBinaryMessenger implements BinaryMessenger {
+    int lastMessageBytes;
+
+    @Override
+    public void send(String channel, ByteBuffer message) {
+        lastMessageBytes = message != null ? message.position() : 0;
+    }
+
+    @Override
+    public void send(String channel, ByteBuffer message, BinaryReply callback) {
+        send(channel, message);
+    }
+
+    @Override
+    public void setMessageHandler(String channel, BinaryMessageHandler handler) {}
+}
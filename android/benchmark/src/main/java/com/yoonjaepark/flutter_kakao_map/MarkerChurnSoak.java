@@ -0,0 +1,158 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Loads {@code markerCount} markers into a {@link MarkersController} on an
+ * {@link InMemoryMapBackend}, then churns them: every cycle adds, moves and removes
+ * {@code batchSize} markers and pans the camera. Reports cycle latencies, the heap retained per
+ * marker and the map's counters, and exits with 1 if the plugin mutated the map inconsistently.
+ *
+ * <pre>
+ * ./gradlew -Pbenchmark :benchmark:soak -PsoakArgs="markerCount batchSize cycles culling"
+ * </pre>
+ */
+final class MarkerChurnSoak {
+    private final int markerCount;
+    private final int batchSize;
+    private final Random random = new Random(1);
+    private final MarkerIconRegistry icons = BenchmarkMarkers.icons();
+    private final InMemoryMapBackend map = BenchmarkMarkers.map();
+    private final MarkersController markersController =
+            new MarkersController(new MethodChannel(new DiscardingBinaryMessenger(), "soak"));
+    // Markers first to first + markerCount - 1 are on the map.
+    private int first;
+
+    private MarkerChurnSoak(int markerCount, int batchSize, boolean culling) {
+        this.markerCount = markerCount;
+        this.batchSize = batchSize;
+        markersController.setKakaoMap(map);
+        markersController.setCulling(culling, MarkersController.DEFAULT_CULLING_MARGIN);
+        // What KakaoMapController does with camera events, minus sending them to Dart.
+        map.setCameraListener(new MapBackend.CameraListener() {
+            @Override
+            public void onCameraMove(double latitude, double longitude) {}
+
+            @Override
+            public void onCameraZoomChanged(int zoomLevel, float zoom) {
+                markersController.refreshVisibleMarkers();
+            }
+
+            @Override
+            public void onCameraIdle() {
+                markersController.refreshVisibleMarkers();
+            }
+        });
+    }
+
+    public static void main(String[] args) {
+        final int markerCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        final int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        final int cycles = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        final boolean culling = args.length <= 3 || Boolean.parseBoolean(args[3]);
+        System.exit(new MarkerChurnSoak(markerCount, batchSize, culling).run(cycles) ? 0 : 1);
+    }
+
+    private boolean run(int cycles) {
+        final long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        for (int i = 0; i < markerCount; i += batchSize) {
+            final List<Object> markersToAdd = new ArrayList<>(batchSize);
+            for (int j = i; j < Math.min(i + batchSize, markerCount); j++) {
+                markersToAdd.add(BenchmarkMarkers.marker(BenchmarkMarkers.markerId(j), random));
+            }
+            apply(MarkerUpdate.prepare(markersToAdd, null, null, null, null, icons, map));
+        }
+        final long loadNanos = System.nanoTime() - start;
+        final long heapLoaded = usedHeap();
+        System.out.printf("Loaded %d markers in %d ms, %d bytes retained per marker%n",
+                markerCount, loadNanos / 1000000, (heapLoaded - heapBefore) / markerCount);
+
+        map.resetStats();
+        final long[] cycleNanos = new long[cycles];
+        start = System.nanoTime();
+        for (int i = 0; i < cycles; i++) {
+            final long cycleStart = System.nanoTime();
+            churn();
+            panCamera();
+            cycleNanos[i] = System.nanoTime() - cycleStart;
+        }
+        final long churnNanos = System.nanoTime() - start;
+        final long heapChurned = usedHeap();
+
+        Arrays.sort(cycleNanos);
+        System.out.printf("Churned %d cycles of %d adds, moves and removes in %d ms (%.0f markers/s)%n",
+                cycles, batchSize, churnNanos / 1000000, 3.0 * batchSize * cycles * 1e9 / churnNanos);
+        System.out.printf("Cycle ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                percentileMillis(cycleNanos, 0.5),
+                percentileMillis(cycleNanos, 0.9),
+                percentileMillis(cycleNanos, 0.99),
+                percentileMillis(cycleNanos, 1));
+        System.out.printf("Heap after churn: %d bytes per marker (%+d since load)%n",
+                (heapChurned - heapBefore) / markerCount, heapChurned - heapLoaded);
+        System.out.println("Map: " + map.getStats());
+
+        final boolean consistent = map.getStats().get("redundantAddCount").equals(0L)
+                && map.getStats().get("redundantRemoveCount").equals(0L)
+                && map.getPoiCount() <= markerCount;
+        if (!consistent) {
+            System.out.println("Inconsistent map mutations");
+        }
+        return consistent;
+    }
+
+    private void churn() {
+        final List<Object> markersToAdd = new ArrayList<>(batchSize);
+        final List<Object> markersToChange = new ArrayList<>(batchSize);
+        final List<Object> markerIdsToRemove = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            markersToAdd.add(BenchmarkMarkers.marker(BenchmarkMarkers.markerId(first + markerCount + i), random));
+            markersToChange.add(BenchmarkMarkers.marker(BenchmarkMarkers.markerId(first + batchSize + i), random));
+            markerIdsToRemove.add(BenchmarkMarkers.markerId(first + i));
+        }
+        apply(MarkerUpdate.prepare(markersToAdd, null, markersToChange, null, markerIdsToRemove, icons, map));
+        first += batchSize;
+    }
+
+    private void panCamera() {
+        final double[] area = BenchmarkMarkers.AREA;
+        map.moveCamera(
+                area[0] + random.nextDouble() * (area[2] - area[0]),
+                area[1] + random.nextDouble() * (area[3] - area[1]),
+                BenchmarkMarkers.ZOOM_LEVEL - 2 + random.nextInt(5),
+                10);
+    }
+
+    // What MarkerBatchApplier does for an update, without spreading it over frames.
+    private void apply(MarkerUpdate update) {
+        markersController.applyUpdate(update, 0, Long.MAX_VALUE);
+        markersController.refreshVisibleMarkers();
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,273 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.os.SystemClock;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.StandardMethodCodec;
+
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Replays a {@link ChannelRecorder} recording through a {@link KakaoMapController} on an
+ * {@link InMemoryMapBackend} and reports per method latency percentiles.
+ *
+ * <pre>
+ * ./gradlew -Pbenchmark :benchmark:replay -PreplayArgs="session.kmrec [--realtime]"
+ * </pre>
+ *
+ * <p>Robolectric provides the main looper and {@code Choreographer} the controller runs on, so
+ * the replay is a test. Every call from Dart goes to {@link KakaoMapController#onMethodCall} and
+ * is run until the controller is idle again, a frame at a time; its latency is the wall time
+ * that takes. The looper's clock follows the recording, so timers between calls fire as they
+ * did on the device. Events to Dart stand for what caused them on the device: a
+ * {@code marker#onTap} is tapped again, and a run of camera events is flown as one camera move.
+ * Calls that need the Kakao engine itself, or would record the replay, are counted as skipped.
+ * The run fails on the first entry that throws. Without {@code --realtime} entries are replayed
+ * back to back; with it, at their recorded times.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, manifest = Config.NONE)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class ChannelReplay {
+    // Camera events further apart than this belong to separate camera moves.
+    private static final long CAMERA_IDLE_MICROS = 100000;
+    private static final long FRAME_MILLIS = 16;
+    // A call that keeps the controller busy for longer than this is taken to be stuck.
+    private static final long SETTLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final Set<String> SKIPPED_METHODS = new HashSet<>(Arrays.asList(
+            "map#clearMapTilePersistentCache",
+            "map#startRecording",
+            "map#stopRecording",
+            "map#takeSnapshot"));
+
+    private final InMemoryMapBackend map = BenchmarkMarkers.map();
+    private final Map<String, List<Long>> latencies = new TreeMap<>();
+    private final Map<String, Integer> skipped = new TreeMap<>();
+    private final Map<String, Integer> errors = new TreeMap<>();
+    private KakaoMapController controller;
+    private long clockStartMillis;
+
+    private int cameraEvents;
+    private long lastCameraMicros;
+    private double cameraLatitude;
+    private double cameraLongitude;
+    private int cameraZoomLevel = BenchmarkMarkers.ZOOM_LEVEL;
+
+    @Test
+    public void replay() throws IOException, InterruptedException {
+        final String[] args = System.getProperty("replayArgs", "").trim().split("\\s+");
+        assumeFalse("Pass a recording with -PreplayArgs", args[0].isEmpty());
+        final boolean realtime = args.length > 1 && "--realtime".equals(args[1]);
+        final List<ChannelRecorder.Entry> entries;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(args[0]))) {
+            entries = ChannelRecorder.read(in);
+        }
+        controller = new KakaoMapController(
+                0, RuntimeEnvironment.application, new DiscardingBinaryMessenger(), new KakaoMapOptions(), map);
+        clockStartMillis = SystemClock.uptimeMillis();
+        try {
+            run(entries, realtime);
+        } finally {
+            controller.dispose();
+        }
+    }
+
+    private void run(List<ChannelRecorder.Entry> entries, boolean realtime) throws InterruptedException {
+        long maxLagMicros = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < entries.size(); i++) {
+            final ChannelRecorder.Entry entry = entries.get(i);
+            if (realtime) {
+                final long waitMicros = entry.timeMicros - (System.nanoTime() - start) / 1000;
+                if (waitMicros > 0) {
+                    Thread.sleep(waitMicros / 1000, (int) (waitMicros % 1000) * 1000);
+                } else {
+                    maxLagMicros = Math.max(maxLagMicros, -waitMicros);
+                }
+            }
+            final MethodCall call = StandardMethodCodec.INSTANCE.decodeMethodCall(ByteBuffer.wrap(entry.message));
+            try {
+                replay(entry, call);
+            } catch (RuntimeException | LinkageError e) {
+                throw new AssertionError("Entry " + i + ", " + call.method + ", threw", e);
+            }
+        }
+        if (cameraEvents > 0) {
+            flyCamera();
+        }
+        report(entries.size(), (System.nanoTime() - start) / 1000000, realtime ? maxLagMicros : -1);
+    }
+
+    private void replay(ChannelRecorder.Entry entry, MethodCall call) throws InterruptedException {
+        final boolean cameraEvent = entry.kind == ChannelRecorder.EVENT && isCameraEvent(call.method);
+        if (cameraEvents > 0 && (!cameraEvent || entry.timeMicros - lastCameraMicros > CAMERA_IDLE_MICROS)) {
+            flyCamera();
+        }
+        advanceClock(entry.timeMicros);
+        if (cameraEvent) {
+            onCameraEvent(call, entry.timeMicros);
+            return;
+        }
+        if (entry.kind == ChannelRecorder.EVENT) {
+            if ("marker#onTap".equals(call.method)) {
+                final long start = System.nanoTime();
+                controller.tapMarker(call.hasArgument("markerHandle")
+                        ? call.argument("markerHandle")
+                        : call.argument("markerId"));
+                record(call.method, System.nanoTime() - start);
+            }
+            return;
+        }
+        if (SKIPPED_METHODS.contains(call.method)) {
+            count(skipped, call.method);
+            return;
+        }
+        final long start = System.nanoTime();
+        controller.onMethodCall(call, new ReplayResult(call.method));
+        settle(call.method);
+        record(call.method, System.nanoTime() - start);
+    }
+
+    /** Runs the main looper a frame at a time until every marker update so far is on the map. */
+    private void settle(String method) throws InterruptedException {
+        final long deadline = System.nanoTime() + SETTLE_TIMEOUT_NANOS;
+        ShadowLooper.idleMainLooper();
+        while (!controller.isIdle()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(method + " did not settle");
+            }
+            // Updates are prepared on a worker thread, which hands them back through the looper.
+            Thread.sleep(1);
+            ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Runs the main looper up to the recorded time, unless settling calls took it past that. */
+    private void advanceClock(long timeMicros) {
+        final long behindMillis = clockStartMillis + timeMicros / 1000 - SystemClock.uptimeMillis();
+        if (behindMillis > 0) {
+            ShadowLooper.idleMainLooper(behindMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean isCameraEvent(String method) {
+        return "camera#onMove".equals(method) || "camera#onZoomChanged".equals(method);
+    }
+
+    private void onCameraEvent(MethodCall call, long timeMicros) {
+        if ("camera#onMove".equals(call.method)) {
+            final List<?> position = call.argument("position");
+            cameraLatitude = ((Number) position.get(0)).doubleValue();
+            cameraLongitude = ((Number) position.get(1)).doubleValue();
+        } else {
+            cameraZoomLevel = Math.round(call.<Number>argument("zoom").floatValue());
+        }
+        cameraEvents++;
+        lastCameraMicros = timeMicros;
+    }
+
+    private void flyCamera() {
+        final long start = System.nanoTime();
+        map.moveCamera(cameraLatitude, cameraLongitude, cameraZoomLevel, cameraEvents);
+        ShadowLooper.idleMainLooper();
+        record("camera#onMove", System.nanoTime() - start);
+        cameraEvents = 0;
+    }
+
+    private void record(String method, long nanos) {
+        List<Long> methodLatencies = latencies.get(method);
+        if (methodLatencies == null) {
+            methodLatencies = new ArrayList<>();
+            latencies.put(method, methodLatencies);
+        }
+        methodLatencies.add(nanos);
+    }
+
+    private static void count(Map<String, Integer> counts, String method) {
+        final Integer count = counts.get(method);
+        counts.put(method, count != null ? count + 1 : 1);
+    }
+
+    private void report(int entryCount, long elapsedMillis, long maxLagMicros) {
+        System.out.printf("Replayed %d entries in %d ms%n", entryCount, elapsedMillis);
+        if (maxLagMicros >= 0) {
+            System.out.printf("Fell behind the recording by up to %.2f ms%n", maxLagMicros / 1e3);
+        }
+        System.out.printf("%-28s %8s %10s %10s %10s %10s%n", "method", "count", "p50 us", "p90 us", "p99 us", "max us");
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            final long[] nanos = new long[entry.getValue().size()];
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = entry.getValue().get(i);
+            }
+            Arrays.sort(nanos);
+            System.out.printf("%-28s %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    entry.getKey(),
+                    nanos.length,
+                    percentileMicros(nanos, 0.5),
+                    percentileMicros(nanos, 0.9),
+                    percentileMicros(nanos, 0.99),
+                    percentileMicros(nanos, 1));
+        }
+        if (!skipped.isEmpty()) {
+            System.out.println("Skipped: " + skipped);
+        }
+        if (!errors.isEmpty()) {
+            System.out.println("Replied with an error: " + errors);
+        }
+        System.out.println("Map: " + map.getStats());
+    }
+
+    private static double percentileMicros(long[] sortedNanos, double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e3;
+    }
+
+    /** Counts error replies, which are answers rather than failures: Dart may ask for the wrong thing. */
+    private final class ReplayResult implements MethodChannel.Result {
+        private final String method;
+
+        ReplayResult(String method) {
+            this.method = method;
+        }
+
+        @Override
+        public void success(Object result) {}
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+            count(errors, method);
+        }
+
+        @Override
+        public void notImplemented() {
+            count(errors, method);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Emits sections through {@link Trace}, so they show up in Perfetto and systrace captures.
+ * Sections need API 18 and async sections API 29; on older devices they are dropped. The plugin
+ * compiles against API 28, so the async section methods are looked up by reflection.
+ */
+final class AndroidTracer implements Tracer {
+    // Trace rejects longer section names.
+    private static final int MAX_NAME_LENGTH = 127;
+    // Build.VERSION_CODES.Q, which is not in the API 28 SDK.
+    private static final int ASYNC_SECTIONS_API = 29;
+
+    private final boolean sections = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    private final Method beginAsyncSection;
+    private final Method endAsyncSection;
+
+    AndroidTracer() {
+        Method begin = null;
+        Method end = null;
+        if (Build.VERSION.SDK_INT >= ASYNC_SECTIONS_API) {
+            try {
+                begin = Trace.class.getMethod("beginAsyncSection", String.class, int.class);
+                end = Trace.class.getMethod("endAsyncSection", String.class, int.class);
+            } catch (NoSuchMethodException e) {
+                begin = null;
+                end = null;
+            }
+        }
+        beginAsyncSection = begin;
+        endAsyncSection = end;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    @Override
+    public void beginSection(String name) {
+        if (sections) {
+            Trace.beginSection(truncate(name));
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    @Override
+    public void endSection() {
+        if (sections) {
+            Trace.endSection();
+        }
+    }
+
+    @Override
+    public void beginAsyncSection(String name, int cookie) {
+        invoke(beginAsyncSection, name, cookie);
+    }
+
+    @Override
+    public void endAsyncSection(String name, int cookie) {
+        invoke(endAsyncSection, name, cookie);
+    }
+
+    private static void invoke(Method method, String name, int cookie) {
+        if (method == null) {
+            return;
+        }
+        try {
+            method.invoke(null, truncate(name), cookie);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // Tracing is best effort; a failed section must not break the map.
+        }
+    }
+
+    private static String truncate(String name) {
+        return name.length() <= MAX_NAME_LENGTH ? name : name.substring(0, MAX_NAME_LENGTH);
+    }
+}
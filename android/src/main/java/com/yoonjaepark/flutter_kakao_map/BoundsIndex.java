@@ -0,0 +1,152 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.Arrays;
+
+/**
+ * Static packed R-tree over bounding boxes, stored in flat arrays.
+ *
+ * <p>Boxes are bulk loaded with the sort-tile-recursive method: sorted into vertical slices by
+ * center x, then by center y within each slice, and packed {@link #NODE_SIZE} to a node, level by
+ * level up to the root. The tree is immutable and rebuilt whenever the boxes change. Queries share
+ * a scratch stack and must not run concurrently.
+ */
+final class BoundsIndex {
+    private static final int NODE_SIZE = 16;
+
+    // Four coordinates per node; leaves come first, the root is the last node.
+    private final double[] boxes;
+    // Item id for leaves, first child node for inner nodes.
+    private final int[] indices;
+    // One past the last child node of each inner node.
+    private final int[] childEnds;
+    private final int leafCount;
+    private int[] stack = new int[32];
+
+    BoundsIndex(double[] minX, double[] minY, double[] maxX, double[] maxY, int count) {
+        this.leafCount = count;
+        int nodeCount = count;
+        for (int n = count; n > 1; ) {
+            n = (n + NODE_SIZE - 1) / NODE_SIZE;
+            nodeCount += n;
+        }
+        boxes = new double[Math.max(nodeCount, 1) * 4];
+        indices = new int[Math.max(nodeCount, 1)];
+        childEnds = new int[Math.max(nodeCount, 1)];
+        if (count == 0) {
+            return;
+        }
+
+        final int[] order = new int[count];
+        final double[] centerX = new double[count];
+        final double[] centerY = new double[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            centerX[i] = (minX[i] + maxX[i]) / 2;
+            centerY[i] = (minY[i] + maxY[i]) / 2;
+        }
+        sort(order, centerX, 0, count - 1);
+        final int sliceSize = NODE_SIZE * (int) Math.ceil(Math.sqrt(Math.ceil(count / (double) NODE_SIZE)));
+        for (int start = 0; start < count; start += sliceSize) {
+            sort(order, centerY, start, Math.min(start + sliceSize, count) - 1);
+        }
+        for (int i = 0; i < count; i++) {
+            final int item = order[i];
+            setBox(i, minX[item], minY[item], maxX[item], maxY[item]);
+            indices[i] = item;
+        }
+
+        int levelStart = 0;
+        int levelEnd = count;
+        int next = count;
+        while (levelEnd - levelStart > 1) {
+            for (int child = levelStart; child < levelEnd; child += NODE_SIZE) {
+                final int end = Math.min(child + NODE_SIZE, levelEnd);
+                double x0 = Double.POSITIVE_INFINITY;
+                double y0 = Double.POSITIVE_INFINITY;
+                double x1 = Double.NEGATIVE_INFINITY;
+                double y1 = Double.NEGATIVE_INFINITY;
+                for (int i = child; i < end; i++) {
+                    x0 = Math.min(x0, boxes[4 * i]);
+                    y0 = Math.min(y0, boxes[4 * i + 1]);
+                    x1 = Math.max(x1, boxes[4 * i + 2]);
+                    y1 = Math.max(y1, boxes[4 * i + 3]);
+                }
+                setBox(next, x0, y0, x1, y1);
+                indices[next] = child;
+                childEnds[next] = end;
+                next++;
+            }
+            levelStart = levelEnd;
+            levelEnd = next;
+        }
+    }
+
+    /** Appends the ids of all boxes containing (x, y) to {@code result}. */
+    void search(double x, double y, IntArrayList result) {
+        if (leafCount == 0) {
+            return;
+        }
+        int top = 0;
+        stack[top++] = indices.length - 1;
+        while (top > 0) {
+            final int node = stack[--top];
+            if (x < boxes[4 * node] || y < boxes[4 * node + 1] || x > boxes[4 * node + 2] || y > boxes[4 * node + 3]) {
+                continue;
+            }
+            if (node < leafCount) {
+                result.add(indices[node]);
+                continue;
+            }
+            final int end = childEnds[node];
+            for (int child = indices[node]; child < end; child++) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = child;
+            }
+        }
+    }
+
+    private void setBox(int node, double x0, double y0, double x1, double y1) {
+        boxes[4 * node] = x0;
+        boxes[4 * node + 1] = y0;
+        boxes[4 * node + 2] = x1;
+        boxes[4 * node + 3] = y1;
+    }
+
+    // Sorts order[left..right] by keys[order[i]].
+    private static void sort(int[] order, double[] keys, int left, int right) {
+        while (left < right) {
+            final double pivot = keys[order[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) {
+                    i++;
+                }
+                while (keys[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    final int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller half to bound the stack depth.
+            if (j - left < right - i) {
+                sort(order, keys, left, j);
+                left = i;
+            } else {
+                sort(order, keys, i, right);
+                right = j;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Coalesces camera#onMove and camera#onZoomChanged events.
+ *
+ * <p>The map SDK reports every intermediate center point during a fling. Only the latest center
+ * and zoom are kept, and they are flushed to Dart at most once per display frame, or once per
+ * {@code intervalMillis} when an interval is configured. Nothing is sent while camera tracking is
+ * disabled.
+ */
+final class CameraEventScheduler implements Choreographer.FrameCallback, Runnable {
+    private final MethodChannel methodChannel;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private boolean enabled;
+    private long intervalMillis;
+    private boolean scheduled;
+    private long lastFlushMillis;
+
+    private boolean hasPosition;
+    private double latitude;
+    private double longitude;
+    private boolean hasZoom;
+    private float zoom;
+
+    CameraEventScheduler(MethodChannel methodChannel) {
+        this.methodChannel = methodChannel;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            cancel();
+        }
+    }
+
+    /** Sets the minimum time between flushes; zero or less flushes once per frame. */
+    void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    void onCenterPointMoved(double latitude, double longitude) {
+        if (!enabled) {
+            return;
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+        hasPosition = true;
+        schedule();
+    }
+
+    void onZoomLevelChanged(float zoom) {
+        if (!enabled) {
+            return;
+        }
+        this.zoom = zoom;
+        hasZoom = true;
+        schedule();
+    }
+
+    /** Drops pending events and any scheduled flush. */
+    void cancel() {
+        hasPosition = false;
+        hasZoom = false;
+        if (scheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            handler.removeCallbacks(this);
+            scheduled = false;
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        flush();
+    }
+
+    @Override
+    public void run() {
+        flush();
+    }
+
+    private void schedule() {
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        if (intervalMillis <= 0) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            final long delay = lastFlushMillis + intervalMillis - SystemClock.uptimeMillis();
+            handler.postDelayed(this, Math.max(delay, 0));
+        }
+    }
+
+    private void flush() {
+        scheduled = false;
+        lastFlushMillis = SystemClock.uptimeMillis();
+        if (hasPosition) {
+            hasPosition = false;
+            methodChannel.invokeMethod("camera#onMove", Convert.cameraMoveToJson(latitude, longitude));
+        }
+        if (hasZoom) {
+            hasZoom = false;
+            methodChannel.invokeMethod("camera#onZoomChanged", Convert.zoomToJson(zoom));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Writes a map's channel traffic to a file, so a real session can be replayed off-device.
+ *
+ * <p>The file starts with {@link #MAGIC}, followed by one entry per message: a kind byte
+ * ({@link #CALL} from Dart or {@link #EVENT} to Dart), the microseconds since the previous entry
+ * and the message length as unsigned LEB128 varints, then the message as encoded by
+ * {@code StandardMethodCodec}, which carries the method name and arguments. Messages are copied
+ * and timestamped on the calling thread and written on a background thread.
+ */
+final class ChannelRecorder {
+    static final int MAGIC = 0x4b4d5231; // "KMR1"
+    static final byte CALL = 1;
+    static final byte EVENT = 2;
+
+    private static final String TAG = "KakaoMapRecorder";
+
+    /** A recorded message. */
+    static final class Entry {
+        final byte kind;
+        /** Time since the first entry. */
+        final long timeMicros;
+        final byte[] message;
+
+        Entry(byte kind, long timeMicros, byte[] message) {
+            this.kind = kind;
+            this.timeMicros = timeMicros;
+            this.message = message;
+        }
+    }
+
+    private final File file;
+    private final OutputStream out;
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            final Thread thread = new Thread(runnable, "KakaoMapRecorder");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+    private long lastMicros = -1;
+    private int entryCount;
+    private boolean closed;
+    // Set on the writer thread once a write failed; later entries are dropped.
+    private boolean failed;
+
+    private ChannelRecorder(File file) throws IOException {
+        this.file = file;
+        this.out = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+        writeInt(out, MAGIC);
+    }
+
+    /**
+     * Returns a new file for a recording of map {@code mapId} in the app's external files, where
+     * {@code adb pull} can reach it, or in its internal files without external storage.
+     */
+    static File newFile(Context context, int mapId) {
+        File directory = context.getExternalFilesDir(null);
+        if (directory == null) {
+            directory = context.getFilesDir();
+        }
+        return new File(new File(directory, "kakao_map_recordings"),
+                "map_" + mapId + "_" + System.currentTimeMillis() + ".kmrec");
+    }
+
+    /** Creates {@code file}, replacing an existing one, and starts recording into it. */
+    static ChannelRecorder start(File file) throws IOException {
+        final File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        return new ChannelRecorder(file);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    synchronized int getEntryCount() {
+        return entryCount;
+    }
+
+    /** Records an incoming message, whose bytes run from its position to its limit. */
+    void recordCall(ByteBuffer message) {
+        record(CALL, message, message.position(), message.limit());
+    }
+
+    /** Records an outgoing message, which codecs hand over with the position at its end. */
+    void recordEvent(ByteBuffer message) {
+        record(EVENT, message, 0, message.position());
+    }
+
+    /** Writes out the remaining entries and closes the file. Later messages are not recorded. */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not close " + file, e);
+                }
+            }
+        });
+        executor.shutdown();
+    }
+
+    private synchronized void record(final byte kind, ByteBuffer message, int start, int end) {
+        if (closed) {
+            return;
+        }
+        final long nowMicros = System.nanoTime() / 1000;
+        final long deltaMicros = lastMicros < 0 ? 0 : nowMicros - lastMicros;
+        lastMicros = nowMicros;
+        entryCount++;
+        final byte[] bytes = new byte[end - start];
+        final ByteBuffer source = message.duplicate();
+        source.limit(end);
+        source.position(start);
+        source.get(bytes);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (failed) {
+                    return;
+                }
+                try {
+                    out.write(kind);
+                    writeVarint(out, deltaMicros);
+                    writeVarint(out, bytes.length);
+                    out.write(bytes);
+                } catch (IOException e) {
+                    failed = true;
+                    Log.w(TAG, "Stopped recording to " + file, e);
+                }
+            }
+        });
+    }
+
+    /** Reads every entry of a recording. */
+    static List<Entry> read(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a channel recording");
+        }
+        final List<Entry> entries = new ArrayList<>();
+        long timeMicros = 0;
+        while (true) {
+            final int kind = data.read();
+            if (kind < 0) {
+                return entries;
+            }
+            timeMicros += readVarint(data);
+            final byte[] message = new byte[(int) readVarint(data)];
+            data.readFully(message);
+            entries.add(new Entry((byte) kind, timeMicros, message));
+        }
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated channel recording");
+            }
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in channel recording");
+    }
+}
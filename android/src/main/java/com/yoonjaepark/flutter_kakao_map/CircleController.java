@@ -0,0 +1,97 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import net.daum.mf.map.api.MapCircle;
+import net.daum.mf.map.api.MapPoint;
+import net.daum.mf.map.api.MapView;
+
+/**
+ * Controller of a single Circle on the map.
+ *
+ * <p>{@link MapCircle} tessellates internally and exposes no segment count, so level of detail
+ * is applied by leaving circles off the map while their radius is under
+ * {@link #MIN_RADIUS_PIXELS} on screen. A circle cannot be edited once added, so changes replace
+ * it.
+ */
+class CircleController implements CircleOptionsSink {
+    private static final double MIN_RADIUS_PIXELS = 1;
+
+    private final String circleId;
+    private final int kakaoMapsTag;
+    private double latitude;
+    private double longitude;
+    private double radius;
+    private int strokeColor = 0xff000000;
+    private int fillColor;
+    private boolean visible = true;
+    private MapCircle circle;
+    private boolean changed = true;
+
+    CircleController(String circleId, int kakaoMapsTag) {
+        this.circleId = circleId;
+        this.kakaoMapsTag = kakaoMapsTag;
+    }
+
+    String getCircleId() {
+        return circleId;
+    }
+
+    /** Shows or hides the circle for {@code zoomLevel}, replacing it if its options changed. */
+    void update(MapView mapView, int zoomLevel) {
+        final boolean shown = visible
+                && radius >= MIN_RADIUS_PIXELS * MercatorProjection.metersPerPixel(latitude, zoomLevel);
+        if (!shown) {
+            remove(mapView);
+            return;
+        }
+        if (circle != null && !changed) {
+            return;
+        }
+        remove(mapView);
+        circle = new MapCircle(
+                MapPoint.mapPointWithGeoCoord(latitude, longitude), (int) Math.round(radius), strokeColor, fillColor);
+        circle.setTag(kakaoMapsTag);
+        mapView.addCircle(circle);
+        changed = false;
+    }
+
+    void remove(MapView mapView) {
+        if (circle != null) {
+            mapView.removeCircle(circle);
+            circle = null;
+        }
+    }
+
+    @Override
+    public void setCenter(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        changed = true;
+    }
+
+    @Override
+    public void setRadius(double radius) {
+        this.radius = radius;
+        changed = true;
+    }
+
+    @Override
+    public void setStrokeColor(int strokeColor) {
+        this.strokeColor = strokeColor;
+        changed = true;
+    }
+
+    @Override
+    public void setFillColor(int fillColor) {
+        this.fillColor = fillColor;
+        changed = true;
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+}
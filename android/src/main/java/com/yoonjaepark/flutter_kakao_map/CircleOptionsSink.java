@@ -0,0 +1,19 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+/** Receiver of Circle configuration options. */
+interface CircleOptionsSink {
+    void setCenter(double latitude, double longitude);
+
+    /** Sets the radius in meters. */
+    void setRadius(double radius);
+
+    void setStrokeColor(int strokeColor);
+
+    void setFillColor(int fillColor);
+
+    void setVisible(boolean visible);
+}
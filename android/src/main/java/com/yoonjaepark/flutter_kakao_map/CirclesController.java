@@ -0,0 +1,95 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import net.daum.mf.map.api.MapView;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class CirclesController {
+
+    private final Map<String, CircleController> circleIdToController = new HashMap<>();
+    private MapView kakaoMap;
+    private int zoomLevel;
+    private int nextKakaoMapsTag = 1;
+
+    void setKakaoMap(MapView kakaoMap) {
+        this.kakaoMap = kakaoMap;
+        this.zoomLevel = kakaoMap.getZoomLevel();
+        for (CircleController circleController : circleIdToController.values()) {
+            circleController.update(kakaoMap, zoomLevel);
+        }
+    }
+
+    /** Hides circles that became too small to see and shows those that grew large enough. */
+    void onZoomLevelChanged(int zoomLevel) {
+        if (kakaoMap == null || zoomLevel == this.zoomLevel) {
+            return;
+        }
+        this.zoomLevel = zoomLevel;
+        for (CircleController circleController : circleIdToController.values()) {
+            circleController.update(kakaoMap, zoomLevel);
+        }
+    }
+
+    void addCircles(List<Object> circlesToAdd) {
+        if (circlesToAdd == null) {
+            return;
+        }
+        for (Object circleToAdd : circlesToAdd) {
+            if (circleToAdd == null) {
+                continue;
+            }
+            final CircleController circleController =
+                    new CircleController(Convert.getCircleId(circleToAdd), nextKakaoMapsTag++);
+            Convert.interpretCircleOptions(circleToAdd, circleController);
+            final CircleController previous =
+                    circleIdToController.put(circleController.getCircleId(), circleController);
+            if (kakaoMap != null) {
+                if (previous != null) {
+                    previous.remove(kakaoMap);
+                }
+                circleController.update(kakaoMap, zoomLevel);
+            }
+        }
+    }
+
+    void changeCircles(List<Object> circlesToChange) {
+        if (circlesToChange == null) {
+            return;
+        }
+        for (Object circleToChange : circlesToChange) {
+            if (circleToChange == null) {
+                continue;
+            }
+            final CircleController circleController =
+                    circleIdToController.get(Convert.getCircleId(circleToChange));
+            if (circleController == null) {
+                continue;
+            }
+            Convert.interpretCircleOptions(circleToChange, circleController);
+            if (kakaoMap != null) {
+                circleController.update(kakaoMap, zoomLevel);
+            }
+        }
+    }
+
+    void removeCircles(List<Object> circleIdsToRemove) {
+        if (circleIdsToRemove == null) {
+            return;
+        }
+        for (Object rawCircleId : circleIdsToRemove) {
+            if (rawCircleId == null) {
+                continue;
+            }
+            final CircleController circleController = circleIdToController.remove(rawCircleId);
+            if (circleController != null && kakaoMap != null) {
+                circleController.remove(kakaoMap);
+            }
+        }
+    }
+}
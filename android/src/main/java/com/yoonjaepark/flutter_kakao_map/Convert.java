@@ -11,8 +11,6 @@ import android.util.Log;
 
 import net.daum.android.map.coord.MapCoord;
 import net.daum.mf.map.api.CameraPosition;
-import net.daum.mf.map.api.CameraUpdate;
-import net.daum.mf.map.api.CameraUpdateFactory;
 import net.daum.mf.map.api.MapPoint;
 import net.daum.mf.map.api.MapPointBounds;
 
@@ -26,16 +24,95 @@ import java.util.Map;
 /** Conversions between JSON-like values and KakaoMaps data types. */
 class Convert {
     static Object mapPointToJson(MapPoint mapPoint) {
-        return Arrays.asList(mapPoint.getMapPointGeoCoord().latitude, mapPoint.getMapPointGeoCoord().longitude);
+        final MapPoint.GeoCoordinate coordinate = mapPoint.getMapPointGeoCoord();
+        return latLngToJson(coordinate.latitude, coordinate.longitude);
     }
 
-    static CameraUpdate toCameraUpdate(Object o, float density) {
+    static Object latLngToJson(double latitude, double longitude) {
+        return Arrays.asList(latitude, longitude);
+    }
+
+    /** Arguments of {@code camera#onMove}. */
+    static Object cameraMoveToJson(double latitude, double longitude) {
+        final Map<String, Object> data = new HashMap<>(2);
+        data.put("position", latLngToJson(latitude, longitude));
+        return data;
+    }
+
+    /** Arguments of {@code camera#onZoomChanged}. */
+    static Object zoomToJson(float zoom) {
+        final Map<String, Object> data = new HashMap<>(2);
+        data.put("zoom", zoom);
+        return data;
+    }
+
+    /**
+     * Whether {@link #interpretCameraUpdate} can apply {@code o}. Kakao maps cannot scroll by
+     * pixels, so {@code scrollBy} is not supported.
+     */
+    static boolean isSupportedCameraUpdate(Object o) {
+        if (!(o instanceof List) || ((List<?>) o).isEmpty() || !(((List<?>) o).get(0) instanceof String)) {
+            return false;
+        }
+        switch (toString(((List<?>) o).get(0))) {
+            case "newCameraPosition":
+            case "newMapPoint":
+            case "newMapPointBounds":
+            case "newMapPointZoom":
+            case "zoomBy":
+            case "zoomIn":
+            case "zoomOut":
+            case "zoomTo":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Moves the camera of {@code map} as the Dart {@code CameraUpdate} {@code o} says. Zoom levels
+     * grow as the map zooms out, so zooming in by one lowers the level by one; the focus of
+     * {@code zoomBy} is ignored.
+     */
+    static void interpretCameraUpdate(Object o, float density, boolean animated, MapBackend map) {
         final List<?> data = toList(o);
+        final double[] center = new double[2];
+        map.getCenter(center);
         switch (toString(data.get(0))) {
-            case "newMapPoint":
             case "newCameraPosition":
-            case "newMapPointAndDiameter":
-            case "newLatLngZoom":
+            {
+                final Map<?, ?> position = toMap(data.get(1));
+                final List<?> target = toList(position.get("target"));
+                map.setCamera(toDouble(target.get(0)), toDouble(target.get(1)), toInt(position.get("zoom")), animated);
+                break;
+            }
+            case "newMapPoint":
+            {
+                final List<?> target = toList(data.get(1));
+                map.setCamera(toDouble(target.get(0)), toDouble(target.get(1)), map.getZoomLevel(), animated);
+                break;
+            }
+            case "newMapPointBounds":
+                map.fitBounds(toLatLngBounds(data.get(1)), toPixels(data.get(2), density), animated);
+                break;
+            case "newMapPointZoom":
+            {
+                final List<?> target = toList(data.get(1));
+                map.setCamera(toDouble(target.get(0)), toDouble(target.get(1)), toInt(data.get(2)), animated);
+                break;
+            }
+            case "zoomBy":
+                map.setCamera(center[0], center[1], map.getZoomLevel() - Math.round(toFloat(data.get(1))), animated);
+                break;
+            case "zoomIn":
+                map.setCamera(center[0], center[1], map.getZoomLevel() - 1, animated);
+                break;
+            case "zoomOut":
+                map.setCamera(center[0], center[1], map.getZoomLevel() + 1, animated);
+                break;
+            case "zoomTo":
+                map.setCamera(center[0], center[1], toInt(data.get(1)), animated);
+                break;
             default:
                 throw new IllegalArgumentException("Cannot interpret " + o + " as CameraUpdate");
         }
@@ -80,6 +157,19 @@ class Convert {
         return data;
     }
 
+    /** Returns {minLatitude, minLongitude, maxLatitude, maxLongitude} of a [bottomLeft, topRight] pair. */
+    static double[] toLatLngBounds(Object o) {
+        final List<?> data = toList(o);
+        final List<?> bottomLeft = toList(data.get(0));
+        final List<?> topRight = toList(data.get(1));
+        return new double[] {
+            toDouble(bottomLeft.get(0)),
+            toDouble(bottomLeft.get(1)),
+            toDouble(topRight.get(0)),
+            toDouble(topRight.get(1))
+        };
+    }
+
     static Object latlngBoundsToJson(MapPointBounds latLngBounds) {
         final Map<String, Object> arguments = new HashMap<>(2);
         return arguments;
@@ -94,6 +184,13 @@ class Convert {
         return data;
     }
 
+    static Object markerHandleToJson(String markerId, int markerHandle) {
+        final Map<String, Object> data = new HashMap<>(2);
+        data.put("markerId", markerId);
+        data.put("markerHandle", markerHandle);
+        return data;
+    }
+
     static Object polygonIdToJson(String polygonId) {
         if (polygonId == null) {
             return null;
@@ -149,14 +246,39 @@ class Convert {
         return (int) toFractionalPixels(o, density);
     }
 
-    private static Bitmap toBitmap(Object o) {
-        byte[] bmpData = (byte[]) o;
-        Bitmap bitmap = BitmapFactory.decodeByteArray(bmpData, 0, bmpData.length);
-        if (bitmap == null) {
-            throw new IllegalArgumentException("Unable to decode bytes as a valid bitmap.");
-        } else {
-            return bitmap;
+    /**
+     * Returns the bitmap described by a marker icon, or null for the default marker image.
+     *
+     * <p>Accepts {@code ['fromRegisteredIcon', iconId]} and {@code ['fromBytes', bytes]}, the
+     * latter optionally followed by a map with a logical {@code size} of [width, height] or the
+     * {@code imagePixelRatio} the image was authored for.
+     */
+    static Bitmap toIcon(Object o, MarkerIconRegistry icons) {
+        final List<?> data = toList(o);
+        final Object type = data.get(0);
+        if ("fromRegisteredIcon".equals(type)) {
+            return icons.get(toString(data.get(1)));
+        }
+        if (!"fromBytes".equals(type)) {
+            return null;
         }
+        float width = 0;
+        float height = 0;
+        float imagePixelRatio = 0;
+        if (data.size() > 2 && data.get(2) != null) {
+            final Map<?, ?> options = toMap(data.get(2));
+            final Object size = options.get("size");
+            if (size != null) {
+                final List<?> sizeData = toList(size);
+                width = toFloat(sizeData.get(0));
+                height = toFloat(sizeData.get(1));
+            }
+            final Object ratio = options.get("imagePixelRatio");
+            if (ratio != null) {
+                imagePixelRatio = toFloat(ratio);
+            }
+        }
+        return icons.decode((byte[]) data.get(1), width, height, imagePixelRatio);
     }
 
     private static Point toPoint(Object o, float density) {
@@ -222,6 +344,10 @@ class Convert {
         if (trackCameraPosition != null) {
             sink.setTrackCameraPosition(toBoolean(trackCameraPosition));
         }
+        final Object cameraEventInterval = data.get("cameraEventInterval");
+        if (cameraEventInterval != null) {
+            sink.setCameraEventInterval(toInt(cameraEventInterval));
+        }
         final Object zoomGesturesEnabled = data.get("zoomGesturesEnabled");
         if (zoomGesturesEnabled != null) {
             sink.setZoomGesturesEnabled(toBoolean(zoomGesturesEnabled));
@@ -241,8 +367,40 @@ class Convert {
     }
 
     /** Returns the dartMarkerId of the interpreted marker. */
-    static String interpretMarkerOptions(Object o, MarkerOptionsSink sink) {
-        final Map<?, ?> data = toMap(o);
+    static String interpretMarkerOptions(Object o, MarkerOptionsSink sink, MarkerIconRegistry icons) {
+        final Tracer tracer = Tracers.get();
+        tracer.beginSection(Tracers.INTERPRET_MARKER_OPTIONS);
+        try {
+            final Map<?, ?> data = toMap(o);
+            applyMarkerOptions(data, sink, icons);
+            final String markerId = (String) data.get("markerId");
+            if (markerId == null) {
+                throw new IllegalArgumentException("markerId was null");
+            }
+            return markerId;
+        } finally {
+            tracer.endSection();
+        }
+    }
+
+    /** Returns the markerHandle of the interpreted marker, for changes in handle mode. */
+    static int interpretMarkerOptionsByHandle(Object o, MarkerOptionsSink sink, MarkerIconRegistry icons) {
+        final Tracer tracer = Tracers.get();
+        tracer.beginSection(Tracers.INTERPRET_MARKER_OPTIONS);
+        try {
+            final Map<?, ?> data = toMap(o);
+            applyMarkerOptions(data, sink, icons);
+            final Object markerHandle = data.get("markerHandle");
+            if (markerHandle == null) {
+                throw new IllegalArgumentException("markerHandle was null");
+            }
+            return toInt(markerHandle);
+        } finally {
+            tracer.endSection();
+        }
+    }
+
+    private static void applyMarkerOptions(Map<?, ?> data, MarkerOptionsSink sink, MarkerIconRegistry icons) {
         final Object alpha = data.get("alpha");
         if (alpha != null) {
             sink.setAlpha(toFloat(alpha));
@@ -263,20 +421,14 @@ class Convert {
         final Object flat = data.get("flat");
         if (flat != null) {
         }
-//        final Object icon = data.get("icon");
-//        if (icon != null) {
-//            sink.setIcon(toBitmapDescriptor(icon));
-//        }
-
         final Object infoWindow = data.get("infoWindow");
         if (infoWindow != null) {
             interpretInfoWindowOptions(sink, (Map<String, Object>) infoWindow);
         }
         final Object position = data.get("position");
         if (position != null) {
-            List list = toList(position);
-            MapPoint mapPoint = MapPoint.mapPointWithGeoCoord(toDouble(list.get(0)), toDouble(list.get(1)));
-            sink.setPosition(mapPoint);
+            final List<?> positionData = toList(position);
+            sink.setPosition(toDouble(positionData.get(0)), toDouble(positionData.get(1)));
         }
         final Object rotation = data.get("rotation");
         if (rotation != null) {
@@ -290,8 +442,6 @@ class Convert {
         if (zIndex != null) {
 //            sink.setZIndex(toFloat(zIndex));
         }
-        final String markerId = (String) data.get("markerId");
-
         final int markerType = toInt(data.get("markerType"));
         if (markerType > -1) {
             sink.setMarkerType(toInt(markerType));
@@ -302,11 +452,168 @@ class Convert {
             sink.setMarkerSelectedType(toInt(markerSelectedType));
         }
 
-        if (markerId == null) {
-            throw new IllegalArgumentException("markerId was null");
-        } else {
-            return markerId;
+        // Applied after the marker type, since a custom icon switches the marker to a custom image.
+        final Object iconId = data.get("iconId");
+        final Object icon = data.get("icon");
+        if (iconId != null) {
+            final Bitmap bitmap = icons.get(toString(iconId));
+            if (bitmap != null) {
+                sink.setIcon(bitmap);
+            }
+        } else if (icon != null) {
+            final Bitmap bitmap = toIcon(icon, icons);
+            if (bitmap != null) {
+                sink.setIcon(bitmap);
+            }
+        }
+    }
+
+    static String getPolylineId(Object polyline) {
+        final String polylineId = (String) toMap(polyline).get("polylineId");
+        if (polylineId == null) {
+            throw new IllegalArgumentException("polylineId was null");
+        }
+        return polylineId;
+    }
+
+    static void interpretPolylineOptions(Object o, PolylineOptionsSink sink) {
+        final Map<?, ?> data = toMap(o);
+        final Object color = data.get("color");
+        if (color != null) {
+            sink.setColor(toInt(color));
+        }
+        final Object points = data.get("points");
+        if (points != null) {
+            sink.setPoints(toLatLngArray(points));
+        }
+        final Object visible = data.get("visible");
+        if (visible != null) {
+            sink.setVisible(toBoolean(visible));
+        }
+    }
+
+    static String getPolygonId(Object polygon) {
+        final String polygonId = (String) toMap(polygon).get("polygonId");
+        if (polygonId == null) {
+            throw new IllegalArgumentException("polygonId was null");
+        }
+        return polygonId;
+    }
+
+    static void interpretPolygonOptions(Object o, PolygonOptionsSink sink) {
+        final Map<?, ?> data = toMap(o);
+        final Object consumeTapEvents = data.get("consumeTapEvents");
+        if (consumeTapEvents != null) {
+            sink.setConsumeTapEvents(toBoolean(consumeTapEvents));
+        }
+        final Object strokeColor = data.get("strokeColor");
+        if (strokeColor != null) {
+            sink.setStrokeColor(toInt(strokeColor));
+        }
+        final Object points = data.get("points");
+        if (points != null) {
+            sink.setPoints(toLatLngArray(points));
+        }
+        final Object holes = data.get("holes");
+        if (holes != null) {
+            final List<?> holesData = toList(holes);
+            final List<double[]> rings = new ArrayList<>(holesData.size());
+            for (Object hole : holesData) {
+                rings.add(toLatLngArray(hole));
+            }
+            sink.setHoles(rings);
+        }
+        final Object visible = data.get("visible");
+        if (visible != null) {
+            sink.setVisible(toBoolean(visible));
+        }
+        final Object zIndex = data.get("zIndex");
+        if (zIndex != null) {
+            sink.setZIndex(toInt(zIndex));
+        }
+    }
+
+    static String getCircleId(Object circle) {
+        final String circleId = (String) toMap(circle).get("circleId");
+        if (circleId == null) {
+            throw new IllegalArgumentException("circleId was null");
+        }
+        return circleId;
+    }
+
+    static void interpretCircleOptions(Object o, CircleOptionsSink sink) {
+        final Map<?, ?> data = toMap(o);
+        final Object center = data.get("center");
+        if (center != null) {
+            final List<?> centerData = toList(center);
+            sink.setCenter(toDouble(centerData.get(0)), toDouble(centerData.get(1)));
+        }
+        final Object radius = data.get("radius");
+        if (radius != null) {
+            sink.setRadius(toDouble(radius));
+        }
+        final Object strokeColor = data.get("strokeColor");
+        if (strokeColor != null) {
+            sink.setStrokeColor(toInt(strokeColor));
+        }
+        final Object fillColor = data.get("fillColor");
+        if (fillColor != null) {
+            sink.setFillColor(toInt(fillColor));
+        }
+        final Object visible = data.get("visible");
+        if (visible != null) {
+            sink.setVisible(toBoolean(visible));
+        }
+    }
+
+    /**
+     * Returns packed latitude/longitude pairs from either a packed {@code double[]} (a Dart
+     * {@code Float64List}) or a list of [lat, lng] lists.
+     */
+    static double[] toLatLngArray(Object o) {
+        if (o instanceof double[]) {
+            return (double[]) o;
+        }
+        final List<?> data = toList(o);
+        final double[] latLngs = new double[data.size() * 2];
+        for (int i = 0; i < data.size(); i++) {
+            final List<?> point = toList(data.get(i));
+            latLngs[2 * i] = toDouble(point.get(0));
+            latLngs[2 * i + 1] = toDouble(point.get(1));
+        }
+        return latLngs;
+    }
+
+    /** Returns the ARGB colors of a list of Dart color values, or null. */
+    static int[] toColorArray(Object o) {
+        if (o == null) {
+            return null;
+        }
+        final List<?> data = toList(o);
+        final int[] colors = new int[data.size()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = (int) ((Number) data.get(i)).longValue();
+        }
+        return colors;
+    }
+
+    /** Returns the clusterer described by a clusters#configure payload, or null to disable clustering. */
+    static MarkerClusterer toMarkerClusterer(Object o) {
+        if (o == null) {
+            return null;
+        }
+        final Map<?, ?> data = toMap(o);
+        final Object enabled = data.get("enabled");
+        if (enabled != null && !toBoolean(enabled)) {
+            return null;
         }
+        final Object radius = data.get("radius");
+        final Object minPoints = data.get("minPoints");
+        final Object maxZoom = data.get("maxZoom");
+        return new MarkerClusterer(
+                radius != null ? toFloat(radius) : MarkerClusterer.DEFAULT_RADIUS,
+                minPoints != null ? toInt(minPoints) : MarkerClusterer.DEFAULT_MIN_POINTS,
+                maxZoom != null ? toInt(maxZoom) : MarkerClusterer.DEFAULT_MAX_ZOOM_LEVEL);
     }
 
     private static void interpretInfoWindowOptions(
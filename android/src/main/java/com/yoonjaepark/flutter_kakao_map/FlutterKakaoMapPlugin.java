@@ -51,6 +51,8 @@ public class FlutterKakaoMapPlugin
       // We stop the registration process as this plugin is foreground only.
       return;
     }
+    Tracers.configure(registrar.context());
+    MapEngineWarmUp.onPluginAttached(registrar.context());
     final FlutterKakaoMapPlugin plugin = new FlutterKakaoMapPlugin(registrar.activity());
     registrar.activity().getApplication().registerActivityLifecycleCallbacks(plugin);
     registrar
@@ -67,6 +69,8 @@ public class FlutterKakaoMapPlugin
   @Override
   public void onAttachedToEngine(FlutterPluginBinding binding) {
     pluginBinding = binding;
+    Tracers.configure(binding.getApplicationContext());
+    MapEngineWarmUp.onPluginAttached(binding.getApplicationContext());
   }
 
   @Override
@@ -98,6 +102,7 @@ public class FlutterKakaoMapPlugin
   @Override
   public void onDetachedFromActivity() {
     lifecycle.removeObserver(this);
+    MapViewPool.clearIdleViews();
   }
 
   @Override
@@ -0,0 +1,241 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+
+import net.daum.mf.map.api.MapPOIItem;
+import net.daum.mf.map.api.MapPoint;
+import net.daum.mf.map.api.MapPointBounds;
+import net.daum.mf.map.api.MapView;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Draws a density heatmap of weighted points as a single bitmap covering the visible region.
+ *
+ * <p>The Kakao SDK has no ground overlay, so the bitmap is shown as a non autoscaled custom image
+ * POI centered on the rasterized region, and recomputed on a background thread whenever the
+ * camera settles. Only the newest request is ever shown: results of superseded requests are
+ * dropped when they reach the main thread.
+ */
+final class HeatmapLayer {
+    private static final float DEFAULT_RADIUS = 20;
+    private static final float DEFAULT_OPACITY = 0.7f;
+    private static final int[] DEFAULT_GRADIENT = {0xff66e100, 0xffff0000};
+    // Keeps the overlay bitmap within a sane size on very large views.
+    private static final int MAX_BITMAP_PIXELS = 4096 * 4096;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            final Thread thread = new Thread(runnable, "KakaoMapHeatmap");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+    private MapView kakaoMap;
+    private MapPOIItem overlay;
+    // Only touched on the heatmap thread.
+    private HeatmapRasterizer rasterizer;
+    private boolean hasPoints;
+    private float radius = DEFAULT_RADIUS;
+    private float opacity = DEFAULT_OPACITY;
+    private float maxIntensity;
+    private int[] colors = HeatmapRasterizer.gradient(DEFAULT_GRADIENT);
+    // Incremented on the main thread for every request; stale results are dropped.
+    private volatile int generation;
+    private boolean closed;
+    private int points;
+    private long binningNanos;
+    private long rasterNanos;
+    private int rasterWidth;
+    private int rasterHeight;
+
+    void setKakaoMap(MapView kakaoMap) {
+        this.kakaoMap = kakaoMap;
+        refresh();
+    }
+
+    /**
+     * Replaces the points and options of the heatmap. Projecting and binning happen on the heatmap
+     * thread.
+     *
+     * @param weights one weight per point, or null to weigh every point 1.
+     * @param gradient ARGB color stops from low to high density, or null for the default.
+     */
+    void update(
+            final double[] latLngs,
+            final double[] weights,
+            Float radius,
+            Float opacity,
+            Float maxIntensity,
+            int[] gradient) {
+        if (radius != null) {
+            this.radius = radius;
+        }
+        if (opacity != null) {
+            this.opacity = opacity;
+        }
+        if (maxIntensity != null) {
+            this.maxIntensity = maxIntensity;
+        }
+        if (gradient != null && gradient.length > 0) {
+            colors = HeatmapRasterizer.gradient(gradient);
+        }
+        if (latLngs != null) {
+            hasPoints = true;
+            points = latLngs.length / 2;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    rasterizer = new HeatmapRasterizer(latLngs, weights);
+                }
+            });
+        }
+        refresh();
+    }
+
+    void clear() {
+        generation++;
+        hasPoints = false;
+        points = 0;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                rasterizer = null;
+            }
+        });
+        removeOverlay();
+    }
+
+    /** Rasterizes the visible region again. Called when the camera settles. */
+    void refresh() {
+        if (kakaoMap == null || !hasPoints || closed) {
+            return;
+        }
+        final int viewWidth = kakaoMap.getWidth();
+        final int viewHeight = kakaoMap.getHeight();
+        if (viewWidth == 0 || viewHeight == 0) {
+            return;
+        }
+        final MapPointBounds bounds = kakaoMap.getMapPointBounds();
+        final MapPoint.GeoCoordinate bottomLeft = bounds.bottomLeft.getMapPointGeoCoord();
+        final MapPoint.GeoCoordinate topRight = bounds.topRight.getMapPointGeoCoord();
+        final double minX = MercatorProjection.x(bottomLeft.longitude);
+        final double maxX = MercatorProjection.x(topRight.longitude);
+        final double minY = MercatorProjection.y(topRight.latitude);
+        final double maxY = MercatorProjection.y(bottomLeft.latitude);
+        final int zoomLevel = MercatorProjection.clampZoomLevel(kakaoMap.getZoomLevel());
+        final double pixelsPerUnit = viewWidth / (maxX - minX);
+        final float radius = this.radius;
+        final float maxIntensity = this.maxIntensity;
+        final int[] colors = this.colors;
+        final int request = ++generation;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final HeatmapRasterizer rasterizer = HeatmapLayer.this.rasterizer;
+                if (rasterizer == null || request != generation) {
+                    return;
+                }
+                final HeatmapRasterizer.Raster raster =
+                        rasterizer.rasterize(zoomLevel, minX, minY, maxX, maxY, radius, maxIntensity, colors);
+                final Bitmap bitmap = toBitmap(raster, pixelsPerUnit);
+                final long binning = rasterizer.getBinningNanos();
+                final long rasterizing = rasterizer.getRasterNanos();
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        binningNanos = binning;
+                        rasterNanos = rasterizing;
+                        rasterWidth = raster.width;
+                        rasterHeight = raster.height;
+                        if (request == generation && !closed) {
+                            showOverlay(bitmap, raster);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /** Whether {@code mapPOIItem} is the heatmap overlay rather than a marker. */
+    boolean isOverlay(MapPOIItem mapPOIItem) {
+        return mapPOIItem != null && mapPOIItem == overlay;
+    }
+
+    Map<String, Object> getStats() {
+        final Map<String, Object> stats = new HashMap<>(5);
+        stats.put("points", points);
+        stats.put("binningNanos", binningNanos);
+        stats.put("rasterNanos", rasterNanos);
+        stats.put("rasterWidth", rasterWidth);
+        stats.put("rasterHeight", rasterHeight);
+        return stats;
+    }
+
+    void close() {
+        closed = true;
+        executor.shutdownNow();
+        removeOverlay();
+    }
+
+    // Scales the raster up to screen pixels.
+    private static Bitmap toBitmap(HeatmapRasterizer.Raster raster, double pixelsPerUnit) {
+        final Bitmap bitmap = Bitmap.createBitmap(raster.pixels, raster.width, raster.height, Bitmap.Config.ARGB_8888);
+        int width = (int) Math.round((raster.maxX - raster.minX) * pixelsPerUnit);
+        int height = (int) Math.round((raster.maxY - raster.minY) * pixelsPerUnit);
+        if ((long) width * height > MAX_BITMAP_PIXELS) {
+            final double scale = Math.sqrt((double) MAX_BITMAP_PIXELS / ((long) width * height));
+            width = (int) (width * scale);
+            height = (int) (height * scale);
+        }
+        if (width <= 0 || height <= 0 || (width == raster.width && height == raster.height)) {
+            return bitmap;
+        }
+        final Bitmap scaled = Bitmap.createScaledBitmap(bitmap, width, height, true);
+        bitmap.recycle();
+        return scaled;
+    }
+
+    private void showOverlay(Bitmap bitmap, HeatmapRasterizer.Raster raster) {
+        if (kakaoMap == null) {
+            return;
+        }
+        final MapPOIItem item = new MapPOIItem();
+        item.setItemName("heatmap");
+        item.setMarkerType(MapPOIItem.MarkerType.CustomImage);
+        item.setCustomImageBitmap(bitmap);
+        item.setCustomImageAutoscale(false);
+        item.setCustomImageAnchor(0.5f, 0.5f);
+        item.setShowCalloutBalloonOnTouch(false);
+        item.setAlpha(opacity);
+        item.setMapPoint(
+                MapPoint.mapPointWithGeoCoord(
+                        MercatorProjection.latitude((raster.minY + raster.maxY) / 2),
+                        MercatorProjection.longitude((raster.minX + raster.maxX) / 2)));
+        // Add the new bitmap before removing the old one so the heatmap never blinks.
+        kakaoMap.addPOIItem(item);
+        removeOverlay();
+        overlay = item;
+    }
+
+    private void removeOverlay() {
+        if (overlay != null && kakaoMap != null) {
+            kakaoMap.removePOIItem(overlay);
+        }
+        overlay = null;
+    }
+}
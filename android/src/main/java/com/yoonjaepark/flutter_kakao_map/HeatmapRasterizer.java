@@ -0,0 +1,306 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns weighted points into colorized heatmap pixels. Holds no Android state and is only used
+ * from the heatmap worker thread.
+ *
+ * <p>Points are binned once per zoom level into a sparse grid of {@link #CELL_PIXELS} screen
+ * pixel cells, kept as cell keys sorted row by row, so the cells of any viewport are found with
+ * one binary search per row. Rasterizing sums the visible cells into a dense grid, blurs it with
+ * a separable Gaussian kernel and maps the normalized density through a color lookup table.
+ */
+final class HeatmapRasterizer {
+    static final int CELL_PIXELS = 2;
+    private static final int MAX_CACHED_LEVELS = 4;
+
+    /** Points of one zoom level, binned into cells and sorted by {@link #key}. */
+    private static final class Level {
+        final long[] keys;
+        final float[] weights;
+
+        Level(long[] keys, float[] weights) {
+            this.keys = keys;
+            this.weights = weights;
+        }
+    }
+
+    /** Pixels of one rasterized region, {@link #CELL_PIXELS} screen pixels per pixel. */
+    static final class Raster {
+        final int[] pixels;
+        final int width;
+        final int height;
+        // Region covered, in normalized mercator units.
+        final double minX;
+        final double minY;
+        final double maxX;
+        final double maxY;
+
+        Raster(int[] pixels, int width, int height, double minX, double minY, double maxX, double maxY) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+    }
+
+    private final double[] xs;
+    private final double[] ys;
+    private final float[] pointWeights;
+    private final Map<Integer, Level> levels =
+            new LinkedHashMap<Integer, Level>(MAX_CACHED_LEVELS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Level> eldest) {
+                    return size() > MAX_CACHED_LEVELS;
+                }
+            };
+    private long binningNanos;
+    private long rasterNanos;
+
+    /**
+     * @param latLngs packed latitude/longitude pairs.
+     * @param weights one weight per point, or null to weigh every point 1.
+     */
+    HeatmapRasterizer(double[] latLngs, double[] weights) {
+        final int count = latLngs.length / 2;
+        if (weights != null && weights.length < count) {
+            throw new IllegalArgumentException("Expected " + count + " weights, got " + weights.length);
+        }
+        xs = new double[count];
+        ys = new double[count];
+        pointWeights = new float[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = MercatorProjection.x(latLngs[2 * i + 1]);
+            ys[i] = MercatorProjection.y(latLngs[2 * i]);
+            pointWeights[i] = weights != null ? (float) weights[i] : 1;
+        }
+    }
+
+    int size() {
+        return xs.length;
+    }
+
+    long getBinningNanos() {
+        return binningNanos;
+    }
+
+    long getRasterNanos() {
+        return rasterNanos;
+    }
+
+    /**
+     * Rasterizes the region {@code [minX, maxX] x [minY, maxY]} (normalized mercator units) at
+     * {@code zoomLevel}.
+     *
+     * @param radius kernel radius in screen pixels.
+     * @param maxIntensity density shown at the top of the gradient, or 0 for the region maximum.
+     * @param colors 256 entry ARGB lookup table indexed by normalized density.
+     */
+    Raster rasterize(
+            int zoomLevel,
+            double minX,
+            double minY,
+            double maxX,
+            double maxY,
+            float radius,
+            float maxIntensity,
+            int[] colors) {
+        final Level level = level(zoomLevel);
+        final long start = System.nanoTime();
+        final double cellSize = CELL_PIXELS * MercatorProjection.pixelSize(zoomLevel);
+        final int pad = (int) Math.ceil(radius / CELL_PIXELS);
+        final long cellX0 = (long) Math.floor(minX / cellSize) - pad;
+        final long cellY0 = (long) Math.floor(minY / cellSize) - pad;
+        final long cellX1 = (long) Math.ceil(maxX / cellSize) + pad;
+        final long cellY1 = (long) Math.ceil(maxY / cellSize) + pad;
+        final int width = (int) (cellX1 - cellX0);
+        final int height = (int) (cellY1 - cellY0);
+
+        final float[] density = new float[width * height];
+        for (long row = Math.max(cellY0, 0); row < cellY1; row++) {
+            int i = lowerBound(level.keys, key(row, Math.max(cellX0, 0)));
+            final long end = key(row, cellX1);
+            final int offset = (int) (row - cellY0) * width;
+            for (; i < level.keys.length && level.keys[i] < end; i++) {
+                density[offset + (int) ((level.keys[i] & 0xffffffffL) - cellX0)] += level.weights[i];
+            }
+        }
+
+        blur(density, width, height, radius / CELL_PIXELS / 3);
+
+        float max = maxIntensity;
+        if (max <= 0) {
+            for (float value : density) {
+                max = Math.max(max, value);
+            }
+        }
+        final int[] pixels = new int[width * height];
+        if (max > 0) {
+            final float scale = (colors.length - 1) / max;
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = colors[Math.min(colors.length - 1, (int) (density[i] * scale))];
+            }
+        }
+        rasterNanos = System.nanoTime() - start;
+        return new Raster(
+                pixels, width, height, cellX0 * cellSize, cellY0 * cellSize, cellX1 * cellSize, cellY1 * cellSize);
+    }
+
+    private Level level(int zoomLevel) {
+        Level level = levels.get(zoomLevel);
+        if (level == null) {
+            final long start = System.nanoTime();
+            level = bin(MercatorProjection.pixelSize(zoomLevel) * CELL_PIXELS);
+            binningNanos = System.nanoTime() - start;
+            levels.put(zoomLevel, level);
+        }
+        return level;
+    }
+
+    private Level bin(double cellSize) {
+        final int count = xs.length;
+        final long[] pointKeys = new long[count];
+        final int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            pointKeys[i] = key((long) (ys[i] / cellSize), (long) (xs[i] / cellSize));
+            order[i] = i;
+        }
+        sort(order, pointKeys, 0, count - 1);
+
+        int cells = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || pointKeys[order[i]] != pointKeys[order[i - 1]]) {
+                cells++;
+            }
+        }
+        final long[] keys = new long[cells];
+        final float[] weights = new float[cells];
+        int cell = -1;
+        for (int i = 0; i < count; i++) {
+            final long key = pointKeys[order[i]];
+            if (cell < 0 || keys[cell] != key) {
+                keys[++cell] = key;
+            }
+            weights[cell] += pointWeights[order[i]];
+        }
+        return new Level(keys, weights);
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) | column;
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Separable Gaussian blur in place.
+    private static void blur(float[] values, int width, int height, float sigma) {
+        if (sigma <= 0) {
+            return;
+        }
+        final int radius = (int) Math.ceil(3 * sigma);
+        final float[] kernel = new float[2 * radius + 1];
+        for (int i = -radius; i <= radius; i++) {
+            kernel[i + radius] = (float) Math.exp(-(i * i) / (2.0 * sigma * sigma));
+        }
+        final float[] line = new float[Math.max(width, height)];
+        for (int y = 0; y < height; y++) {
+            final int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                float sum = 0;
+                for (int k = Math.max(-radius, -x); k <= radius && x + k < width; k++) {
+                    sum += values[offset + x + k] * kernel[k + radius];
+                }
+                line[x] = sum;
+            }
+            System.arraycopy(line, 0, values, offset, width);
+        }
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                float sum = 0;
+                for (int k = Math.max(-radius, -y); k <= radius && y + k < height; k++) {
+                    sum += values[(y + k) * width + x] * kernel[k + radius];
+                }
+                line[y] = sum;
+            }
+            for (int y = 0; y < height; y++) {
+                values[y * width + x] = line[y];
+            }
+        }
+    }
+
+    // Sorts order[left..right] by keys[order[i]].
+    private static void sort(int[] order, long[] keys, int left, int right) {
+        while (left < right) {
+            final long pivot = keys[order[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) {
+                    i++;
+                }
+                while (keys[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    final int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (j - left < right - i) {
+                sort(order, keys, left, j);
+                left = i;
+            } else {
+                sort(order, keys, i, right);
+                right = j;
+            }
+        }
+    }
+
+    /** Builds a 256 entry lookup table spreading {@code stops} evenly over (0, 1], fading in from transparent. */
+    static int[] gradient(int[] stops) {
+        final int[] colors = new int[256];
+        for (int i = 0; i < colors.length; i++) {
+            final float t = i / 255f * stops.length;
+            final int upper = Math.min((int) t, stops.length - 1);
+            final int from = upper == 0 ? stops[0] & 0x00ffffff : stops[upper - 1];
+            final int to = stops[upper];
+            colors[i] = lerpColor(from, to, Math.min(1, t - upper));
+        }
+        return colors;
+    }
+
+    private static int lerpColor(int from, int to, float t) {
+        int color = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            final int a = (from >>> shift) & 0xff;
+            final int b = (to >>> shift) & 0xff;
+            color |= Math.round(a + (b - a) * t) << shift;
+        }
+        return color;
+    }
+}
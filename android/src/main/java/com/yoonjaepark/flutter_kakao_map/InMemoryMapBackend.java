@@ -0,0 +1,319 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.graphics.Bitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link MapBackend} that keeps POIs in plain objects and only counts what a real map would
+ * have to do, so marker code can be exercised and load tested on a JVM without the Kakao engine.
+ *
+ * <p>The viewport is a rectangle around the camera center that doubles in size with every zoom
+ * level, like Kakao's levels do. Camera moves are simulated with {@link #moveCamera}, which
+ * reports them to the {@link CameraListener} as a fling would.
+ */
+final class InMemoryMapBackend implements MapBackend {
+    // Viewport size at zoom level 0, roughly a phone screen in portrait.
+    private static final double LATITUDE_SPAN = 0.0025;
+    private static final double LONGITUDE_SPAN = 0.0015;
+    // Kakao's most zoomed out level.
+    private static final int MAX_ZOOM_LEVEL = 14;
+    // Moves an animated camera move reports along the way.
+    private static final int ANIMATION_STEPS = 10;
+
+    private final AtomicInteger nextTag = new AtomicInteger();
+    private CameraListener cameraListener;
+    private double latitude;
+    private double longitude;
+    private int zoomLevel;
+
+    private int poiCount;
+    private int peakPoiCount;
+    private long addCount;
+    private long removeCount;
+    // Adds of POIs already on the map and removes of POIs that are not; both are plugin bugs.
+    private long redundantAddCount;
+    private long redundantRemoveCount;
+    // Setter calls on POIs that are on the map, each of which costs the Kakao engine a task.
+    private long liveMutationCount;
+    private long cameraMoveCount;
+    private long cameraZoomCount;
+    private long cameraIdleCount;
+
+    InMemoryMapBackend(double latitude, double longitude, int zoomLevel) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.zoomLevel = zoomLevel;
+    }
+
+    @Override
+    public MapPoi newPoi() {
+        return new Poi(nextTag.getAndIncrement());
+    }
+
+    @Override
+    public void addPoi(MapPoi mapPoi) {
+        final Poi poi = (Poi) mapPoi;
+        if (poi.added) {
+            redundantAddCount++;
+            return;
+        }
+        poi.added = true;
+        addCount++;
+        poiCount++;
+        peakPoiCount = Math.max(peakPoiCount, poiCount);
+    }
+
+    @Override
+    public void removePoi(MapPoi mapPoi) {
+        final Poi poi = (Poi) mapPoi;
+        if (!poi.added) {
+            redundantRemoveCount++;
+            return;
+        }
+        poi.added = false;
+        removeCount++;
+        poiCount--;
+    }
+
+    @Override
+    public int getZoomLevel() {
+        return zoomLevel;
+    }
+
+    @Override
+    public void getVisibleBounds(double[] bounds) {
+        final double scale = Math.scalb(1.0, zoomLevel);
+        final double latitudeSpan = LATITUDE_SPAN * scale;
+        final double longitudeSpan = LONGITUDE_SPAN * scale;
+        bounds[0] = latitude - latitudeSpan / 2;
+        bounds[1] = longitude - longitudeSpan / 2;
+        bounds[2] = latitude + latitudeSpan / 2;
+        bounds[3] = longitude + longitudeSpan / 2;
+    }
+
+    @Override
+    public void getCenter(double[] center) {
+        center[0] = latitude;
+        center[1] = longitude;
+    }
+
+    @Override
+    public void setCamera(double latitude, double longitude, int zoomLevel, boolean animated) {
+        moveCamera(latitude, longitude, zoomLevel, animated ? ANIMATION_STEPS : 1);
+    }
+
+    /** Centers the bounds at the closest zoom level that shows them. There are no pixels, so padding is ignored. */
+    @Override
+    public void fitBounds(double[] bounds, int padding, boolean animated) {
+        int zoomLevel = 0;
+        while (zoomLevel < MAX_ZOOM_LEVEL
+                && (LATITUDE_SPAN * Math.scalb(1.0, zoomLevel) < bounds[2] - bounds[0]
+                        || LONGITUDE_SPAN * Math.scalb(1.0, zoomLevel) < bounds[3] - bounds[1])) {
+            zoomLevel++;
+        }
+        setCamera((bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2, zoomLevel, animated);
+    }
+
+    // Display options do not change what markers cost, so they are not kept.
+
+    @Override
+    public void setMapType(int mapType) {}
+
+    @Override
+    public void setCurrentLocationTrackingMode(int trackingMode) {}
+
+    @Override
+    public void setHdMapTileEnabled(boolean enabled) {}
+
+    @Override
+    public void setCameraListener(CameraListener listener) {
+        cameraListener = listener;
+    }
+
+    /**
+     * Moves the camera to the given center and zoom level. Reports the zoom change first, then
+     * {@code steps} moves along the way, then the camera coming to rest.
+     */
+    void moveCamera(double latitude, double longitude, int zoomLevel, int steps) {
+        if (zoomLevel != this.zoomLevel) {
+            this.zoomLevel = zoomLevel;
+            cameraZoomCount++;
+            if (cameraListener != null) {
+                cameraListener.onCameraZoomChanged(zoomLevel, zoomLevel);
+            }
+        }
+        final double fromLatitude = this.latitude;
+        final double fromLongitude = this.longitude;
+        for (int i = 1; i <= steps; i++) {
+            final double t = (double) i / steps;
+            this.latitude = fromLatitude + (latitude - fromLatitude) * t;
+            this.longitude = fromLongitude + (longitude - fromLongitude) * t;
+            cameraMoveCount++;
+            if (cameraListener != null) {
+                cameraListener.onCameraMove(this.latitude, this.longitude);
+            }
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+        cameraIdleCount++;
+        if (cameraListener != null) {
+            cameraListener.onCameraIdle();
+        }
+    }
+
+    int getPoiCount() {
+        return poiCount;
+    }
+
+    long getLiveMutationCount() {
+        return liveMutationCount;
+    }
+
+    /** Zeroes the counters. The POIs on the map stay, and so does the peak count. */
+    void resetStats() {
+        addCount = 0;
+        removeCount = 0;
+        redundantAddCount = 0;
+        redundantRemoveCount = 0;
+        liveMutationCount = 0;
+        cameraMoveCount = 0;
+        cameraZoomCount = 0;
+        cameraIdleCount = 0;
+        peakPoiCount = poiCount;
+    }
+
+    Map<String, Object> getStats() {
+        final Map<String, Object> stats = new HashMap<>(12);
+        stats.put("poiCount", poiCount);
+        stats.put("peakPoiCount", peakPoiCount);
+        stats.put("createdPoiCount", nextTag.get());
+        stats.put("addCount", addCount);
+        stats.put("removeCount", removeCount);
+        stats.put("redundantAddCount", redundantAddCount);
+        stats.put("redundantRemoveCount", redundantRemoveCount);
+        stats.put("liveMutationCount", liveMutationCount);
+        stats.put("cameraMoveCount", cameraMoveCount);
+        stats.put("cameraZoomCount", cameraZoomCount);
+        stats.put("cameraIdleCount", cameraIdleCount);
+        return stats;
+    }
+
+    /** A POI's state, as the Kakao engine would hold it. */
+    final class Poi implements MapPoi {
+        private final int tag;
+        boolean added;
+        float alpha = 1;
+        float anchorU = 0.5f;
+        float anchorV = 1;
+        Bitmap customImage;
+        boolean draggable;
+        String name;
+        double latitude;
+        double longitude;
+        float rotation;
+        int markerType;
+        int selectedMarkerType;
+        boolean showCalloutBalloonOnTouch = true;
+        private Object userObject;
+
+        Poi(int tag) {
+            this.tag = tag;
+        }
+
+        // Only mutations of POIs on the map are counted; others may come from any thread.
+        private void onMutation() {
+            if (added) {
+                liveMutationCount++;
+            }
+        }
+
+        @Override
+        public void setAlpha(float alpha) {
+            this.alpha = alpha;
+            onMutation();
+        }
+
+        @Override
+        public void setCustomImageAnchor(float u, float v) {
+            anchorU = u;
+            anchorV = v;
+            onMutation();
+        }
+
+        @Override
+        public void setCustomImageBitmap(Bitmap bitmap) {
+            customImage = bitmap;
+            onMutation();
+        }
+
+        @Override
+        public void setDraggable(boolean draggable) {
+            this.draggable = draggable;
+            onMutation();
+        }
+
+        @Override
+        public void setItemName(String name) {
+            this.name = name;
+            onMutation();
+        }
+
+        @Override
+        public void setPosition(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            onMutation();
+        }
+
+        @Override
+        public void setRotation(float rotation) {
+            this.rotation = rotation;
+            onMutation();
+        }
+
+        @Override
+        public float getRotation() {
+            return rotation;
+        }
+
+        @Override
+        public void setMarkerType(int markerType) {
+            this.markerType = markerType;
+            onMutation();
+        }
+
+        @Override
+        public void setSelectedMarkerType(int markerType) {
+            this.selectedMarkerType = markerType;
+            onMutation();
+        }
+
+        @Override
+        public void setShowCalloutBalloonOnTouch(boolean show) {
+            showCalloutBalloonOnTouch = show;
+            onMutation();
+        }
+
+        @Override
+        public void setUserObject(Object userObject) {
+            this.userObject = userObject;
+        }
+
+        @Override
+        public Object getUserObject() {
+            return userObject;
+        }
+
+        @Override
+        public int getTag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.nio.ByteBuffer;
+
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * A {@link MethodChannel} that records every incoming call and outgoing event in
+ * {@link MethodChannelStats}, and traces them as a section named after the method nested in
+ * {@link Tracers#ON_METHOD_CALL} or {@link Tracers#INVOKE_METHOD}.
+ *
+ * <p>Payload sizes are taken from the encoded messages passing through the wrapped
+ * {@link BinaryMessenger}, so nothing is encoded twice. Both directions run on the main thread:
+ * an incoming message is dispatched to the handler, and an outgoing one sent by
+ * {@link #invokeMethod}, before the next message can arrive.
+ *
+ * <p>While a {@link ChannelRecorder} is set, the same encoded messages are also recorded.
+ */
+final class InstrumentedMethodChannel extends MethodChannel {
+    private final SizeRecordingMessenger messenger;
+    private final MethodChannelStats stats;
+
+    InstrumentedMethodChannel(BinaryMessenger messenger, String name, MethodChannelStats stats) {
+        this(new SizeRecordingMessenger(messenger), name, stats);
+    }
+
+    private InstrumentedMethodChannel(SizeRecordingMessenger messenger, String name, MethodChannelStats stats) {
+        super(messenger, name);
+        this.messenger = messenger;
+        this.stats = stats;
+    }
+
+    /** Starts recording messages into {@code recorder}, or stops when it is null. */
+    void setRecorder(ChannelRecorder recorder) {
+        messenger.recorder = recorder;
+    }
+
+    @Override
+    public void setMethodCallHandler(final MethodCallHandler handler) {
+        if (handler == null) {
+            super.setMethodCallHandler(null);
+            return;
+        }
+        super.setMethodCallHandler(new MethodCallHandler() {
+            @Override
+            public void onMethodCall(MethodCall call, Result result) {
+                final int bytes = messenger.lastIncomingBytes;
+                final Tracer tracer = Tracers.get();
+                tracer.beginSection(Tracers.ON_METHOD_CALL);
+                tracer.beginSection(call.method);
+                final long start = System.nanoTime();
+                try {
+                    handler.onMethodCall(call, result);
+                } finally {
+                    stats.recordCall(call.method, System.nanoTime() - start, bytes);
+                    tracer.endSection();
+                    tracer.endSection();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void invokeMethod(String method, Object arguments, Result callback) {
+        final Tracer tracer = Tracers.get();
+        tracer.beginSection(Tracers.INVOKE_METHOD);
+        tracer.beginSection(method);
+        final long start = System.nanoTime();
+        try {
+            super.invokeMethod(method, arguments, callback);
+        } finally {
+            stats.recordEvent(method, System.nanoTime() - start, messenger.lastOutgoingBytes);
+            tracer.endSection();
+            tracer.endSection();
+        }
+    }
+
+    private static final class SizeRecordingMessenger implements BinaryMessenger {
+        private final BinaryMessenger messenger;
+        int lastIncomingBytes;
+        int lastOutgoingBytes;
+        volatile ChannelRecorder recorder;
+
+        SizeRecordingMessenger(BinaryMessenger messenger) {
+            this.messenger = messenger;
+        }
+
+        @Override
+        public void send(String channel, ByteBuffer message) {
+            onSend(message);
+            messenger.send(channel, message);
+        }
+
+        @Override
+        public void send(String channel, ByteBuffer message, BinaryReply callback) {
+            onSend(message);
+            messenger.send(channel, message, callback);
+        }
+
+        @Override
+        public void setMessageHandler(String channel, final BinaryMessageHandler handler) {
+            if (handler == null) {
+                messenger.setMessageHandler(channel, null);
+                return;
+            }
+            messenger.setMessageHandler(channel, new BinaryMessageHandler() {
+                @Override
+                public void onMessage(ByteBuffer message, BinaryReply reply) {
+                    lastIncomingBytes = message != null ? message.remaining() : 0;
+                    final ChannelRecorder recorder = SizeRecordingMessenger.this.recorder;
+                    if (recorder != null && message != null) {
+                        recorder.recordCall(message);
+                    }
+                    handler.onMessage(message, reply);
+                }
+            });
+        }
+
+        // Codecs hand over encoded messages with the position at the end of the payload.
+        private void onSend(ByteBuffer message) {
+            lastOutgoingBytes = message != null ? message.position() : 0;
+            final ChannelRecorder recorder = this.recorder;
+            if (recorder != null && message != null) {
+                recorder.recordEvent(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Growable list of primitive ints, reused across queries to avoid boxing. */
+final class IntArrayList {
+    private int[] values;
+    private int size;
+
+    IntArrayList() {
+        this(16);
+    }
+
+    IntArrayList(int capacity) {
+        this.values = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+        }
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    List<Integer> toList() {
+        final List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(values[i]);
+        }
+        return list;
+    }
+}
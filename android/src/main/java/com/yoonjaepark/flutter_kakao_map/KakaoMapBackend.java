@@ -0,0 +1,203 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.graphics.Bitmap;
+
+import net.daum.mf.map.api.CameraUpdate;
+import net.daum.mf.map.api.CameraUpdateFactory;
+import net.daum.mf.map.api.MapPOIItem;
+import net.daum.mf.map.api.MapPoint;
+import net.daum.mf.map.api.MapPointBounds;
+import net.daum.mf.map.api.MapView;
+
+/**
+ * A {@link MapBackend} drawing {@link MapPOIItem}s on a Kakao {@link MapView}.
+ *
+ * <p>A {@code MapView} takes a single event listener, which {@link KakaoMapController} also needs
+ * for taps, so the controller hands camera events over through the {@code dispatch} methods.
+ */
+final class KakaoMapBackend implements MapBackend {
+    private final MapView mapView;
+    private CameraListener cameraListener;
+
+    KakaoMapBackend(MapView mapView) {
+        this.mapView = mapView;
+    }
+
+    @Override
+    public MapPoi newPoi() {
+        return new KakaoPoi();
+    }
+
+    @Override
+    public void addPoi(MapPoi poi) {
+        mapView.addPOIItem(((KakaoPoi) poi).item);
+    }
+
+    @Override
+    public void removePoi(MapPoi poi) {
+        mapView.removePOIItem(((KakaoPoi) poi).item);
+    }
+
+    @Override
+    public int getZoomLevel() {
+        return mapView.getZoomLevel();
+    }
+
+    @Override
+    public void getVisibleBounds(double[] bounds) {
+        final MapPointBounds mapPointBounds = mapView.getMapPointBounds();
+        final MapPoint.GeoCoordinate bottomLeft = mapPointBounds.bottomLeft.getMapPointGeoCoord();
+        final MapPoint.GeoCoordinate topRight = mapPointBounds.topRight.getMapPointGeoCoord();
+        bounds[0] = bottomLeft.latitude;
+        bounds[1] = bottomLeft.longitude;
+        bounds[2] = topRight.latitude;
+        bounds[3] = topRight.longitude;
+    }
+
+    @Override
+    public void getCenter(double[] center) {
+        final MapPoint.GeoCoordinate coordinate = mapView.getMapCenterPoint().getMapPointGeoCoord();
+        center[0] = coordinate.latitude;
+        center[1] = coordinate.longitude;
+    }
+
+    @Override
+    public void setCamera(double latitude, double longitude, int zoomLevel, boolean animated) {
+        mapView.setMapCenterPointAndZoomLevel(MapPoint.mapPointWithGeoCoord(latitude, longitude), zoomLevel, animated);
+    }
+
+    @Override
+    public void fitBounds(double[] bounds, int padding, boolean animated) {
+        final CameraUpdate cameraUpdate = CameraUpdateFactory.newMapPointBounds(
+                new MapPointBounds(
+                        MapPoint.mapPointWithGeoCoord(bounds[0], bounds[1]),
+                        MapPoint.mapPointWithGeoCoord(bounds[2], bounds[3])),
+                padding);
+        if (animated) {
+            mapView.animateCamera(cameraUpdate);
+        } else {
+            mapView.moveCamera(cameraUpdate);
+        }
+    }
+
+    @Override
+    public void setMapType(int mapType) {
+        mapView.setMapType(MapView.MapType.values()[mapType]);
+    }
+
+    @Override
+    public void setCurrentLocationTrackingMode(int trackingMode) {
+        final MapView.CurrentLocationTrackingMode[] trackingModes = MapView.CurrentLocationTrackingMode.values();
+        mapView.setCurrentLocationTrackingMode(
+                trackingMode > 0 && trackingMode < trackingModes.length
+                        ? trackingModes[trackingMode]
+                        : MapView.CurrentLocationTrackingMode.TrackingModeOff);
+    }
+
+    @Override
+    public void setHdMapTileEnabled(boolean enabled) {
+        mapView.setHDMapTileEnabled(enabled);
+    }
+
+    @Override
+    public void setCameraListener(CameraListener listener) {
+        cameraListener = listener;
+    }
+
+    void dispatchCenterPointMoved(MapPoint mapPoint) {
+        if (cameraListener != null) {
+            final MapPoint.GeoCoordinate center = mapPoint.getMapPointGeoCoord();
+            cameraListener.onCameraMove(center.latitude, center.longitude);
+        }
+    }
+
+    void dispatchZoomLevelChanged(int zoomLevel) {
+        if (cameraListener != null) {
+            cameraListener.onCameraZoomChanged(zoomLevel, mapView.getZoomLevelFloat());
+        }
+    }
+
+    void dispatchMoveFinished() {
+        if (cameraListener != null) {
+            cameraListener.onCameraIdle();
+        }
+    }
+
+    private static final class KakaoPoi implements MapPoi {
+        final MapPOIItem item = new MapPOIItem();
+
+        @Override
+        public void setAlpha(float alpha) {
+            item.setAlpha(alpha);
+        }
+
+        @Override
+        public void setCustomImageAnchor(float u, float v) {
+            item.setCustomImageAnchor(u, v);
+        }
+
+        @Override
+        public void setCustomImageBitmap(Bitmap bitmap) {
+            item.setCustomImageBitmap(bitmap);
+        }
+
+        @Override
+        public void setDraggable(boolean draggable) {
+            item.setDraggable(draggable);
+        }
+
+        @Override
+        public void setItemName(String name) {
+            item.setItemName(name);
+        }
+
+        @Override
+        public void setPosition(double latitude, double longitude) {
+            item.setMapPoint(MapPoint.mapPointWithGeoCoord(latitude, longitude));
+        }
+
+        @Override
+        public void setRotation(float rotation) {
+            item.setRotation(rotation);
+        }
+
+        @Override
+        public float getRotation() {
+            return item.getRotation();
+        }
+
+        @Override
+        public void setMarkerType(int markerType) {
+            item.setMarkerType(MapPOIItem.MarkerType.values()[markerType]);
+        }
+
+        @Override
+        public void setSelectedMarkerType(int markerType) {
+            item.setSelectedMarkerType(MapPOIItem.MarkerType.values()[markerType]);
+        }
+
+        @Override
+        public void setShowCalloutBalloonOnTouch(boolean show) {
+            item.setShowCalloutBalloonOnTouch(show);
+        }
+
+        @Override
+        public void setUserObject(Object userObject) {
+            item.setUserObject(userObject);
+        }
+
+        @Override
+        public Object getUserObject() {
+            return item.getUserObject();
+        }
+
+        @Override
+        public int getTag() {
+            return item.getTag();
+        }
+    }
+}
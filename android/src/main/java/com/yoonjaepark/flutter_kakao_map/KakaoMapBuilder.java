@@ -22,6 +22,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 class KakaoMapBuilder implements KakaoMapOptionsSink {
     private final KakaoMapOptions options = new KakaoMapOptions();
     private boolean trackCameraPosition = false;
+    private int cameraEventInterval = 0;
     private boolean myLocationEnabled = false;
     private boolean myLocationButtonEnabled = false;
     private boolean indoorEnabled = true;
@@ -54,7 +55,12 @@ class KakaoMapBuilder implements KakaoMapOptionsSink {
                         activityHashCode,
                         options,
                         activity);
+        controller.setTrackCameraPosition(trackCameraPosition);
+        controller.setCameraEventInterval(cameraEventInterval);
         controller.setInitialMarkers(initialMarkers);
+        controller.setInitialPolylines(initialPolylines);
+        controller.setInitialPolygons(initialPolygons);
+        controller.setInitialCircles(initialCircles);
         return this.controller;
     }
 
@@ -97,6 +103,11 @@ class KakaoMapBuilder implements KakaoMapOptionsSink {
         this.trackCameraPosition = trackCameraPosition;
     }
 
+    @Override
+    public void setCameraEventInterval(int cameraEventInterval) {
+        this.cameraEventInterval = cameraEventInterval;
+    }
+
     @Override
     public void setRotateGesturesEnabled(boolean rotateGesturesEnabled) {
     }
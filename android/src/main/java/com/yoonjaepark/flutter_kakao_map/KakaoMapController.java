@@ -12,12 +12,17 @@ import android.content.Context;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.Signature;
+import android.graphics.Bitmap;
 import android.graphics.PixelFormat;
 import android.graphics.Point;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Base64;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.View;
@@ -31,7 +36,6 @@ import androidx.lifecycle.LifecycleOwner;
 
 import net.daum.android.map.MapEnvironmentType;
 import net.daum.mf.map.api.CameraPosition;
-import net.daum.mf.map.api.CameraUpdate;
 import net.daum.mf.map.api.MapPOIItem;
 import net.daum.mf.map.api.MapPoint;
 import net.daum.mf.map.api.MapPointBounds;
@@ -39,8 +43,11 @@ import net.daum.mf.map.api.MapView;
 
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,14 +74,22 @@ public class KakaoMapController
         KakaoMapOptionsSink,
         MethodChannel.MethodCallHandler,
         KakaoMapListener,
+        MapBackend.CameraListener,
         PlatformView {
 
     private static final String TAG = "########KakaoMap";
+    // Result code of a successful API key authentication.
+    private static final int AUTHENTICATION_SUCCESS = 200;
     private final int id;
     private final AtomicInteger activityState;
-    private final MethodChannel methodChannel;
+    private final InstrumentedMethodChannel methodChannel;
+    private final MethodChannelStats channelStats = new MethodChannelStats();
+    private ChannelRecorder recorder;
     private final KakaoMapOptions options;
+    // Null when the controller runs on a stand-in map.
     private MapView mapView;
+    private final KakaoMapBackend kakaoMapBackend;
+    private final MapBackend mapBackend;
     private final SurfaceHolder surfaceHolder;
     private final Activity activity;
     private boolean trackCameraPosition = false;
@@ -83,6 +98,8 @@ public class KakaoMapController
     private boolean zoomControlsEnabled = true;
     private boolean indoorEnabled = true;
     private boolean disposed = false;
+    private boolean authenticated = false;
+    private boolean startupTraceEnded = false;
     private final float density;
     private MethodChannel.Result mapReadyResult;
     private final int activityHashCode;
@@ -93,13 +110,22 @@ public class KakaoMapController
     private double lat;
     private double lan;
     private int zoomLevel;
+    private final MarkerIconRegistry icons;
     private final MarkersController markersController;
+    private final PolylinesController polylinesController;
+    private final PolygonsController polygonsController;
+    private final CirclesController circlesController;
+    private final HeatmapLayer heatmapLayer;
+    private final MapSnapshotter snapshotter;
+    private final MarkerBatchApplier markerBatchApplier;
+    private final MarkerUpdateQueue markerUpdates;
+    private final PendingMapOperations pendingOperations;
+    private final CameraEventScheduler cameraEventScheduler;
     private List<Object> initialMarkers;
     private List<Object> initialPolygons;
     private List<Object> initialPolylines;
     private List<Object> initialCircles;
     private FrameLayout frameLayout;
-    private boolean animate = true;
 
     KakaoMapController(
             int id,
@@ -112,28 +138,109 @@ public class KakaoMapController
             int registrarActivityHashCode,
             KakaoMapOptions options,
             Activity activity) {
+        this(id, context, activityState, binaryMessenger, application, lifecycle, registrar, registrarActivityHashCode,
+                options, activity, MapViewPool.getInstance(context).acquire(activity), null);
+    }
+
+    /**
+     * A controller drawing on {@code mapBackend} rather than a Kakao map view, with no activity to
+     * follow. Calls from Dart are handled as on a device, except that shapes and the heatmap are
+     * kept but not drawn. The channel replay runs recordings through this on a JVM.
+     */
+    KakaoMapController(int id, Context context, BinaryMessenger binaryMessenger, KakaoMapOptions options, MapBackend mapBackend) {
+        this(id, context, new AtomicInteger(), binaryMessenger, null, null, null, 0, options, null, null, mapBackend);
+    }
+
+    private KakaoMapController(
+            int id,
+            Context context,
+            AtomicInteger activityState,
+            BinaryMessenger binaryMessenger,
+            Application application,
+            Lifecycle lifecycle,
+            PluginRegistry.Registrar registrar,
+            int registrarActivityHashCode,
+            KakaoMapOptions options,
+            Activity activity,
+            MapView pooledMapView,
+            MapBackend mapBackend) {
 
 //        this.getHashKey(context);
         this.options = options;
         this.id = id;
+        // Spans from creating the platform view to the first frame drawn once the map is ready.
+        Tracers.get().beginAsyncSection(Tracers.MAP_STARTUP, id);
         this.context = context;
         this.activityState = activityState;
 
-        this.mapView = new MapView(activity);
-        this.surfaceHolder = mapView.getHolder();
+        if (mapBackend != null) {
+            this.mapView = null;
+            this.kakaoMapBackend = null;
+            this.mapBackend = mapBackend;
+        } else {
+            if (pooledMapView != null) {
+                this.mapView = pooledMapView;
+            } else {
+                final long mapViewStartedAt = SystemClock.elapsedRealtime();
+                this.mapView = new MapView(activity);
+                MapEngineWarmUp.onMapViewCreated(mapViewStartedAt, SystemClock.elapsedRealtime());
+            }
+            this.kakaoMapBackend = new KakaoMapBackend(mapView);
+            this.mapBackend = kakaoMapBackend;
+        }
+        this.surfaceHolder = mapView != null ? mapView.getHolder() : null;
+        this.mapBackend.setCameraListener(this);
 
         this.density = context.getResources().getDisplayMetrics().density;
-        methodChannel = new MethodChannel(binaryMessenger, "plugins.flutter.io/kakao_maps_" + id);
+        methodChannel = new InstrumentedMethodChannel(binaryMessenger, "plugins.flutter.io/kakao_maps_" + id, channelStats);
         methodChannel.setMethodCallHandler(this);
+        if (PluginSettings.getInstance(context).recordChannelTraffic) {
+            try {
+                startRecording(ChannelRecorder.newFile(context, id));
+            } catch (IOException e) {
+                Log.w(TAG, "Could not record channel traffic", e);
+            }
+        }
         mApplication = application;
         this.lifecycle = lifecycle;
         this.registrar = registrar;
         this.activityHashCode = registrarActivityHashCode;
         this.activity = activity;
-        setKakaoMapListener(this);
+        if (mapView != null) {
+            setKakaoMapListener(this);
+        }
 //        this.getHashKey(context);
 
+        this.icons = new MarkerIconRegistry(MarkerIconCache.getInstance(context));
         this.markersController = new MarkersController(methodChannel);
+        this.polylinesController = new PolylinesController();
+        this.polygonsController = new PolygonsController(methodChannel);
+        this.circlesController = new CirclesController();
+        this.heatmapLayer = new HeatmapLayer();
+        this.snapshotter = new MapSnapshotter(mapView);
+        this.markerBatchApplier = new MarkerBatchApplier(markersController, methodChannel);
+        this.pendingOperations = new PendingMapOperations(markerBatchApplier);
+        this.markerUpdates = new MarkerUpdateQueue(pendingOperations, icons, this.mapBackend);
+        this.cameraEventScheduler = new CameraEventScheduler(methodChannel);
+        if (pooledMapView != null || mapView == null) {
+            authenticated = true;
+            // A pooled view is already authenticated and a stand-in map needs no authentication,
+            // so the callback will not come. Wait for the builder to hand over the initial map
+            // objects first.
+            final Runnable onReady = new Runnable() {
+                @Override
+                public void run() {
+                    if (!disposed) {
+                        onMapReady();
+                    }
+                }
+            };
+            if (mapView != null) {
+                mapView.post(onReady);
+            } else {
+                new Handler(Looper.getMainLooper()).post(onReady);
+            }
+        }
     }
 
     private void getHashKey(Context context){
@@ -198,12 +305,16 @@ public class KakaoMapController
         }
     }
 
-    private void moveCamera(CameraUpdate cameraUpdate) {
-        mapView.moveCamera(cameraUpdate);
+    private void moveCamera(Object cameraUpdate, boolean animated) {
+        if (!pendingOperations.isReady()) {
+            pendingOperations.moveCamera(cameraUpdate, animated);
+            return;
+        }
+        Convert.interpretCameraUpdate(cameraUpdate, density, animated, mapBackend);
     }
 
     @Override
-    public void onMethodCall(MethodCall call, MethodChannel.Result result) {
+    public void onMethodCall(final MethodCall call, final MethodChannel.Result result) {
         switch (call.method) {
             case "map#waitForMap":
                 if (mapView != null) {
@@ -214,7 +325,12 @@ public class KakaoMapController
                 break;
             case "map#update":
             {
-                Convert.interpretKakaoMapOptions(call.argument("options"), this);
+                if (pendingOperations.isReady()) {
+                    Convert.interpretKakaoMapOptions(call.argument("options"), this);
+                } else {
+                    pendingOperations.updateOptions(call.argument("options"));
+                }
+                result.success(null);
                 break;
             }
             case "map#clearMapTilePersistentCache":
@@ -225,10 +341,10 @@ public class KakaoMapController
             }
             case "map#getMapCenterPoint":
             {
-                Log.d("TEST", mapView.toString());
-                if (mapView != null) {
-                    MapPoint latLng = mapView.getMapCenterPoint();
-                    result.success(Convert.mapPointToJson(latLng));
+                if (pendingOperations.isReady()) {
+                    final double[] center = new double[2];
+                    mapBackend.getCenter(center);
+                    result.success(Convert.latLngToJson(center[0], center[1]));
                 } else {
                     result.error(
                             "KakaoMap uninitialized", "getMapCenterPoint called prior to map initialization", null);
@@ -236,29 +352,91 @@ public class KakaoMapController
                 break;
             }
             case "camera#move":
+            case "camera#animate":
             {
-                final CameraUpdate cameraUpdate = Convert.toCameraUpdate(call.argument("cameraUpdate"), density);
-                moveCamera(cameraUpdate);
+                final Object cameraUpdate = call.argument("cameraUpdate");
+                if (!Convert.isSupportedCameraUpdate(cameraUpdate)) {
+                    result.error(call.method, "Unsupported camera update " + cameraUpdate, null);
+                    break;
+                }
+                moveCamera(cameraUpdate, "camera#animate".equals(call.method));
                 result.success(null);
                 break;
             }
-            case "camera#animate":
+            case "markers#update":
+            {
+                markerUpdates.submit(call, result);
+                break;
+            }
+            case "markers#configureHandles":
             {
-                this.animate = true;
+                final Boolean enabled = call.argument("enabled");
+                if (markersController.getMarkerCount() > 0
+                        || pendingOperations.hasMarkerUpdates()
+                        || !markerUpdates.isIdle()
+                        || !markerBatchApplier.isIdle()) {
+                    result.error("markers#configureHandles", "Marker handles can only be configured before adding markers", null);
+                    break;
+                }
+                markersController.setHandles(enabled != null && enabled);
+                markerUpdates.setHandles(enabled != null && enabled);
                 result.success(null);
                 break;
             }
-            case "markers#update":
+            case "markers#updatePositions":
+            case "markers#animateTo":
+            case "markers#queryInBounds":
+            case "markers#nearest":
             {
-                Object markersToAdd = call.argument("markersToAdd");
-                markersController.addMarkers((List<Object>) markersToAdd);
-                Object markersToChange = call.argument("markersToChange");
-                markersController.changeMarkers((List<Object>) markersToChange);
-                Object markerIdsToRemove = call.argument("markerIdsToRemove");
-                markersController.removeMarkers((List<Object>) markerIdsToRemove);
+                // Markers added by earlier markers#update calls may still be prepared or applied.
+                markerUpdates.runAfterUpdates(call.method, new Runnable() {
+                    @Override
+                    public void run() {
+                        onMarkerCall(call, result);
+                    }
+                }, result);
+                break;
+            }
+            case "markers#configureCulling":
+            {
+                Boolean enabled = call.argument("enabled");
+                Number margin = call.argument("margin");
+                markersController.setCulling(
+                        enabled != null && enabled,
+                        margin != null ? margin.floatValue() : MarkersController.DEFAULT_CULLING_MARGIN);
+                result.success(null);
+                break;
+            }
+            case "clusters#configure":
+            {
+                markersController.configureClusters(call.arguments);
+                result.success(null);
+                break;
+            }
+            case "icons#register":
+            {
+                final String iconId = call.argument("iconId");
+                final Bitmap icon = Convert.toIcon(call.argument("icon"), icons);
+                if (icon == null) {
+                    result.error("icons#register", "Unsupported icon descriptor", null);
+                    break;
+                }
+                icons.register(iconId, icon);
                 result.success(null);
                 break;
             }
+            case "icons#unregister":
+            {
+                final String iconId = call.argument("iconId");
+                icons.unregister(iconId);
+                result.success(null);
+                break;
+            }
+            case "icons#getStats":
+            {
+                result.success(icons.getStats());
+                break;
+            }
             case "markers#showInfoWindow":
             {
                 break;
@@ -271,11 +449,128 @@ public class KakaoMapController
             {
                 break;
             }
+            case "polylines#update":
+            {
+                Object polylinesToAdd = call.argument("polylinesToAdd");
+                polylinesController.addPolylines((List<Object>) polylinesToAdd);
+                Object polylinesToChange = call.argument("polylinesToChange");
+                polylinesController.changePolylines((List<Object>) polylinesToChange);
+                Object polylineIdsToRemove = call.argument("polylineIdsToRemove");
+                polylinesController.removePolylines((List<Object>) polylineIdsToRemove);
+                result.success(null);
+                break;
+            }
+            case "polygons#update":
+            {
+                Object polygonsToAdd = call.argument("polygonsToAdd");
+                polygonsController.addPolygons((List<Object>) polygonsToAdd);
+                Object polygonsToChange = call.argument("polygonsToChange");
+                polygonsController.changePolygons((List<Object>) polygonsToChange);
+                Object polygonIdsToRemove = call.argument("polygonIdsToRemove");
+                polygonsController.removePolygons((List<Object>) polygonIdsToRemove);
+                result.success(null);
+                break;
+            }
             case "circles#update":
             {
+                Object circlesToAdd = call.argument("circlesToAdd");
+                circlesController.addCircles((List<Object>) circlesToAdd);
+                Object circlesToChange = call.argument("circlesToChange");
+                circlesController.changeCircles((List<Object>) circlesToChange);
+                Object circleIdsToRemove = call.argument("circleIdsToRemove");
+                circlesController.removeCircles((List<Object>) circleIdsToRemove);
+                result.success(null);
+                break;
+            }
+            case "heatmap#update":
+            {
+                final Object points = call.argument("points");
+                final double[] weights = call.argument("weights");
+                final Number radius = call.argument("radius");
+                final Number opacity = call.argument("opacity");
+                final Number maxIntensity = call.argument("maxIntensity");
+                final List<?> gradient = call.argument("gradient");
+                final double[] latLngs = points != null ? Convert.toLatLngArray(points) : null;
+                if (latLngs != null && weights != null && weights.length < latLngs.length / 2) {
+                    result.error(
+                            "heatmap#update",
+                            "Expected " + latLngs.length / 2 + " weights, got " + weights.length,
+                            null);
+                    break;
+                }
+                heatmapLayer.update(
+                        latLngs,
+                        weights,
+                        radius != null ? radius.floatValue() : null,
+                        opacity != null ? opacity.floatValue() : null,
+                        maxIntensity != null ? maxIntensity.floatValue() : null,
+                        Convert.toColorArray(gradient));
+                result.success(null);
+                break;
+            }
+            case "heatmap#clear":
+            {
+                heatmapLayer.clear();
+                result.success(null);
+                break;
+            }
+            case "heatmap#getStats":
+            {
+                result.success(heatmapLayer.getStats());
+                break;
+            }
+            case "map#getStats":
+            {
+                result.success(channelStats.toJson());
+                break;
+            }
+            case "map#resetStats":
+            {
+                channelStats.reset();
                 result.success(null);
                 break;
             }
+            case "map#startRecording":
+            {
+                final String path = call.argument("path");
+                try {
+                    startRecording(path != null ? new File(path) : ChannelRecorder.newFile(context, id));
+                    result.success(recorder.getFile().getPath());
+                } catch (IOException e) {
+                    result.error("map#startRecording", e.getMessage(), null);
+                }
+                break;
+            }
+            case "map#stopRecording":
+            {
+                if (recorder == null) {
+                    result.success(null);
+                    break;
+                }
+                final Map<String, Object> recording = new HashMap<>(2);
+                recording.put("path", recorder.getFile().getPath());
+                recording.put("entryCount", recorder.getEntryCount());
+                stopRecording();
+                result.success(recording);
+                break;
+            }
+            case "map#getStartupTimings":
+            {
+                result.success(MapEngineWarmUp.getTimings());
+                break;
+            }
+            case "map#takeSnapshot":
+            {
+                final String format = call.argument("format");
+                final Number quality = call.argument("quality");
+                final Number scale = call.argument("scale");
+                snapshotter.takeSnapshot(
+                        format != null ? format : MapSnapshotter.FORMAT_PNG,
+                        quality != null ? quality.intValue() : MapSnapshotter.DEFAULT_QUALITY,
+                        scale != null ? scale.floatValue() : 1,
+                        result);
+                break;
+            }
             case "map#isCompassEnabled":
             {
                 mapView.setCurrentLocationTrackingMode(MapView.CurrentLocationTrackingMode.TrackingModeOnWithHeading);
@@ -311,7 +606,7 @@ public class KakaoMapController
             }
             case "map#getZoomLevel":
             {
-                result.success(mapView.getZoomLevel());
+                result.success(mapBackend.getZoomLevel());
                 break;
             }
             case "map#setStyle":
@@ -320,12 +615,14 @@ public class KakaoMapController
             }
             case "map#zoomIn":
             {
-                mapView.zoomIn(true);
+                moveCamera(Collections.singletonList("zoomIn"), true);
+                result.success(true);
                 break;
             }
             case "map#zoomOut":
             {
-                mapView.zoomOut(true);
+                moveCamera(Collections.singletonList("zoomOut"), true);
+                result.success(true);
                 break;
             }
             default:
@@ -333,18 +630,134 @@ public class KakaoMapController
         }
     }
 
+    /**
+     * Handles the calls that address markers, once the updates received before them are applied.
+     * Runs outside {@link #onMethodCall}, so invalid arguments are answered here.
+     */
+    private void onMarkerCall(MethodCall call, MethodChannel.Result result) {
+        try {
+            switch (call.method) {
+                case "markers#updatePositions":
+                {
+                    final List<?> markerIds = call.argument("markerIds");
+                    final int[] markerHandles = call.argument("markerHandles");
+                    final double[] positions = call.argument("positions");
+                    final long start = System.nanoTime();
+                    // Markers held before the map is ready have no handles yet.
+                    final int updated = pendingOperations.isReady()
+                            ? markersController.updatePositions(markerIds, markerHandles, positions)
+                            : markerHandles != null ? 0 : pendingOperations.updatePositions(markerIds, positions, null);
+                    final Map<String, Object> stats = new HashMap<>(2);
+                    stats.put("updatedCount", updated);
+                    stats.put("elapsedNanos", System.nanoTime() - start);
+                    result.success(stats);
+                    break;
+                }
+                case "markers#animateTo":
+                {
+                    final List<?> markerIds = call.argument("markerIds");
+                    final int[] markerHandles = call.argument("markerHandles");
+                    final double[] positions = call.argument("positions");
+                    final double[] rotations = call.argument("rotations");
+                    final Number duration = call.argument("duration");
+                    final String easing = call.argument("easing");
+                    if (!pendingOperations.isReady()) {
+                        // Nothing is drawn yet, so jump straight to the targets.
+                        if (markerHandles == null) {
+                            pendingOperations.updatePositions(markerIds, positions, rotations);
+                        }
+                        result.success(null);
+                        break;
+                    }
+                    markersController.animateMarkers(
+                            markerIds,
+                            markerHandles,
+                            positions,
+                            rotations,
+                            duration != null ? duration.longValue() : 0,
+                            MarkerAnimator.toEasing(easing));
+                    result.success(null);
+                    break;
+                }
+                case "markers#queryInBounds":
+                {
+                    final double[] bounds = Convert.toLatLngBounds(call.argument("bounds"));
+                    result.success(markersController.queryInBounds(bounds));
+                    break;
+                }
+                case "markers#nearest":
+                {
+                    final List<?> position = call.argument("position");
+                    final Number count = call.argument("count");
+                    result.success(markersController.nearest(
+                            ((Number) position.get(0)).doubleValue(),
+                            ((Number) position.get(1)).doubleValue(),
+                            count != null ? count.intValue() : 1));
+                    break;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            result.error(call.method, e.getMessage(), null);
+        }
+    }
+
+    private void startRecording(File file) throws IOException {
+        final ChannelRecorder recorder = ChannelRecorder.start(file);
+        stopRecording();
+        this.recorder = recorder;
+        methodChannel.setRecorder(recorder);
+    }
+
+    private void stopRecording() {
+        if (recorder != null) {
+            methodChannel.setRecorder(null);
+            recorder.close();
+            recorder = null;
+        }
+    }
+
     @Override
     public void dispose() {
         if (disposed) {
             return;
         }
         disposed = true;
+        cameraEventScheduler.cancel();
+        markerUpdates.close();
+        markerBatchApplier.cancel();
+        pendingOperations.clear();
+        endStartupTrace();
+        markersController.cancelAnimations();
+        heatmapLayer.close();
+        snapshotter.close();
+        stopRecording();
         methodChannel.setMethodCallHandler(null);
-        mapView.surfaceDestroyed(null);
+        mapBackend.setCameraListener(null);
+        if (mapView == null) {
+            return;
+        }
         setKakaoMapListener(null);
+        if (!authenticated || !MapViewPool.getInstance(context).release(mapView)) {
+            mapView.surfaceDestroyed(null);
+        }
         getApplication().unregisterActivityLifecycleCallbacks(this);
     }
 
+    /** Whether every {@code markers#update} received so far is on the map. */
+    boolean isIdle() {
+        return markerUpdates.isIdle() && pendingOperations.isReady() && markerBatchApplier.isIdle();
+    }
+
+    /**
+     * Handles a tap on the marker with the given Dart id, or handle in handle mode, as a tap on
+     * its POI would. Only the map view reports taps, so the channel replay stands in with this.
+     */
+    void tapMarker(Object markerIdOrHandle) {
+        markersController.onMarkerTap(markerIdOrHandle instanceof String
+                ? markersController.getMarkerHandle((String) markerIdOrHandle)
+                : markerIdOrHandle);
+    }
+
 
     private void setKakaoMapListener(@Nullable KakaoMapListener listener) {
         mapView.setCurrentLocationEventListener(listener);
@@ -480,7 +893,7 @@ public class KakaoMapController
     }
 
     private void updateInitialMarkers() {
-        markersController.addMarkers(initialMarkers);
+        pendingOperations.enqueue(MarkerUpdate.prepare(initialMarkers, null, null, null, null, icons, mapBackend), null);
     }
 
     @SuppressLint("MissingPermission")
@@ -545,37 +958,17 @@ public class KakaoMapController
 
     @Override
     public void setMapType(int mapType) {
-        MapView.MapType[] mapTypes = MapView.MapType.values();
-        mapView.setMapType(mapTypes[mapType]);
+        mapBackend.setMapType(mapType);
     }
 
     @Override
     public void setCurrentLocationTrackingMode(int currentLocationTrackingMode) {
-        MapView.CurrentLocationTrackingMode[] trackingModes = MapView.CurrentLocationTrackingMode.values();
-        MapView.CurrentLocationTrackingMode trackingMode = MapView.CurrentLocationTrackingMode.TrackingModeOff;
-        if (currentLocationTrackingMode == 0) {
-            trackingMode = MapView.CurrentLocationTrackingMode.TrackingModeOff;
-        } else if (currentLocationTrackingMode == 1) {
-            trackingMode = MapView.CurrentLocationTrackingMode.TrackingModeOnWithoutHeading;
-        } else if (currentLocationTrackingMode == 2) {
-            trackingMode = MapView.CurrentLocationTrackingMode.TrackingModeOnWithHeading;
-
-        } else if (currentLocationTrackingMode == 3) {
-            trackingMode = MapView.CurrentLocationTrackingMode.TrackingModeOnWithoutHeadingWithoutMapMoving;
-
-        } else if (currentLocationTrackingMode == 4) {
-            trackingMode = MapView.CurrentLocationTrackingMode.TrackingModeOnWithHeadingWithoutMapMoving;
-
-        } else if (currentLocationTrackingMode == 5) {
-            trackingMode = MapView.CurrentLocationTrackingMode.TrackingModeOnWithMarkerHeadingWithoutMapMoving;
-        }
-//
-        mapView.setCurrentLocationTrackingMode(trackingMode);
+        mapBackend.setCurrentLocationTrackingMode(currentLocationTrackingMode);
     }
 
     @Override
     public void setHdMapTile(boolean hdMapTileEnabled) {
-        mapView.setHDMapTileEnabled(hdMapTileEnabled);
+        mapBackend.setHdMapTileEnabled(hdMapTileEnabled);
     }
 
     @Override
@@ -605,7 +998,13 @@ public class KakaoMapController
 
     @Override
     public void setTrackCameraPosition(boolean trackCameraPosition) {
+        this.trackCameraPosition = trackCameraPosition;
+        cameraEventScheduler.setEnabled(trackCameraPosition);
+    }
 
+    @Override
+    public void setCameraEventInterval(int cameraEventInterval) {
+        cameraEventScheduler.setIntervalMillis(cameraEventInterval);
     }
 
     @Override
@@ -637,17 +1036,20 @@ public class KakaoMapController
 
     @Override
     public void setInitialPolygons(Object initialPolygons) {
-
+        this.initialPolygons = (List<Object>) initialPolygons;
+        polygonsController.addPolygons(this.initialPolygons);
     }
 
     @Override
     public void setInitialPolylines(Object initialPolylines) {
-
+        this.initialPolylines = (List<Object>) initialPolylines;
+        polylinesController.addPolylines(this.initialPolylines);
     }
 
     @Override
     public void setInitialCircles(Object initialCircles) {
-
+        this.initialCircles = (List<Object>) initialCircles;
+        circlesController.addCircles(this.initialCircles);
     }
 
     private SurfaceHolder.Callback surfaceListener = new SurfaceHolder.Callback() {
@@ -706,22 +1108,22 @@ public class KakaoMapController
     // 지도 중심 좌표가 이동한 경우 호출된다.
     @Override
     public void onMapViewCenterPointMoved(MapView mapView, MapPoint mapPoint) {
-        final Map<String, Object> arguments = new HashMap<>(2);
-        arguments.put("position", Convert.mapPointToJson(mapPoint));
-        methodChannel.invokeMethod("camera#onMove", arguments);
+        kakaoMapBackend.dispatchCenterPointMoved(mapPoint);
     }
 
     // 지도 확대/축소 레벨이 변경된 경우 호출된다.
     @Override
     public void onMapViewZoomLevelChanged(MapView mapView, int i) {
-        final Map<String, Object> arguments = new HashMap<>(2);
-        arguments.put("zoom", mapView.getZoomLevelFloat());
-        methodChannel.invokeMethod("camera#onZoomChanged", arguments);
+        kakaoMapBackend.dispatchZoomLevelChanged(i);
     }
 
     // 사용자가 지도 위를 터치한 경우 호출된다.
     @Override
     public void onMapViewSingleTapped(MapView mapView, MapPoint mapPoint) {
+        final MapPoint.GeoCoordinate position = mapPoint.getMapPointGeoCoord();
+        if (polygonsController.onTap(position.latitude, position.longitude)) {
+            return;
+        }
         final Map<String, Object> arguments = new HashMap<>(2);
         arguments.put("position", Convert.mapPointToJson(mapPoint));
         methodChannel.invokeMethod("map#onTap", arguments);
@@ -756,23 +1158,80 @@ public class KakaoMapController
     // 지도의 이동이 완료된 경우 호출된다.
     @Override
     public void onMapViewMoveFinished(MapView mapView, MapPoint mapPoint) {
+        kakaoMapBackend.dispatchMoveFinished();
+    }
+
+    // MapBackend.CameraListener methods
+
+    @Override
+    public void onCameraMove(double latitude, double longitude) {
+        if (!trackCameraPosition) {
+            return;
+        }
+        cameraEventScheduler.onCenterPointMoved(latitude, longitude);
+    }
+
+    @Override
+    public void onCameraZoomChanged(int zoomLevel, float zoom) {
+        cameraEventScheduler.onZoomLevelChanged(zoom);
+        markersController.refreshVisibleMarkers();
+        polylinesController.onZoomLevelChanged(zoomLevel);
+        circlesController.onZoomLevelChanged(zoomLevel);
+    }
 
+    @Override
+    public void onCameraIdle() {
+        markersController.refreshVisibleMarkers();
+        heatmapLayer.refresh();
     }
 
     // 설정한 APP KEY값을 인증 서버에 요청하여 인증 여부를 통보받을 수 있다.
     // APP KEY 는 Android Application Package Name당 하나씩 카카오 개발자 APP KEY 발급 페이지 를 통해서 발급할 수 있다.
     @Override
     public void onDaumMapOpenAPIKeyAuthenticationResult(MapView mapView, int i, String s) {
-        mapView.setMapCenterPoint(this.options.initialCameraPosition.target, true);
-        mapView.setZoomLevelFloat(this.options.initialCameraPosition.zoomLevel, true);
-        markersController.setKakaoMap(mapView);
+        authenticated = i == AUTHENTICATION_SUCCESS;
+        onMapReady();
+    }
+
+    private void onMapReady() {
+        // A stand-in map has no view to move to the initial camera or to draw shapes on.
+        if (mapView != null) {
+            mapView.setMapCenterPoint(this.options.initialCameraPosition.target, true);
+            mapView.setZoomLevelFloat(this.options.initialCameraPosition.zoomLevel, true);
+            polylinesController.setKakaoMap(mapView);
+            polygonsController.setKakaoMap(mapView);
+            circlesController.setKakaoMap(mapView);
+            heatmapLayer.setKakaoMap(mapView);
+        }
+        markersController.setKakaoMap(mapBackend);
+        pendingOperations.onMapReady(mapBackend, density, this);
+        Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                endStartupTrace();
+            }
+        });
+    }
+
+    private void endStartupTrace() {
+        if (!startupTraceEnded) {
+            startupTraceEnded = true;
+            Tracers.get().endAsyncSection(Tracers.MAP_STARTUP, id);
+        }
     }
 
     //단말 사용자가 POI Item을 선택한 경우 호출된다.
     // 사용자가 MapView 에 등록된 POI Item 아이콘(마커)를 터치한 경우 호출된다.
     @Override
     public void onPOIItemSelected(MapView mapView, MapPOIItem mapPOIItem) {
-        markersController.onMarkerTap(mapPOIItem.getUserObject().toString());
+        if (heatmapLayer.isOverlay(mapPOIItem)) {
+            mapView.deselectPOIItem(mapPOIItem);
+            return;
+        }
+        if (markersController.onClusterTap(mapPOIItem.getUserObject())) {
+            return;
+        }
+        markersController.onMarkerTap(mapPOIItem.getUserObject());
     }
 
     // 단말 사용자가 POI Item 아이콘(마커) 위에 나타난 말풍선(Callout Balloon)을 터치한 경우
@@ -29,6 +29,8 @@ interface KakaoMapOptionsSink {
 
     void setTrackCameraPosition(boolean trackCameraPosition);
 
+    void setCameraEventInterval(int cameraEventInterval);
+
     void setZoomGesturesEnabled(boolean zoomGesturesEnabled);
 
     void setMyLocationEnabled(boolean myLocationEnabled);
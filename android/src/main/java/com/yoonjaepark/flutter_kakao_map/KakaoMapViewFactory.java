@@ -64,6 +64,15 @@ public class KakaoMapViewFactory extends PlatformViewFactory {
         if (params.containsKey("markersToAdd")) {
             builder.setInitialMarkers(params.get("markersToAdd"));
         }
+        if (params.containsKey("polylinesToAdd")) {
+            builder.setInitialPolylines(params.get("polylinesToAdd"));
+        }
+        if (params.containsKey("polygonsToAdd")) {
+            builder.setInitialPolygons(params.get("polygonsToAdd"));
+        }
+        if (params.containsKey("circlesToAdd")) {
+            builder.setInitialCircles(params.get("circlesToAdd"));
+        }
         return builder.build(
                 id,
                 context,
@@ -0,0 +1,205 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+/**
+ * Static 2d tree over a fixed set of points, stored in flat arrays.
+ *
+ * <p>Built once in O(n log n); range and radius queries visit O(log n + k) nodes. The tree is
+ * immutable, so it is rebuilt whenever the point set changes. Queries share a scratch stack and
+ * must not run concurrently.
+ */
+final class KdTree {
+    private static final int DEFAULT_NODE_SIZE = 64;
+
+    private final int nodeSize;
+    private final int[] ids;
+    private final double[] coords;
+    private final int[] stack = new int[192];
+
+    KdTree(double[] xs, double[] ys, int count) {
+        this(xs, ys, count, DEFAULT_NODE_SIZE);
+    }
+
+    KdTree(double[] xs, double[] ys, int count, int nodeSize) {
+        this.nodeSize = nodeSize;
+        this.ids = new int[count];
+        this.coords = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+            coords[2 * i] = xs[i];
+            coords[2 * i + 1] = ys[i];
+        }
+        sort(0, count - 1, 0);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /** Appends the ids of all points inside the given box to {@code result}. */
+    void range(double minX, double minY, double maxX, double maxY, IntArrayList result) {
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            final int axis = stack[--top];
+            final int right = stack[--top];
+            final int left = stack[--top];
+
+            if (right - left <= nodeSize) {
+                for (int i = left; i <= right; i++) {
+                    final double x = coords[2 * i];
+                    final double y = coords[2 * i + 1];
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        result.add(ids[i]);
+                    }
+                }
+                continue;
+            }
+
+            final int m = (left + right) >> 1;
+            final double x = coords[2 * m];
+            final double y = coords[2 * m + 1];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                result.add(ids[m]);
+            }
+            if (axis == 0 ? minX <= x : minY <= y) {
+                top = push(top, left, m - 1, 1 - axis);
+            }
+            if (axis == 0 ? maxX >= x : maxY >= y) {
+                top = push(top, m + 1, right, 1 - axis);
+            }
+        }
+    }
+
+    /** Appends the ids of all points within {@code radius} of (qx, qy) to {@code result}. */
+    void within(double qx, double qy, double radius, IntArrayList result) {
+        final double r2 = radius * radius;
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            final int axis = stack[--top];
+            final int right = stack[--top];
+            final int left = stack[--top];
+
+            if (right - left <= nodeSize) {
+                for (int i = left; i <= right; i++) {
+                    if (sqDist(coords[2 * i], coords[2 * i + 1], qx, qy) <= r2) {
+                        result.add(ids[i]);
+                    }
+                }
+                continue;
+            }
+
+            final int m = (left + right) >> 1;
+            final double x = coords[2 * m];
+            final double y = coords[2 * m + 1];
+            if (sqDist(x, y, qx, qy) <= r2) {
+                result.add(ids[m]);
+            }
+            if (axis == 0 ? qx - radius <= x : qy - radius <= y) {
+                top = push(top, left, m - 1, 1 - axis);
+            }
+            if (axis == 0 ? qx + radius >= x : qy + radius >= y) {
+                top = push(top, m + 1, right, 1 - axis);
+            }
+        }
+    }
+
+    private int push(int top, int left, int right, int axis) {
+        if (left > right) {
+            return top;
+        }
+        stack[top++] = left;
+        stack[top++] = right;
+        stack[top++] = axis;
+        return top;
+    }
+
+    private void sort(int left, int right, int axis) {
+        if (right - left <= nodeSize) {
+            return;
+        }
+        final int m = (left + right) >> 1;
+        select(m, left, right, axis);
+        sort(left, m - 1, 1 - axis);
+        sort(m + 1, right, 1 - axis);
+    }
+
+    // Floyd-Rivest selection: partially sorts [left, right] so that k holds the median.
+    private void select(int k, int left, int right, int axis) {
+        while (right > left) {
+            if (right - left > 600) {
+                final int n = right - left + 1;
+                final int m = k - left + 1;
+                final double z = Math.log(n);
+                final double s = 0.5 * Math.exp(2 * z / 3);
+                final double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * (m - n / 2 < 0 ? -1 : 1);
+                final int newLeft = (int) Math.max(left, Math.floor(k - m * s / n + sd));
+                final int newRight = (int) Math.min(right, Math.floor(k + (n - m) * s / n + sd));
+                select(k, newLeft, newRight, axis);
+            }
+
+            final double t = coords[2 * k + axis];
+            int i = left;
+            int j = right;
+
+            swap(left, k);
+            if (coords[2 * right + axis] > t) {
+                swap(left, right);
+            }
+
+            while (i < j) {
+                swap(i, j);
+                i++;
+                j--;
+                while (coords[2 * i + axis] < t) {
+                    i++;
+                }
+                while (coords[2 * j + axis] > t) {
+                    j--;
+                }
+            }
+
+            if (coords[2 * left + axis] == t) {
+                swap(left, j);
+            } else {
+                j++;
+                swap(j, right);
+            }
+
+            if (j <= k) {
+                left = j + 1;
+            }
+            if (k <= j) {
+                right = j - 1;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        final int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        final double x = coords[2 * i];
+        final double y = coords[2 * i + 1];
+        coords[2 * i] = coords[2 * j];
+        coords[2 * i + 1] = coords[2 * j + 1];
+        coords[2 * j] = x;
+        coords[2 * j + 1] = y;
+    }
+
+    private static double sqDist(double ax, double ay, double bx, double by) {
+        final double dx = ax - bx;
+        final double dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,56 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+/**
+ * The map markers are drawn on. {@link KakaoMapBackend} drives a Kakao {@code MapView};
+ * {@link InMemoryMapBackend} stands in for it where the native map engine is not available.
+ *
+ * <p>All methods except {@link #newPoi} must be called on the main thread.
+ */
+interface MapBackend extends MapPoi.Factory {
+    /**
+     * Receives camera changes, in the order a fling reports them: any number of moves and zoom
+     * changes, then one {@link #onCameraIdle}.
+     */
+    interface CameraListener {
+        void onCameraMove(double latitude, double longitude);
+
+        void onCameraZoomChanged(int zoomLevel, float zoom);
+
+        void onCameraIdle();
+    }
+
+    void addPoi(MapPoi poi);
+
+    void removePoi(MapPoi poi);
+
+    int getZoomLevel();
+
+    /** Fills {@code bounds} with (minLatitude, minLongitude, maxLatitude, maxLongitude) of the viewport. */
+    void getVisibleBounds(double[] bounds);
+
+    /** Fills {@code center} with (latitude, longitude) of the camera. */
+    void getCenter(double[] center);
+
+    /** Moves the camera to the given center and zoom level. */
+    void setCamera(double latitude, double longitude, int zoomLevel, boolean animated);
+
+    /**
+     * Moves the camera so (minLatitude, minLongitude, maxLatitude, maxLongitude) {@code bounds}
+     * fit the viewport with {@code padding} pixels to spare on each side.
+     */
+    void fitBounds(double[] bounds, int padding, boolean animated);
+
+    /** Index into Kakao's {@code MapView.MapType}. */
+    void setMapType(int mapType);
+
+    /** Index into Kakao's {@code MapView.CurrentLocationTrackingMode}, 0 being off. */
+    void setCurrentLocationTrackingMode(int trackingMode);
+
+    void setHdMapTileEnabled(boolean enabled);
+
+    void setCameraListener(CameraListener listener);
+}
@@ -0,0 +1,89 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import net.daum.mf.map.n.api.NativeMapEngineContext;
+import net.daum.mf.map.n.api.NativeMapLibraryLoader;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads the map engine's native libraries and sets up its application context on a background
+ * thread when the plugin attaches, instead of on the UI thread when the first {@code MapView} is
+ * built.
+ *
+ * <p>Opt-in with the {@code WarmUpMapEngine} meta-data, see {@link PluginSettings}. Startup
+ * timestamps ({@link SystemClock#elapsedRealtime} millis, 0 when not reached) are recorded either
+ * way, so the cold start of the first map can be compared with and without warm-up.
+ */
+final class MapEngineWarmUp {
+    private static final String TAG = "KakaoMapWarmUp";
+
+    private static boolean started;
+    private static volatile long attachedAt;
+    private static volatile long warmUpStartedAt;
+    private static volatile long warmUpFinishedAt;
+    private static volatile String warmUpError;
+    private static volatile long firstMapViewStartedAt;
+    private static volatile long firstMapViewFinishedAt;
+
+    private MapEngineWarmUp() {}
+
+    /** Called when the plugin attaches. Starts the warm-up once per process if enabled. */
+    static synchronized void onPluginAttached(Context context) {
+        if (attachedAt == 0) {
+            attachedAt = SystemClock.elapsedRealtime();
+        }
+        if (started || !PluginSettings.getInstance(context).warmUpMapEngine) {
+            return;
+        }
+        started = true;
+        final Context applicationContext = context.getApplicationContext();
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                warmUpStartedAt = SystemClock.elapsedRealtime();
+                try {
+                    NativeMapLibraryLoader.loadLibrary();
+                    NativeMapEngineContext.getInstance().setApplicationContext(applicationContext);
+                } catch (Throwable e) {
+                    // The first MapView loads the libraries again and reports the failure itself.
+                    warmUpError = e.toString();
+                    Log.w(TAG, "Map engine warm-up failed", e);
+                }
+                warmUpFinishedAt = SystemClock.elapsedRealtime();
+            }
+        }, "KakaoMapWarmUp");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Records how long constructing the first {@code MapView} of the process took. */
+    static void onMapViewCreated(long startedAt, long finishedAt) {
+        if (firstMapViewStartedAt == 0) {
+            firstMapViewStartedAt = startedAt;
+            firstMapViewFinishedAt = finishedAt;
+        }
+    }
+
+    static synchronized Map<String, Object> getTimings() {
+        final Map<String, Object> timings = new HashMap<>(7);
+        timings.put("warmUpEnabled", started);
+        timings.put("attachedAt", attachedAt);
+        timings.put("warmUpStartedAt", warmUpStartedAt);
+        timings.put("warmUpFinishedAt", warmUpFinishedAt);
+        timings.put("warmUpError", warmUpError);
+        timings.put("firstMapViewStartedAt", firstMapViewStartedAt);
+        timings.put("firstMapViewFinishedAt", firstMapViewFinishedAt);
+        return timings;
+    }
+}
@@ -0,0 +1,53 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.graphics.Bitmap;
+
+/**
+ * A point of interest drawn by a {@link MapBackend}. Setters may be called before the POI is
+ * added, and off the main thread until then.
+ *
+ * <p>Marker types are the ordinals of {@code MapPOIItem.MarkerType}, which is also what Dart
+ * sends.
+ */
+interface MapPoi {
+    int MARKER_TYPE_YELLOW_PIN = 2;
+    int MARKER_TYPE_CUSTOM_IMAGE = 3;
+
+    /** Creates POIs that are not on any map yet. May be called on any thread. */
+    interface Factory {
+        MapPoi newPoi();
+    }
+
+    void setAlpha(float alpha);
+
+    void setCustomImageAnchor(float u, float v);
+
+    void setCustomImageBitmap(Bitmap bitmap);
+
+    void setDraggable(boolean draggable);
+
+    void setItemName(String name);
+
+    void setPosition(double latitude, double longitude);
+
+    void setRotation(float rotation);
+
+    float getRotation();
+
+    void setMarkerType(int markerType);
+
+    void setSelectedMarkerType(int markerType);
+
+    void setShowCalloutBalloonOnTouch(boolean show);
+
+    /** Sets the object handed back by {@link MapBackend} tap callbacks. */
+    void setUserObject(Object userObject);
+
+    Object getUserObject();
+
+    int getTag();
+}
@@ -0,0 +1,258 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.view.PixelCopy;
+import android.view.SurfaceView;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Captures the map surface for {@code map#takeSnapshot}.
+ *
+ * <p>The map renders into a GL surface, so its pixels are read back with {@link PixelCopy}, which
+ * needs API 24. The copy, the optional downscale and the encoding all run on one snapshot thread,
+ * which also lets the capture bitmaps and the encode buffers be reused between snapshots. The main
+ * thread only reads the view size and completes the result. Since the capture bitmap is shared,
+ * a snapshot requested while a copy is in flight starts only once that copy is encoded. Snapshots
+ * still pending when the map is disposed complete with an error.
+ */
+final class MapSnapshotter {
+    static final String FORMAT_PNG = "png";
+    static final String FORMAT_JPEG = "jpeg";
+    static final String FORMAT_WEBP = "webp";
+    static final String FORMAT_RGBA = "rgba";
+
+    static final int DEFAULT_QUALITY = 90;
+
+    private final SurfaceView view;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private HandlerThread thread;
+    private Handler handler;
+    // Results of snapshots not completed yet; main thread only.
+    private final List<MethodChannel.Result> pending = new ArrayList<>();
+    private boolean closed;
+    // Reused between snapshots; only touched on the snapshot thread.
+    private boolean copying;
+    private final ArrayDeque<Runnable> waitingCaptures = new ArrayDeque<>();
+    private Bitmap captureBitmap;
+    private Bitmap scaledBitmap;
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream(256 * 1024);
+    private ByteBuffer pixels;
+
+    MapSnapshotter(SurfaceView view) {
+        this.view = view;
+    }
+
+    /**
+     * Captures the map and completes {@code result} with the encoded bytes, or for
+     * {@link #FORMAT_RGBA} with {@code {width, height, bytes}}.
+     *
+     * @param scale downscale factor in (0, 1].
+     */
+    void takeSnapshot(final String format, final int quality, final float scale, final MethodChannel.Result result) {
+        if (closed) {
+            result.error("map#takeSnapshot", "Map disposed", null);
+            return;
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            result.error("map#takeSnapshot", "Snapshots require Android 7.0 (API 24) or later", null);
+            return;
+        }
+        if (!isSupportedFormat(format)) {
+            result.error("map#takeSnapshot", "Unknown snapshot format " + format, null);
+            return;
+        }
+        if (!(scale > 0 && scale <= 1)) {
+            result.error("map#takeSnapshot", "Scale must be in (0, 1], got " + scale, null);
+            return;
+        }
+        final int width = view.getWidth();
+        final int height = view.getHeight();
+        if (width == 0 || height == 0) {
+            result.error("map#takeSnapshot", "The map has not been laid out yet", null);
+            return;
+        }
+        pending.add(result);
+        final Handler snapshotHandler = snapshotHandler();
+        snapshotHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                capture(snapshotHandler, width, height, format, quality, scale, result);
+            }
+        });
+    }
+
+    /** Stops the snapshot thread. Pending snapshots complete with an error. */
+    void close() {
+        closed = true;
+        for (MethodChannel.Result result : pending) {
+            result.error("map#takeSnapshot", "Map disposed", null);
+        }
+        pending.clear();
+        if (thread != null) {
+            thread.quit();
+            thread = null;
+            handler = null;
+        }
+    }
+
+    static boolean isSupportedFormat(String format) {
+        return FORMAT_PNG.equals(format)
+                || FORMAT_JPEG.equals(format)
+                || FORMAT_WEBP.equals(format)
+                || FORMAT_RGBA.equals(format);
+    }
+
+    private Handler snapshotHandler() {
+        if (handler == null) {
+            thread = new HandlerThread("KakaoMapSnapshot", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+        return handler;
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    private void capture(
+            final Handler snapshotHandler,
+            final int width,
+            final int height,
+            final String format,
+            final int quality,
+            final float scale,
+            final MethodChannel.Result result) {
+        if (copying) {
+            waitingCaptures.addLast(new Runnable() {
+                @Override
+                public void run() {
+                    capture(snapshotHandler, width, height, format, quality, scale, result);
+                }
+            });
+            return;
+        }
+        copying = true;
+        captureBitmap = reuse(captureBitmap, width, height);
+        final Bitmap bitmap = captureBitmap;
+        PixelCopy.request(
+                view,
+                bitmap,
+                new PixelCopy.OnPixelCopyFinishedListener() {
+                    @Override
+                    public void onPixelCopyFinished(int copyResult) {
+                        try {
+                            if (copyResult != PixelCopy.SUCCESS) {
+                                complete(result, null, "Pixel copy failed with " + copyResult);
+                            } else {
+                                complete(result, encode(downscale(bitmap, scale), format, quality), null);
+                            }
+                        } catch (RuntimeException e) {
+                            complete(result, null, e.getMessage());
+                        } finally {
+                            copying = false;
+                            final Runnable next = waitingCaptures.pollFirst();
+                            if (next != null) {
+                                next.run();
+                            }
+                        }
+                    }
+                },
+                snapshotHandler);
+    }
+
+    private Bitmap downscale(Bitmap bitmap, float scale) {
+        if (scale == 1) {
+            return bitmap;
+        }
+        final int width = Math.max(1, Math.round(bitmap.getWidth() * scale));
+        final int height = Math.max(1, Math.round(bitmap.getHeight() * scale));
+        scaledBitmap = reuse(scaledBitmap, width, height);
+        final Canvas canvas = new Canvas(scaledBitmap);
+        canvas.drawBitmap(
+                bitmap,
+                new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight()),
+                new Rect(0, 0, width, height),
+                scalePaint);
+        return scaledBitmap;
+    }
+
+    private Object encode(Bitmap bitmap, String format, int quality) {
+        if (FORMAT_RGBA.equals(format)) {
+            final int byteCount = bitmap.getRowBytes() * bitmap.getHeight();
+            if (pixels == null || pixels.capacity() < byteCount) {
+                pixels = ByteBuffer.allocateDirect(byteCount);
+            }
+            pixels.clear();
+            bitmap.copyPixelsToBuffer(pixels);
+            pixels.flip();
+            final byte[] bytes = new byte[byteCount];
+            pixels.get(bytes);
+            final Map<String, Object> raw = new HashMap<>(3);
+            raw.put("width", bitmap.getWidth());
+            raw.put("height", bitmap.getHeight());
+            raw.put("bytes", bytes);
+            return raw;
+        }
+        encoded.reset();
+        final Bitmap.CompressFormat compressFormat;
+        if (FORMAT_JPEG.equals(format)) {
+            compressFormat = Bitmap.CompressFormat.JPEG;
+        } else if (FORMAT_WEBP.equals(format)) {
+            compressFormat = Bitmap.CompressFormat.WEBP;
+        } else {
+            compressFormat = Bitmap.CompressFormat.PNG;
+        }
+        if (!bitmap.compress(compressFormat, Math.max(0, Math.min(100, quality)), encoded)) {
+            throw new IllegalStateException("Could not encode the snapshot as " + format);
+        }
+        return encoded.toByteArray();
+    }
+
+    private void complete(final MethodChannel.Result result, final Object snapshot, final String error) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                // Already failed by close().
+                if (!pending.remove(result)) {
+                    return;
+                }
+                if (error != null) {
+                    result.error("map#takeSnapshot", error, null);
+                } else {
+                    result.success(snapshot);
+                }
+            }
+        });
+    }
+
+    private static Bitmap reuse(Bitmap bitmap, int width, int height) {
+        if (bitmap != null && bitmap.getWidth() == width && bitmap.getHeight() == height) {
+            return bitmap;
+        }
+        if (bitmap != null) {
+            bitmap.recycle();
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,142 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import net.daum.mf.map.api.MapView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps authenticated {@link MapView}s of disposed maps for reuse by the next map of the same
+ * activity, skipping engine setup and the API key round trip.
+ *
+ * <p>The pool only ever holds views released by disposed maps; it is never filled ahead of time.
+ * The first map of an activity therefore always creates and authenticates its own view, and only
+ * maps opened after another one closed can benefit.
+ *
+ * <p>Opt-in with the {@code MapViewPoolSize} meta-data, see {@link PluginSettings}. Views are
+ * emptied and detached from their listeners when released, and destroyed once they have been idle
+ * for {@code MapViewPoolIdleTimeoutMillis} or their activity goes away. Main thread only.
+ */
+final class MapViewPool {
+    private static MapViewPool instance;
+
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<MapView> idleViews = new ArrayList<>();
+    // Parallel to idleViews.
+    private final List<Long> releaseTimes = new ArrayList<>();
+    private final Runnable evictIdleViews =
+            new Runnable() {
+                @Override
+                public void run() {
+                    evictIdleViews();
+                }
+            };
+
+    private MapViewPool(int maxSize, long idleTimeoutMillis) {
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    static MapViewPool getInstance(Context context) {
+        if (instance == null) {
+            final PluginSettings settings = PluginSettings.getInstance(context);
+            instance = new MapViewPool(settings.mapViewPoolSize, settings.mapViewPoolIdleTimeoutMillis);
+        }
+        return instance;
+    }
+
+    /** Returns an idle, already authenticated view created for {@code activity}, or null. */
+    MapView acquire(Activity activity) {
+        for (int i = idleViews.size() - 1; i >= 0; i--) {
+            final MapView mapView = idleViews.get(i);
+            if (mapView.getContext() == activity && !activity.isFinishing()) {
+                idleViews.remove(i);
+                releaseTimes.remove(i);
+                detachFromParent(mapView);
+                return mapView;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes {@code mapView} for reuse. Returns false, leaving the view to the caller to destroy,
+     * when pooling is disabled or the pool is full.
+     */
+    boolean release(MapView mapView) {
+        if (idleViews.size() >= maxSize) {
+            return false;
+        }
+        mapView.removeAllPOIItems();
+        mapView.removeAllPolylines();
+        mapView.removeAllCircles();
+        mapView.setCurrentLocationTrackingMode(MapView.CurrentLocationTrackingMode.TrackingModeOff);
+        mapView.setCurrentLocationEventListener(null);
+        mapView.setMapViewEventListener((MapView.MapViewEventListener) null);
+        mapView.setOpenAPIKeyAuthenticationResultListener(null);
+        mapView.setPOIItemEventListener(null);
+        idleViews.add(mapView);
+        releaseTimes.add(System.currentTimeMillis());
+        handler.removeCallbacks(evictIdleViews);
+        handler.postDelayed(evictIdleViews, idleTimeoutMillis);
+        return true;
+    }
+
+    /** Destroys every idle view. Called when the plugin is detached from its activity. */
+    static void clearIdleViews() {
+        if (instance != null) {
+            instance.clear();
+        }
+    }
+
+    private void clear() {
+        handler.removeCallbacks(evictIdleViews);
+        for (MapView mapView : idleViews) {
+            destroy(mapView);
+        }
+        idleViews.clear();
+        releaseTimes.clear();
+    }
+
+    private void evictIdleViews() {
+        final long now = System.currentTimeMillis();
+        long nextEviction = Long.MAX_VALUE;
+        for (int i = idleViews.size() - 1; i >= 0; i--) {
+            final long evictAt = releaseTimes.get(i) + idleTimeoutMillis;
+            if (evictAt <= now) {
+                destroy(idleViews.remove(i));
+                releaseTimes.remove(i);
+            } else {
+                nextEviction = Math.min(nextEviction, evictAt);
+            }
+        }
+        if (nextEviction != Long.MAX_VALUE) {
+            handler.postDelayed(evictIdleViews, nextEviction - now);
+        }
+    }
+
+    private static void destroy(MapView mapView) {
+        detachFromParent(mapView);
+        mapView.surfaceDestroyed(null);
+    }
+
+    private static void detachFromParent(MapView mapView) {
+        final ViewParent parent = mapView.getParent();
+        if (parent instanceof ViewGroup) {
+            ((ViewGroup) parent).removeView(mapView);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+/**
+ * Interpolates marker positions, and optionally rotations, once per display frame.
+ *
+ * <p>Running animations are kept in parallel primitive arrays and advanced together in a single
+ * {@link Choreographer} callback. Animating a marker that is already moving restarts from its
+ * current position, so Dart can simply send every new GPS fix as the next target.
+ */
+final class MarkerAnimator implements Choreographer.FrameCallback {
+    static final int EASING_LINEAR = 0;
+    static final int EASING_EASE_IN = 1;
+    static final int EASING_EASE_OUT = 2;
+    static final int EASING_EASE_IN_OUT = 3;
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    /** Receives interpolated values. */
+    interface Target {
+        void onAnimatedPosition(MarkerController markerController, double latitude, double longitude);
+
+        /** Called after the positions of every frame that still has animations running. */
+        void onAnimationFrame(long frameTimeNanos);
+
+        /** Called once after the frame in which the last running animation finished. */
+        void onAnimationsFinished();
+    }
+
+    private final Target target;
+    private MarkerController[] markers = new MarkerController[16];
+    private double[] fromLatitude = new double[16];
+    private double[] fromLongitude = new double[16];
+    private double[] toLatitude = new double[16];
+    private double[] toLongitude = new double[16];
+    private float[] fromRotation = new float[16];
+    private float[] rotationDelta = new float[16];
+    private boolean[] rotates = new boolean[16];
+    // Frame time each animation starts at, or NOT_STARTED until its first frame.
+    private long[] startNanos = new long[16];
+    private long[] durationNanos = new long[16];
+    private int[] easing = new int[16];
+    private int count;
+    private boolean scheduled;
+
+    MarkerAnimator(Target target) {
+        this.target = target;
+    }
+
+    static int toEasing(String name) {
+        if (name == null || "linear".equals(name)) {
+            return EASING_LINEAR;
+        }
+        switch (name) {
+            case "easeIn":
+                return EASING_EASE_IN;
+            case "easeOut":
+                return EASING_EASE_OUT;
+            case "easeInOut":
+                return EASING_EASE_IN_OUT;
+            default:
+                throw new IllegalArgumentException("Unknown easing " + name);
+        }
+    }
+
+    /**
+     * Starts moving {@code markerController} from where it is now to the given position. Pass
+     * {@code Float.NaN} as {@code rotation} to leave the rotation alone.
+     */
+    void animate(
+            MarkerController markerController,
+            double latitude,
+            double longitude,
+            float rotation,
+            long durationMillis,
+            int easingType) {
+        int index = markerController.animationIndex;
+        if (index < 0) {
+            index = count++;
+            ensureCapacity(count);
+            markers[index] = markerController;
+            markerController.animationIndex = index;
+        }
+        fromLatitude[index] = markerController.getLatitude();
+        fromLongitude[index] = markerController.getLongitude();
+        toLatitude[index] = latitude;
+        toLongitude[index] = longitude;
+        rotates[index] = !Float.isNaN(rotation);
+        if (rotates[index]) {
+            final float from = markerController.getRotation();
+            fromRotation[index] = from;
+            // Turn the short way round.
+            float delta = (rotation - from) % 360;
+            if (delta > 180) {
+                delta -= 360;
+            } else if (delta < -180) {
+                delta += 360;
+            }
+            rotationDelta[index] = delta;
+        }
+        startNanos[index] = NOT_STARTED;
+        durationNanos[index] = Math.max(durationMillis, 0) * 1000000;
+        easing[index] = easingType;
+        if (!scheduled) {
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /** Stops the animation of {@code markerController}, leaving it where it is. */
+    void cancel(MarkerController markerController) {
+        final int index = markerController.animationIndex;
+        if (index >= 0) {
+            removeAt(index);
+        }
+    }
+
+    void cancelAll() {
+        for (int i = 0; i < count; i++) {
+            markers[i].animationIndex = -1;
+            markers[i] = null;
+        }
+        count = 0;
+        if (scheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            scheduled = false;
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        int i = 0;
+        while (i < count) {
+            if (startNanos[i] == NOT_STARTED) {
+                startNanos[i] = frameTimeNanos;
+            }
+            final long elapsed = frameTimeNanos - startNanos[i];
+            final double fraction =
+                    durationNanos[i] == 0 ? 1 : Math.min(1, Math.max(0, (double) elapsed / durationNanos[i]));
+            final double t = ease(easing[i], fraction);
+            final MarkerController markerController = markers[i];
+            target.onAnimatedPosition(
+                    markerController,
+                    fromLatitude[i] + (toLatitude[i] - fromLatitude[i]) * t,
+                    fromLongitude[i] + (toLongitude[i] - fromLongitude[i]) * t);
+            if (rotates[i]) {
+                markerController.setRotation((float) (fromRotation[i] + rotationDelta[i] * t));
+            }
+            if (fraction >= 1) {
+                removeAt(i);
+            } else {
+                i++;
+            }
+        }
+        if (count > 0) {
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+            target.onAnimationFrame(frameTimeNanos);
+        } else {
+            target.onAnimationsFinished();
+        }
+    }
+
+    private static double ease(int easingType, double t) {
+        switch (easingType) {
+            case EASING_EASE_IN:
+                return t * t * t;
+            case EASING_EASE_OUT:
+                final double u = 1 - t;
+                return 1 - u * u * u;
+            case EASING_EASE_IN_OUT:
+                return t < 0.5 ? 4 * t * t * t : 1 - Math.pow(-2 * t + 2, 3) / 2;
+            default:
+                return t;
+        }
+    }
+
+    // Moves the last animation into the freed index.
+    private void removeAt(int index) {
+        markers[index].animationIndex = -1;
+        final int last = --count;
+        if (index != last) {
+            markers[index] = markers[last];
+            markers[index].animationIndex = index;
+            fromLatitude[index] = fromLatitude[last];
+            fromLongitude[index] = fromLongitude[last];
+            toLatitude[index] = toLatitude[last];
+            toLongitude[index] = toLongitude[last];
+            fromRotation[index] = fromRotation[last];
+            rotationDelta[index] = rotationDelta[last];
+            rotates[index] = rotates[last];
+            startNanos[index] = startNanos[last];
+            durationNanos[index] = durationNanos[last];
+            easing[index] = easing[last];
+        }
+        markers[last] = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= markers.length) {
+            return;
+        }
+        final int newCapacity = Math.max(capacity, markers.length * 2);
+        markers = Arrays.copyOf(markers, newCapacity);
+        fromLatitude = Arrays.copyOf(fromLatitude, newCapacity);
+        fromLongitude = Arrays.copyOf(fromLongitude, newCapacity);
+        toLatitude = Arrays.copyOf(toLatitude, newCapacity);
+        toLongitude = Arrays.copyOf(toLongitude, newCapacity);
+        fromRotation = Arrays.copyOf(fromRotation, newCapacity);
+        rotationDelta = Arrays.copyOf(rotationDelta, newCapacity);
+        rotates = Arrays.copyOf(rotates, newCapacity);
+        startNanos = Arrays.copyOf(startNanos, newCapacity);
+        durationNanos = Arrays.copyOf(durationNanos, newCapacity);
+        easing = Arrays.copyOf(easing, newCapacity);
+    }
+}
@@ -0,0 +1,175 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.view.Choreographer;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Applies prepared marker updates to the map in slices of at most {@link #FRAME_BUDGET_NANOS} per
+ * frame.
+ *
+ * <p>Batches are applied strictly in the order they were enqueued, so a newer update never
+ * overtakes an older one that is still being applied and {@code markerIdToController} always
+ * reflects a prefix of the received updates. For batches spanning more than one frame, or whose
+ * call set {@code reportProgress}, {@code markers#onBatchApplied} reports after every frame that
+ * made progress how many of its operations are on the map. The {@code markers#update} call
+ * completes with the batch id once all of them are, or in handle mode with the batch id and the
+ * int[] of handles given to its added markers. Calls that address markers, such as
+ * {@code markers#updatePositions}, wait in the same queue and run once the batches ahead of them
+ * are applied.
+ */
+final class MarkerBatchApplier implements Choreographer.FrameCallback, MarkerUpdateQueue.Consumer {
+    private static final long FRAME_BUDGET_NANOS = 4000000;
+
+    private static final class Batch {
+        final int batchId;
+        final MarkerUpdate update;
+        // Set instead of update for a call waiting for the batches ahead of it.
+        final Runnable action;
+        final String method;
+        final MethodChannel.Result result;
+        int applied;
+        // Whether a frame ended before the batch was fully applied.
+        boolean sliced;
+
+        Batch(int batchId, MarkerUpdate update, MethodChannel.Result result) {
+            this.batchId = batchId;
+            this.update = update;
+            this.action = null;
+            this.method = "markers#update";
+            this.result = result;
+        }
+
+        Batch(String method, Runnable action, MethodChannel.Result result) {
+            this.batchId = 0;
+            this.update = null;
+            this.action = action;
+            this.method = method;
+            this.result = result;
+        }
+    }
+
+    private final MarkersController markersController;
+    private final MethodChannel methodChannel;
+    private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+    private int nextBatchId;
+    private boolean scheduled;
+
+    MarkerBatchApplier(MarkersController markersController, MethodChannel methodChannel) {
+        this.markersController = markersController;
+        this.methodChannel = methodChannel;
+    }
+
+    boolean isIdle() {
+        return batches.isEmpty();
+    }
+
+    /**
+     * Queues {@code update}. When nothing else is queued the first slice is applied right away, so
+     * small updates complete without waiting for a frame. {@code result} may be null.
+     */
+    @Override
+    public void enqueue(MarkerUpdate update, MethodChannel.Result result) {
+        batches.addLast(new Batch(++nextBatchId, update, result));
+        if (batches.size() == 1) {
+            applySlice();
+        }
+    }
+
+    /** Runs {@code action} once every batch queued so far is applied, which may be right away. */
+    @Override
+    public void runAfterUpdates(String method, Runnable action, MethodChannel.Result result) {
+        if (batches.isEmpty()) {
+            action.run();
+        } else {
+            batches.addLast(new Batch(method, action, result));
+        }
+    }
+
+    /** Drops all queued batches without applying them. Their calls complete with an error. */
+    void cancel() {
+        for (Batch batch : batches) {
+            if (batch.result != null) {
+                batch.result.error(batch.method, "Map disposed", null);
+            }
+        }
+        batches.clear();
+        if (scheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            scheduled = false;
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        applySlice();
+    }
+
+    private void applySlice() {
+        final long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        while (!batches.isEmpty()) {
+            final Batch batch = batches.peekFirst();
+            if (batch.action != null) {
+                batches.removeFirst();
+                batch.action.run();
+                continue;
+            }
+            final int total = batch.update.size();
+            batch.applied = markersController.applyUpdate(batch.update, batch.applied, deadline);
+            final boolean done = batch.applied == total;
+            if (done) {
+                batches.removeFirst();
+            } else {
+                batch.sliced = true;
+            }
+            if (batch.sliced || batch.update.reportProgress) {
+                notifyProgress(batch, done);
+            }
+            if (done && batch.result != null) {
+                batch.result.success(batchResult(batch));
+            }
+            if (!done || System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        // Rebuilding clusters costs O(n log n), far more than a slice may take, so they wait until
+        // the queue has drained.
+        if (batches.isEmpty()) {
+            markersController.refreshVisibleMarkers();
+        } else {
+            markersController.refreshCulledMarkers();
+        }
+        if (!batches.isEmpty() && !scheduled) {
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private static Object batchResult(Batch batch) {
+        if (!batch.update.handles) {
+            return batch.batchId;
+        }
+        final Map<String, Object> data = new HashMap<>(2);
+        data.put("batchId", batch.batchId);
+        data.put("markerHandles", batch.update.addedHandles);
+        return data;
+    }
+
+    private void notifyProgress(Batch batch, boolean done) {
+        final Map<String, Object> arguments = new HashMap<>(4);
+        arguments.put("batchId", batch.batchId);
+        arguments.put("applied", batch.applied);
+        arguments.put("total", batch.update.size());
+        arguments.put("done", done);
+        methodChannel.invokeMethod("markers#onBatchApplied", arguments);
+    }
+}
@@ -0,0 +1,237 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.graphics.Bitmap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Decoder for the packed marker batch format sent as {@code packedMarkersToAdd} and
+ * {@code packedMarkersToChange} in {@code markers#update}.
+ *
+ * <p>A batch is a little-endian byte array laid out as:
+ *
+ * <pre>
+ * header       int version, int recordCount, int recordSize, int stringCount
+ * string table stringCount x (int byteLength, UTF-8 bytes)
+ * records      recordCount x recordSize bytes
+ * </pre>
+ *
+ * <p>Every record starts with the fields below. {@code recordSize} may be larger than
+ * {@link #RECORD_SIZE} so that newer encoders can append fields; unknown trailing bytes are
+ * skipped.
+ *
+ * <pre>
+ *  0 double latitude
+ *  8 double longitude
+ * 16 int    markerId            (string table index, or the marker handle in handle mode changes)
+ * 20 int    flags               (FLAG_* bits)
+ * 24 float  alpha
+ * 28 float  rotation
+ * 32 float  anchorU
+ * 36 float  anchorV
+ * 40 int    markerType          (-1 when absent)
+ * 44 int    markerSelectedType  (-1 when absent)
+ * 48 int    infoWindow title    (string table index, -1 when absent)
+ * 52 int    infoWindow snippet  (string table index, -1 when absent)
+ * </pre>
+ *
+ * <p>Records of at least {@link #RECORD_SIZE_WITH_ICON} bytes also carry:
+ *
+ * <pre>
+ * 56 int    iconId              (string table index of a registered icon, -1 when absent)
+ * </pre>
+ *
+ * Records are read straight into a {@link MarkerOptionsSink}, without intermediate maps or boxed
+ * numbers.
+ */
+final class MarkerBatchDecoder {
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 56;
+    static final int RECORD_SIZE_WITH_ICON = 60;
+
+    static final int FLAG_POSITION = 1;
+    static final int FLAG_ALPHA = 1 << 1;
+    static final int FLAG_ANCHOR = 1 << 2;
+    static final int FLAG_ROTATION = 1 << 3;
+    static final int FLAG_HAS_CONSUME_TAP_EVENTS = 1 << 4;
+    static final int FLAG_CONSUME_TAP_EVENTS = 1 << 5;
+    static final int FLAG_HAS_DRAGGABLE = 1 << 6;
+    static final int FLAG_DRAGGABLE = 1 << 7;
+
+    private static final int OFFSET_LATITUDE = 0;
+    private static final int OFFSET_LONGITUDE = 8;
+    private static final int OFFSET_MARKER_ID = 16;
+    private static final int OFFSET_FLAGS = 20;
+    private static final int OFFSET_ALPHA = 24;
+    private static final int OFFSET_ROTATION = 28;
+    private static final int OFFSET_ANCHOR_U = 32;
+    private static final int OFFSET_ANCHOR_V = 36;
+    private static final int OFFSET_MARKER_TYPE = 40;
+    private static final int OFFSET_MARKER_SELECTED_TYPE = 44;
+    private static final int OFFSET_TITLE = 48;
+    private static final int OFFSET_SNIPPET = 52;
+    private static final int OFFSET_ICON_ID = 56;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private final int recordCount;
+    private final int recordSize;
+    private final int recordsOffset;
+
+    MarkerBatchDecoder(byte[] data) {
+        this(ByteBuffer.wrap(data));
+    }
+
+    MarkerBatchDecoder(ByteBuffer data) {
+        this.buffer = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final int base = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Packed marker batch is truncated");
+        }
+        final int version = buffer.getInt(base);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported packed marker batch version " + version);
+        }
+        this.recordCount = buffer.getInt(base + 4);
+        this.recordSize = buffer.getInt(base + 8);
+        final int stringCount = buffer.getInt(base + 12);
+        if (recordCount < 0 || recordSize < RECORD_SIZE || stringCount < 0) {
+            throw new IllegalArgumentException("Malformed packed marker batch header");
+        }
+        if (stringCount > (buffer.limit() - base - HEADER_SIZE) / 4) {
+            throw new IllegalArgumentException("Packed marker batch is truncated");
+        }
+
+        this.strings = new String[stringCount];
+        final byte[] array = buffer.hasArray() ? buffer.array() : null;
+        int offset = base + HEADER_SIZE;
+        for (int i = 0; i < stringCount; i++) {
+            if (buffer.limit() - offset < 4) {
+                throw new IllegalArgumentException("Packed marker batch is truncated");
+            }
+            final int length = buffer.getInt(offset);
+            offset += 4;
+            if (length < 0 || length > buffer.limit() - offset) {
+                throw new IllegalArgumentException("Packed marker batch is truncated");
+            }
+            if (array != null) {
+                strings[i] = new String(array, buffer.arrayOffset() + offset, length, UTF_8);
+            } else {
+                final byte[] bytes = new byte[length];
+                final ByteBuffer slice = buffer.duplicate();
+                slice.position(offset);
+                slice.get(bytes);
+                strings[i] = new String(bytes, UTF_8);
+            }
+            offset += length;
+        }
+        this.recordsOffset = offset;
+        if (buffer.limit() - recordsOffset < (long) recordCount * recordSize) {
+            throw new IllegalArgumentException("Packed marker batch is truncated");
+        }
+    }
+
+    int size() {
+        return recordCount;
+    }
+
+    /** Returns the dartMarkerId of the record at {@code index} without decoding its options. */
+    String markerId(int index) {
+        return string(buffer.getInt(recordOffset(index) + OFFSET_MARKER_ID));
+    }
+
+    /**
+     * Feeds the record at {@code index} into {@code sink} and returns its dartMarkerId. Icon ids
+     * are resolved against {@code icons}.
+     */
+    String decode(int index, MarkerOptionsSink sink, MarkerIconRegistry icons) {
+        final int offset = recordOffset(index);
+        apply(offset, sink, icons);
+        final String markerId = string(buffer.getInt(offset + OFFSET_MARKER_ID));
+        if (markerId == null) {
+            throw new IllegalArgumentException("markerId was null");
+        }
+        return markerId;
+    }
+
+    /**
+     * Feeds the record at {@code index} into {@code sink} and returns its marker handle, which
+     * takes the place of the markerId string index in handle mode.
+     */
+    int decodeHandle(int index, MarkerOptionsSink sink, MarkerIconRegistry icons) {
+        final int offset = recordOffset(index);
+        apply(offset, sink, icons);
+        return buffer.getInt(offset + OFFSET_MARKER_ID);
+    }
+
+    private void apply(int offset, MarkerOptionsSink sink, MarkerIconRegistry icons) {
+        final int flags = buffer.getInt(offset + OFFSET_FLAGS);
+        if ((flags & FLAG_ALPHA) != 0) {
+            sink.setAlpha(buffer.getFloat(offset + OFFSET_ALPHA));
+        }
+        if ((flags & FLAG_ANCHOR) != 0) {
+            sink.setAnchor(
+                    buffer.getFloat(offset + OFFSET_ANCHOR_U),
+                    buffer.getFloat(offset + OFFSET_ANCHOR_V));
+        }
+        if ((flags & FLAG_HAS_CONSUME_TAP_EVENTS) != 0) {
+            sink.setConsumeTapEvents((flags & FLAG_CONSUME_TAP_EVENTS) != 0);
+        }
+        if ((flags & FLAG_HAS_DRAGGABLE) != 0) {
+            sink.setDraggable((flags & FLAG_DRAGGABLE) != 0);
+        }
+        final String title = string(buffer.getInt(offset + OFFSET_TITLE));
+        if (title != null) {
+            sink.setInfoWindowText(title, string(buffer.getInt(offset + OFFSET_SNIPPET)));
+        }
+        if ((flags & FLAG_POSITION) != 0) {
+            sink.setPosition(
+                    buffer.getDouble(offset + OFFSET_LATITUDE),
+                    buffer.getDouble(offset + OFFSET_LONGITUDE));
+        }
+        if ((flags & FLAG_ROTATION) != 0) {
+            sink.setRotation(buffer.getFloat(offset + OFFSET_ROTATION));
+        }
+        final int markerType = buffer.getInt(offset + OFFSET_MARKER_TYPE);
+        if (markerType > -1) {
+            sink.setMarkerType(markerType);
+        }
+        final int markerSelectedType = buffer.getInt(offset + OFFSET_MARKER_SELECTED_TYPE);
+        if (markerSelectedType > -1) {
+            sink.setMarkerSelectedType(markerSelectedType);
+        }
+        if (recordSize >= RECORD_SIZE_WITH_ICON) {
+            final String iconId = string(buffer.getInt(offset + OFFSET_ICON_ID));
+            final Bitmap icon = iconId != null ? icons.get(iconId) : null;
+            if (icon != null) {
+                sink.setIcon(icon);
+            }
+        }
+    }
+
+    private int recordOffset(int index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + recordCount);
+        }
+        return recordsOffset + index * recordSize;
+    }
+
+    private String string(int index) {
+        if (index < 0) {
+            return null;
+        }
+        if (index >= strings.length) {
+            throw new IllegalArgumentException("String index " + index + " out of range");
+        }
+        return strings[index];
+    }
+}
@@ -3,19 +3,19 @@ package com.yoonjaepark.flutter_kakao_map;
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
-import net.daum.mf.map.api.MapPOIItem;
-import net.daum.mf.map.api.MapPoint;
-import net.daum.mf.map.n.api.internal.NativePOIItemMarkerManager;
+import android.graphics.Bitmap;
 
 class MarkerBuilder implements MarkerOptionsSink {
-    private final MapPOIItem mapPOIItem;
+    private final MapPoi mapPOIItem;
     private boolean consumeTapEvents;
+    private double latitude;
+    private double longitude;
 
-    MarkerBuilder() {
-        this.mapPOIItem = new MapPOIItem();
+    MarkerBuilder(MapPoi mapPOIItem) {
+        this.mapPOIItem = mapPOIItem;
     }
 
-    MapPOIItem build() {
+    MapPoi build() {
         return mapPOIItem;
     }
 
@@ -23,6 +23,14 @@ class MarkerBuilder implements MarkerOptionsSink {
         return consumeTapEvents;
     }
 
+    double getLatitude() {
+        return latitude;
+    }
+
+    double getLongitude() {
+        return longitude;
+    }
+
     @Override
     public void setAlpha(float alpha) {
         mapPOIItem.setAlpha(alpha);
@@ -30,6 +38,7 @@ class MarkerBuilder implements MarkerOptionsSink {
 
     @Override
     public void setAnchor(float u, float v) {
+        mapPOIItem.setCustomImageAnchor(u, v);
     }
 
     @Override
@@ -42,6 +51,12 @@ class MarkerBuilder implements MarkerOptionsSink {
         mapPOIItem.setDraggable(draggable);
     }
 
+    @Override
+    public void setIcon(Bitmap icon) {
+        mapPOIItem.setMarkerType(MapPoi.MARKER_TYPE_CUSTOM_IMAGE);
+        mapPOIItem.setCustomImageBitmap(icon);
+    }
+
     @Override
     public void setInfoWindowAnchor(float u, float v) {
 //        markerOptions.infoWindowAnchor(u, v);
@@ -53,8 +68,10 @@ class MarkerBuilder implements MarkerOptionsSink {
     }
 
     @Override
-    public void setPosition(MapPoint position) {
-        mapPOIItem.setMapPoint(position);
+    public void setPosition(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        mapPOIItem.setPosition(latitude, longitude);
     }
 
     @Override
@@ -64,11 +81,11 @@ class MarkerBuilder implements MarkerOptionsSink {
 
     @Override
     public void setMarkerType(int markerType) {
-        mapPOIItem.setMarkerType(MapPOIItem.MarkerType.values()[markerType]);
+        mapPOIItem.setMarkerType(markerType);
     }
 
     @Override
     public void setMarkerSelectedType(int markerSelectedType) {
-        mapPOIItem.setSelectedMarkerType(MapPOIItem.MarkerType.values()[markerSelectedType]);
+        mapPOIItem.setSelectedMarkerType(markerSelectedType);
     }
 }
@@ -0,0 +1,195 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+/**
+ * Hierarchical point clusterer.
+ *
+ * <p>{@link #load} builds one level per Kakao zoom level, from {@code maxZoomLevel} up to the most
+ * zoomed out level. Each level greedily merges the items of the previous (more detailed) level
+ * that fall within {@code radius} screen pixels of each other, and keeps a {@link KdTree} over the
+ * result, so {@link #getClusters} only costs a logarithmic range query per camera change. Levels
+ * more detailed than {@code maxZoomLevel} show every point on its own.
+ *
+ * <p>Points are referred to by their index in the arrays passed to {@link #load}.
+ */
+final class MarkerClusterer {
+    static final float DEFAULT_RADIUS = 60;
+    static final int DEFAULT_MIN_POINTS = 2;
+    static final int DEFAULT_MAX_ZOOM_LEVEL = 2;
+
+    private final float radius;
+    private final int minPoints;
+    private final int maxZoomLevel;
+    private final Level[] levels =
+            new Level[MercatorProjection.MAX_ZOOM_LEVEL - MercatorProjection.MIN_ZOOM_LEVEL + 1];
+    private final IntArrayList neighbors = new IntArrayList();
+
+    /** Items of one zoom level. Item i covers {@code leaves[leafStart[i], leafStart[i] + numPoints[i])}. */
+    static final class Level {
+        final int zoomLevel;
+        final int size;
+        final double[] x;
+        final double[] y;
+        final int[] numPoints;
+        final int[] leafStart;
+        final int[] leaves;
+        final KdTree tree;
+
+        Level(int zoomLevel, int size, double[] x, double[] y, int[] numPoints, int[] leafStart, int[] leaves) {
+            this.zoomLevel = zoomLevel;
+            this.size = size;
+            this.x = x;
+            this.y = y;
+            this.numPoints = numPoints;
+            this.leafStart = leafStart;
+            this.leaves = leaves;
+            this.tree = new KdTree(x, y, size);
+        }
+
+        boolean isCluster(int item) {
+            return numPoints[item] > 1;
+        }
+
+        /** Returns the point index of a single point item. */
+        int leaf(int item) {
+            return leaves[leafStart[item]];
+        }
+
+        double latitude(int item) {
+            return MercatorProjection.latitude(y[item]);
+        }
+
+        double longitude(int item) {
+            return MercatorProjection.longitude(x[item]);
+        }
+    }
+
+    /** Cluster reference stored as the user object of cluster POIs. */
+    static final class Cluster {
+        final Level level;
+        final int item;
+
+        Cluster(Level level, int item) {
+            this.level = level;
+            this.item = item;
+        }
+    }
+
+    MarkerClusterer(float radius, int minPoints, int maxZoomLevel) {
+        this.radius = radius;
+        this.minPoints = Math.max(minPoints, 2);
+        this.maxZoomLevel = MercatorProjection.clampZoomLevel(maxZoomLevel);
+    }
+
+    void load(double[] latitudes, double[] longitudes, int count) {
+        final double[] x = new double[count];
+        final double[] y = new double[count];
+        final int[] numPoints = new int[count];
+        final int[] leafStart = new int[count];
+        final int[] leaves = new int[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = MercatorProjection.x(longitudes[i]);
+            y[i] = MercatorProjection.y(latitudes[i]);
+            numPoints[i] = 1;
+            leafStart[i] = i;
+            leaves[i] = i;
+        }
+
+        Level previous = new Level(maxZoomLevel - 1, count, x, y, numPoints, leafStart, leaves);
+        for (int zoomLevel = MercatorProjection.MIN_ZOOM_LEVEL; zoomLevel < maxZoomLevel; zoomLevel++) {
+            levels[zoomLevel - MercatorProjection.MIN_ZOOM_LEVEL] = previous;
+        }
+        for (int zoomLevel = maxZoomLevel; zoomLevel <= MercatorProjection.MAX_ZOOM_LEVEL; zoomLevel++) {
+            previous = cluster(previous, zoomLevel);
+            levels[zoomLevel - MercatorProjection.MIN_ZOOM_LEVEL] = previous;
+        }
+    }
+
+    Level level(int zoomLevel) {
+        return levels[MercatorProjection.clampZoomLevel(zoomLevel) - MercatorProjection.MIN_ZOOM_LEVEL];
+    }
+
+    /** Appends the items of {@code level} inside the given bounds to {@code result}. */
+    void getClusters(
+            Level level,
+            double minLatitude,
+            double minLongitude,
+            double maxLatitude,
+            double maxLongitude,
+            IntArrayList result) {
+        level.tree.range(
+                MercatorProjection.x(minLongitude),
+                MercatorProjection.y(maxLatitude),
+                MercatorProjection.x(maxLongitude),
+                MercatorProjection.y(minLatitude),
+                result);
+    }
+
+    private Level cluster(Level previous, int zoomLevel) {
+        final double r = radius * MercatorProjection.pixelSize(zoomLevel);
+        final int size = previous.size;
+        final boolean[] visited = new boolean[size];
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        final int[] numPoints = new int[size];
+        final int[] leafStart = new int[size];
+        final int[] leaves = new int[previous.leaves.length];
+        int count = 0;
+        int leafCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (visited[i]) {
+                continue;
+            }
+            visited[i] = true;
+
+            neighbors.clear();
+            previous.tree.within(previous.x[i], previous.y[i], r, neighbors);
+            int total = previous.numPoints[i];
+            for (int n = 0; n < neighbors.size(); n++) {
+                final int neighbor = neighbors.get(n);
+                if (!visited[neighbor]) {
+                    total += previous.numPoints[neighbor];
+                }
+            }
+
+            if (total >= minPoints) {
+                double wx = previous.x[i] * previous.numPoints[i];
+                double wy = previous.y[i] * previous.numPoints[i];
+                leafStart[count] = leafCount;
+                leafCount = copyLeaves(previous, i, leaves, leafCount);
+                for (int n = 0; n < neighbors.size(); n++) {
+                    final int neighbor = neighbors.get(n);
+                    if (visited[neighbor]) {
+                        continue;
+                    }
+                    visited[neighbor] = true;
+                    wx += previous.x[neighbor] * previous.numPoints[neighbor];
+                    wy += previous.y[neighbor] * previous.numPoints[neighbor];
+                    leafCount = copyLeaves(previous, neighbor, leaves, leafCount);
+                }
+                x[count] = wx / total;
+                y[count] = wy / total;
+                numPoints[count] = total;
+                count++;
+            } else {
+                x[count] = previous.x[i];
+                y[count] = previous.y[i];
+                numPoints[count] = previous.numPoints[i];
+                leafStart[count] = leafCount;
+                leafCount = copyLeaves(previous, i, leaves, leafCount);
+                count++;
+            }
+        }
+        return new Level(zoomLevel, count, x, y, numPoints, leafStart, leaves);
+    }
+
+    private static int copyLeaves(Level level, int item, int[] leaves, int offset) {
+        final int n = level.numPoints[item];
+        System.arraycopy(level.leaves, level.leafStart[item], leaves, offset, n);
+        return offset + n;
+    }
+}
@@ -4,25 +4,56 @@
 
 package com.yoonjaepark.flutter_kakao_map;
 
-import net.daum.mf.map.api.MapPOIItem;
-import net.daum.mf.map.api.MapPoint;
-import net.daum.mf.map.api.MapView;
+import android.graphics.Bitmap;
 
 /** Controller of a single Marker on the map. */
 class MarkerController implements MarkerOptionsSink {
 
-    private final MapPOIItem marker;
-    private final int kakaoMapsTag;
+    private final String markerId;
+    private final MapPoi marker;
     private boolean consumeTapEvents;
-
-    MarkerController(MapPOIItem marker, boolean consumeTapEvents) {
-        this.marker = marker;
-        this.consumeTapEvents = consumeTapEvents;
-        this.kakaoMapsTag = marker.getTag();
-    }
-
-    void remove(MapView mapView) {
-        mapView.removePOIItem(marker);
+    private double latitude;
+    private double longitude;
+    private float rotation;
+    private boolean added;
+    // Set when the position changed while the POI was off the map; applied on the next addTo.
+    private boolean positionChanged;
+    // Last MarkersController reconcile pass that kept this marker on the map.
+    int realizedGeneration;
+    // Slot of this marker in the MarkersController spatial index, which is also its handle.
+    int slot;
+    // Index of this marker's running MarkerAnimator animation, or -1.
+    int animationIndex = -1;
+
+    MarkerController(String markerId, MarkerBuilder markerBuilder) {
+        this.markerId = markerId;
+        this.marker = markerBuilder.build();
+        this.consumeTapEvents = markerBuilder.consumeTapEvents();
+        this.latitude = markerBuilder.getLatitude();
+        this.longitude = markerBuilder.getLongitude();
+        this.rotation = marker.getRotation();
+    }
+
+    void addTo(MapBackend map) {
+        if (!added) {
+            if (positionChanged) {
+                marker.setPosition(latitude, longitude);
+                positionChanged = false;
+            }
+            map.addPoi(marker);
+            added = true;
+        }
+    }
+
+    void remove(MapBackend map) {
+        if (added) {
+            map.removePoi(marker);
+            added = false;
+        }
+    }
+
+    boolean isAdded() {
+        return added;
     }
 
     @Override
@@ -32,6 +63,7 @@ class MarkerController implements MarkerOptionsSink {
 
     @Override
     public void setAnchor(float u, float v) {
+        marker.setCustomImageAnchor(u, v);
     }
 
     @Override
@@ -44,6 +76,12 @@ class MarkerController implements MarkerOptionsSink {
         marker.setDraggable(draggable);
     }
 
+    @Override
+    public void setIcon(Bitmap icon) {
+        marker.setMarkerType(MapPoi.MARKER_TYPE_CUSTOM_IMAGE);
+        marker.setCustomImageBitmap(icon);
+    }
+
     @Override
     public void setInfoWindowAnchor(float u, float v) {
     }
@@ -53,27 +91,47 @@ class MarkerController implements MarkerOptionsSink {
     }
 
     @Override
-    public void setPosition(MapPoint position) {
-        marker.setMapPoint(position);
+    public void setPosition(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        // Every move queues a task for the Kakao map engine; culled markers skip it until shown.
+        if (added) {
+            marker.setPosition(latitude, longitude);
+        } else {
+            positionChanged = true;
+        }
     }
 
     @Override
     public void setRotation(float rotation) {
+        this.rotation = rotation;
         marker.setRotation(rotation);
     }
 
     @Override
     public void setMarkerType(int markerType) {
-        marker.setMarkerType(MapPOIItem.MarkerType.values()[markerType]);
+        marker.setMarkerType(markerType);
     }
 
     @Override
     public void setMarkerSelectedType(int markerSelectedType) {
-        marker.setSelectedMarkerType(MapPOIItem.MarkerType.values()[markerSelectedType]);
+        marker.setSelectedMarkerType(markerSelectedType);
+    }
+
+    String getMarkerId() {
+        return markerId;
+    }
+
+    double getLatitude() {
+        return latitude;
+    }
+
+    double getLongitude() {
+        return longitude;
     }
 
-    int getKakaoMapsMarkerId() {
-        return kakaoMapsTag;
+    float getRotation() {
+        return rotation;
     }
 
     boolean consumeTapEvents() {
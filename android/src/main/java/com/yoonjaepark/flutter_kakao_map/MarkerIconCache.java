@@ -0,0 +1,138 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process wide cache of decoded marker icons.
+ *
+ * <p>Icons are keyed by a digest of their encoded bytes and the requested pixel size, so markers
+ * sharing an image share a single {@link Bitmap} no matter how often the bytes are resent. The
+ * cache is bounded by the total byte count of the bitmaps it holds. Bitmaps that drop out of the
+ * cache are not recycled, since markers may still display them.
+ */
+final class MarkerIconCache {
+    private static final int DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+    private static MarkerIconCache instance;
+
+    private final LruCache<String, Bitmap> bitmaps;
+    private final float density;
+
+    static synchronized MarkerIconCache getInstance(Context context) {
+        if (instance == null) {
+            final int maxBytes = (int) Math.min(DEFAULT_MAX_BYTES, Runtime.getRuntime().maxMemory() / 16);
+            instance = new MarkerIconCache(maxBytes, context.getResources().getDisplayMetrics().density);
+        }
+        return instance;
+    }
+
+    MarkerIconCache(int maxBytes, float density) {
+        this.density = density;
+        this.bitmaps = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Returns the bitmap for the given encoded image.
+     *
+     * @param width the logical width to draw the icon at, or 0 to keep the image size.
+     * @param height the logical height to draw the icon at, or 0 to keep the image size.
+     * @param imagePixelRatio the device pixel ratio the image was authored for, or 0 to draw it
+     *     one image pixel per screen pixel.
+     */
+    Bitmap get(byte[] bytes, float width, float height, float imagePixelRatio) {
+        final String key = digest(bytes) + '@' + width + 'x' + height + '@' + imagePixelRatio;
+        Bitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            bitmap = decode(bytes, width, height, imagePixelRatio);
+            bitmaps.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    void clear() {
+        bitmaps.evictAll();
+    }
+
+    Map<String, Object> getStats() {
+        final Map<String, Object> stats = new HashMap<>();
+        stats.put("hitCount", bitmaps.hitCount());
+        stats.put("missCount", bitmaps.missCount());
+        stats.put("evictionCount", bitmaps.evictionCount());
+        stats.put("putCount", bitmaps.putCount());
+        stats.put("byteCount", bitmaps.size());
+        stats.put("maxByteCount", bitmaps.maxSize());
+        return stats;
+    }
+
+    private Bitmap decode(byte[] bytes, float width, float height, float imagePixelRatio) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IllegalArgumentException("Unable to decode bytes as a valid bitmap.");
+        }
+
+        int targetWidth = options.outWidth;
+        int targetHeight = options.outHeight;
+        if (width > 0 && height > 0) {
+            targetWidth = Math.max(1, Math.round(width * density));
+            targetHeight = Math.max(1, Math.round(height * density));
+        } else if (imagePixelRatio > 0) {
+            targetWidth = Math.max(1, Math.round(options.outWidth * density / imagePixelRatio));
+            targetHeight = Math.max(1, Math.round(options.outHeight * density / imagePixelRatio));
+        }
+
+        // Subsample while the image stays at least as large as the target, then scale the rest.
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= targetWidth
+                && options.outHeight / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        final Bitmap decoded = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (decoded == null) {
+            throw new IllegalArgumentException("Unable to decode bytes as a valid bitmap.");
+        }
+        if (decoded.getWidth() == targetWidth && decoded.getHeight() == targetHeight) {
+            return decoded;
+        }
+        final Bitmap scaled = Bitmap.createScaledBitmap(decoded, targetWidth, targetHeight, true);
+        if (scaled != decoded) {
+            decoded.recycle();
+        }
+        return scaled;
+    }
+
+    private static String digest(byte[] bytes) {
+        final MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final byte[] hash = md.digest(bytes);
+        final StringBuilder builder = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+            builder.append(Character.forDigit(b & 0xf, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.graphics.Bitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Icons of one map, registered once through {@code icons#register} and referenced by id from
+ * markers afterwards.
+ *
+ * <p>Registered icons are pinned until they are unregistered, independently of the eviction of
+ * {@link MarkerIconCache}. Unregistering an icon does not change markers already showing it;
+ * registering a new image under an existing id only affects markers updated afterwards.
+ *
+ * <p>Marker updates resolve ids while they are prepared, which may be after a later
+ * {@code icons#unregister} call. An id that is not registered at that point therefore falls back
+ * to the default marker image rather than failing the whole update.
+ */
+final class MarkerIconRegistry {
+    private final MarkerIconCache cache;
+    private final Map<String, Bitmap> registeredIcons = new HashMap<>();
+
+    MarkerIconRegistry(MarkerIconCache cache) {
+        this.cache = cache;
+    }
+
+    /** Decodes an inline icon through the shared cache. */
+    Bitmap decode(byte[] bytes, float width, float height, float imagePixelRatio) {
+        return cache.get(bytes, width, height, imagePixelRatio);
+    }
+
+    synchronized void register(String iconId, Bitmap icon) {
+        registeredIcons.put(iconId, icon);
+    }
+
+    synchronized void unregister(String iconId) {
+        registeredIcons.remove(iconId);
+    }
+
+    /** Returns the icon registered under {@code iconId}, or null if there is none. */
+    synchronized Bitmap get(String iconId) {
+        return registeredIcons.get(iconId);
+    }
+
+    synchronized Map<String, Object> getStats() {
+        final Map<String, Object> stats = cache.getStats();
+        stats.put("registeredCount", registeredIcons.size());
+        return stats;
+    }
+}
@@ -0,0 +1,150 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.graphics.Bitmap;
+
+/**
+ * Marker options captured off the main thread and replayed later onto a live marker.
+ *
+ * <p>Only options that were set are replayed. The icon is replayed last, since it switches the
+ * marker type to a custom image.
+ */
+final class MarkerOptionsRecorder implements MarkerOptionsSink {
+    private static final int ALPHA = 1;
+    private static final int ANCHOR = 1 << 1;
+    private static final int CONSUME_TAP_EVENTS = 1 << 2;
+    private static final int DRAGGABLE = 1 << 3;
+    private static final int ICON = 1 << 4;
+    private static final int INFO_WINDOW_ANCHOR = 1 << 5;
+    private static final int INFO_WINDOW_TEXT = 1 << 6;
+    private static final int POSITION = 1 << 7;
+    private static final int ROTATION = 1 << 8;
+    private static final int MARKER_TYPE = 1 << 9;
+    private static final int MARKER_SELECTED_TYPE = 1 << 10;
+
+    private int set;
+    private float alpha;
+    private float anchorU;
+    private float anchorV;
+    private boolean consumeTapEvents;
+    private boolean draggable;
+    private Bitmap icon;
+    private float infoWindowAnchorU;
+    private float infoWindowAnchorV;
+    private String title;
+    private String snippet;
+    private double latitude;
+    private double longitude;
+    private float rotation;
+    private int markerType;
+    private int markerSelectedType;
+
+    void applyTo(MarkerOptionsSink sink) {
+        if ((set & ALPHA) != 0) {
+            sink.setAlpha(alpha);
+        }
+        if ((set & ANCHOR) != 0) {
+            sink.setAnchor(anchorU, anchorV);
+        }
+        if ((set & CONSUME_TAP_EVENTS) != 0) {
+            sink.setConsumeTapEvents(consumeTapEvents);
+        }
+        if ((set & DRAGGABLE) != 0) {
+            sink.setDraggable(draggable);
+        }
+        if ((set & INFO_WINDOW_ANCHOR) != 0) {
+            sink.setInfoWindowAnchor(infoWindowAnchorU, infoWindowAnchorV);
+        }
+        if ((set & INFO_WINDOW_TEXT) != 0) {
+            sink.setInfoWindowText(title, snippet);
+        }
+        if ((set & POSITION) != 0) {
+            sink.setPosition(latitude, longitude);
+        }
+        if ((set & ROTATION) != 0) {
+            sink.setRotation(rotation);
+        }
+        if ((set & MARKER_TYPE) != 0) {
+            sink.setMarkerType(markerType);
+        }
+        if ((set & MARKER_SELECTED_TYPE) != 0) {
+            sink.setMarkerSelectedType(markerSelectedType);
+        }
+        if ((set & ICON) != 0) {
+            sink.setIcon(icon);
+        }
+    }
+
+    @Override
+    public void setAlpha(float alpha) {
+        this.alpha = alpha;
+        set |= ALPHA;
+    }
+
+    @Override
+    public void setAnchor(float u, float v) {
+        this.anchorU = u;
+        this.anchorV = v;
+        set |= ANCHOR;
+    }
+
+    @Override
+    public void setConsumeTapEvents(boolean consumeTapEvents) {
+        this.consumeTapEvents = consumeTapEvents;
+        set |= CONSUME_TAP_EVENTS;
+    }
+
+    @Override
+    public void setDraggable(boolean draggable) {
+        this.draggable = draggable;
+        set |= DRAGGABLE;
+    }
+
+    @Override
+    public void setIcon(Bitmap icon) {
+        this.icon = icon;
+        set |= ICON;
+    }
+
+    @Override
+    public void setInfoWindowAnchor(float u, float v) {
+        this.infoWindowAnchorU = u;
+        this.infoWindowAnchorV = v;
+        set |= INFO_WINDOW_ANCHOR;
+    }
+
+    @Override
+    public void setInfoWindowText(String title, String snippet) {
+        this.title = title;
+        this.snippet = snippet;
+        set |= INFO_WINDOW_TEXT;
+    }
+
+    @Override
+    public void setPosition(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        set |= POSITION;
+    }
+
+    @Override
+    public void setRotation(float rotation) {
+        this.rotation = rotation;
+        set |= ROTATION;
+    }
+
+    @Override
+    public void setMarkerType(int markerType) {
+        this.markerType = markerType;
+        set |= MARKER_TYPE;
+    }
+
+    @Override
+    public void setMarkerSelectedType(int markerSelectedType) {
+        this.markerSelectedType = markerSelectedType;
+        set |= MARKER_SELECTED_TYPE;
+    }
+}
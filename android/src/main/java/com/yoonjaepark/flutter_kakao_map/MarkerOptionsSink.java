@@ -4,7 +4,7 @@
 
 package com.yoonjaepark.flutter_kakao_map;
 
-import net.daum.mf.map.api.MapPoint;
+import android.graphics.Bitmap;
 
 /** Receiver of Marker configuration options. */
 interface MarkerOptionsSink {
@@ -16,11 +16,13 @@ interface MarkerOptionsSink {
 
     void setDraggable(boolean draggable);
 
+    void setIcon(Bitmap icon);
+
     void setInfoWindowAnchor(float u, float v);
 
     void setInfoWindowText(String title, String snippet);
 
-    void setPosition(MapPoint position);
+    void setPosition(double latitude, double longitude);
 
     void setRotation(float rotation);
 
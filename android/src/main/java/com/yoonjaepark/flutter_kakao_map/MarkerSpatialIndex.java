@@ -0,0 +1,347 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.Arrays;
+
+/**
+ * Incrementally updated point quadtree over marker positions.
+ *
+ * <p>Points live in integer slots handed out by {@link #add}; nodes and points are stored in
+ * parallel primitive arrays rather than one object per node. Leaves hold their points in a
+ * doubly linked list threaded through {@code next}/{@code previous} and split once they exceed
+ * {@link #BUCKET_SIZE} points. Positions are kept in normalized web mercator coordinates, so
+ * {@link #nearest} ranks by projected distance, which matches ground distance at city scale.
+ */
+final class MarkerSpatialIndex {
+    private static final int BUCKET_SIZE = 16;
+    private static final int MAX_DEPTH = 24;
+    private static final int NONE = -1;
+
+    // Point storage, indexed by slot.
+    private double[] xs = new double[64];
+    private double[] ys = new double[64];
+    private int[] next = new int[64];
+    private int[] previous = new int[64];
+    private int[] leafOf = new int[64];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private int size;
+
+    // Node storage, indexed by node. A node is a leaf while children[4 * node] == NONE.
+    private int[] children = new int[64];
+    private int[] head = new int[16];
+    private int[] count = new int[16];
+    private int[] depth = new int[16];
+    private double[] nodeX = new double[16];
+    private double[] nodeY = new double[16];
+    private double[] nodeSize = new double[16];
+    private int nodeCount;
+
+    private int[] stack = new int[64];
+
+    // Binary min-heap used by nearest(). Values >= 0 are nodes, values < 0 encode ~slot.
+    private double[] heapKeys = new double[64];
+    private int[] heapValues = new int[64];
+    private int heapSize;
+
+    MarkerSpatialIndex() {
+        newNode(0, 0, 1, 0);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Inserts a point and returns the slot that identifies it. */
+    int add(double latitude, double longitude) {
+        final int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = slotCount++;
+            ensureSlotCapacity(slotCount);
+        }
+        xs[slot] = MercatorProjection.x(longitude);
+        ys[slot] = MercatorProjection.y(latitude);
+        insert(slot);
+        size++;
+        return slot;
+    }
+
+    void move(int slot, double latitude, double longitude) {
+        final double x = MercatorProjection.x(longitude);
+        final double y = MercatorProjection.y(latitude);
+        final int leaf = leafOf[slot];
+        xs[slot] = x;
+        ys[slot] = y;
+        if (contains(leaf, x, y)) {
+            return;
+        }
+        unlink(slot);
+        insert(slot);
+    }
+
+    void remove(int slot) {
+        if (slot < 0 || slot >= slotCount || leafOf[slot] == NONE) {
+            return;
+        }
+        unlink(slot);
+        leafOf[slot] = NONE;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    /** Appends the slots of all points inside the given bounds to {@code result}. */
+    void query(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude, IntArrayList result) {
+        final double minX = MercatorProjection.x(minLongitude);
+        final double maxX = MercatorProjection.x(maxLongitude);
+        final double minY = MercatorProjection.y(maxLatitude);
+        final double maxY = MercatorProjection.y(minLatitude);
+
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            final int node = stack[--top];
+            final double x0 = nodeX[node];
+            final double y0 = nodeY[node];
+            final double extent = nodeSize[node];
+            if (x0 > maxX || y0 > maxY || x0 + extent < minX || y0 + extent < minY) {
+                continue;
+            }
+            final int firstChild = children[4 * node];
+            if (firstChild == NONE) {
+                for (int slot = head[node]; slot != NONE; slot = next[slot]) {
+                    final double x = xs[slot];
+                    final double y = ys[slot];
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        result.add(slot);
+                    }
+                }
+                continue;
+            }
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            for (int i = 0; i < 4; i++) {
+                stack[top++] = children[4 * node + i];
+            }
+        }
+    }
+
+    /** Appends the slots of the {@code k} points closest to the given position, nearest first. */
+    void nearest(double latitude, double longitude, int k, IntArrayList result) {
+        if (k <= 0 || size == 0) {
+            return;
+        }
+        final double x = MercatorProjection.x(longitude);
+        final double y = MercatorProjection.y(latitude);
+        final int target = result.size() + k;
+
+        heapSize = 0;
+        heapPush(boxDistance(0, x, y), 0);
+        while (heapSize > 0) {
+            final int value = heapValues[0];
+            heapPop();
+            if (value < 0) {
+                result.add(~value);
+                if (result.size() == target) {
+                    break;
+                }
+                continue;
+            }
+            final int firstChild = children[4 * value];
+            if (firstChild == NONE) {
+                for (int slot = head[value]; slot != NONE; slot = next[slot]) {
+                    final double dx = xs[slot] - x;
+                    final double dy = ys[slot] - y;
+                    heapPush(dx * dx + dy * dy, ~slot);
+                }
+            } else {
+                for (int i = 0; i < 4; i++) {
+                    final int child = children[4 * value + i];
+                    heapPush(boxDistance(child, x, y), child);
+                }
+            }
+        }
+        heapSize = 0;
+    }
+
+    private double boxDistance(int node, double x, double y) {
+        final double x0 = nodeX[node];
+        final double y0 = nodeY[node];
+        final double extent = nodeSize[node];
+        final double dx = x < x0 ? x0 - x : x > x0 + extent ? x - x0 - extent : 0;
+        final double dy = y < y0 ? y0 - y : y > y0 + extent ? y - y0 - extent : 0;
+        return dx * dx + dy * dy;
+    }
+
+    private void heapPush(double key, int value) {
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            heapValues = Arrays.copyOf(heapValues, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            final int parent = (i - 1) >> 1;
+            if (heapKeys[parent] <= key) {
+                break;
+            }
+            heapKeys[i] = heapKeys[parent];
+            heapValues[i] = heapValues[parent];
+            i = parent;
+        }
+        heapKeys[i] = key;
+        heapValues[i] = value;
+    }
+
+    private void heapPop() {
+        final int last = --heapSize;
+        if (last == 0) {
+            return;
+        }
+        final double key = heapKeys[last];
+        final int value = heapValues[last];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= last) {
+                break;
+            }
+            if (child + 1 < last && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (heapKeys[child] >= key) {
+                break;
+            }
+            heapKeys[i] = heapKeys[child];
+            heapValues[i] = heapValues[child];
+            i = child;
+        }
+        heapKeys[i] = key;
+        heapValues[i] = value;
+    }
+
+    private void insert(int slot) {
+        final double x = xs[slot];
+        final double y = ys[slot];
+        int node = 0;
+        while (children[4 * node] != NONE) {
+            node = children[4 * node + quadrant(node, x, y)];
+        }
+        link(node, slot);
+        if (count[node] > BUCKET_SIZE && depth[node] < MAX_DEPTH) {
+            split(node);
+        }
+    }
+
+    private void split(int node) {
+        final double half = nodeSize[node] / 2;
+        final double x0 = nodeX[node];
+        final double y0 = nodeY[node];
+        final int childDepth = depth[node] + 1;
+        final int first = newNode(x0, y0, half, childDepth);
+        newNode(x0 + half, y0, half, childDepth);
+        newNode(x0, y0 + half, half, childDepth);
+        newNode(x0 + half, y0 + half, half, childDepth);
+        for (int i = 0; i < 4; i++) {
+            children[4 * node + i] = first + i;
+        }
+
+        int slot = head[node];
+        head[node] = NONE;
+        count[node] = 0;
+        while (slot != NONE) {
+            final int following = next[slot];
+            link(first + quadrantOf(x0, y0, half, xs[slot], ys[slot]), slot);
+            slot = following;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (count[first + i] > BUCKET_SIZE && childDepth < MAX_DEPTH) {
+                split(first + i);
+            }
+        }
+    }
+
+    private void link(int leaf, int slot) {
+        final int first = head[leaf];
+        next[slot] = first;
+        previous[slot] = NONE;
+        if (first != NONE) {
+            previous[first] = slot;
+        }
+        head[leaf] = slot;
+        leafOf[slot] = leaf;
+        count[leaf]++;
+    }
+
+    private void unlink(int slot) {
+        final int leaf = leafOf[slot];
+        final int before = previous[slot];
+        final int after = next[slot];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            head[leaf] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+        count[leaf]--;
+    }
+
+    private boolean contains(int node, double x, double y) {
+        final double x0 = nodeX[node];
+        final double y0 = nodeY[node];
+        final double extent = nodeSize[node];
+        return x >= x0 && y >= y0 && x < x0 + extent && y < y0 + extent;
+    }
+
+    private int quadrant(int node, double x, double y) {
+        return quadrantOf(nodeX[node], nodeY[node], nodeSize[node] / 2, x, y);
+    }
+
+    private static int quadrantOf(double x0, double y0, double half, double x, double y) {
+        return (x >= x0 + half ? 1 : 0) | (y >= y0 + half ? 2 : 0);
+    }
+
+    private int newNode(double x, double y, double extent, int nodeDepth) {
+        final int node = nodeCount++;
+        if (node == head.length) {
+            final int capacity = head.length * 2;
+            head = Arrays.copyOf(head, capacity);
+            count = Arrays.copyOf(count, capacity);
+            depth = Arrays.copyOf(depth, capacity);
+            nodeX = Arrays.copyOf(nodeX, capacity);
+            nodeY = Arrays.copyOf(nodeY, capacity);
+            nodeSize = Arrays.copyOf(nodeSize, capacity);
+            children = Arrays.copyOf(children, capacity * 4);
+        }
+        head[node] = NONE;
+        count[node] = 0;
+        depth[node] = nodeDepth;
+        nodeX[node] = x;
+        nodeY[node] = y;
+        nodeSize[node] = extent;
+        Arrays.fill(children, 4 * node, 4 * node + 4, NONE);
+        return node;
+    }
+
+    private void ensureSlotCapacity(int capacity) {
+        if (capacity <= xs.length) {
+            return;
+        }
+        final int newCapacity = Math.max(capacity, xs.length * 2);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        next = Arrays.copyOf(next, newCapacity);
+        previous = Arrays.copyOf(previous, newCapacity);
+        leafOf = Arrays.copyOf(leafOf, newCapacity);
+    }
+}
@@ -0,0 +1,144 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@code markers#update} call with every marker already interpreted.
+ *
+ * <p>{@link #prepare} does all the work that does not touch the map: it reads the JSON and packed
+ * marker options, decodes icons and builds the {@link MapPoi}s of new markers. It may run on
+ * any thread. {@link MarkersController#applyUpdate} then only has to add, change and remove POIs
+ * on the main thread.
+ *
+ * <p>In handle mode existing markers are addressed by the int handles that applying their adds
+ * handed out, so changes and removes fill {@link #handlesToChange} and {@link #handlesToRemove}
+ * rather than the id lists.
+ */
+final class MarkerUpdate {
+    final boolean handles;
+    final List<String> idsToAdd = new ArrayList<>();
+    final List<MarkerBuilder> markersToAdd = new ArrayList<>();
+    final List<String> idsToChange = new ArrayList<>();
+    final IntArrayList handlesToChange = new IntArrayList();
+    final List<MarkerOptionsRecorder> markersToChange = new ArrayList<>();
+    final List<String> idsToRemove = new ArrayList<>();
+    final IntArrayList handlesToRemove = new IntArrayList();
+    // Handles of markersToAdd, filled in by MarkersController#applyUpdate in handle mode.
+    int[] addedHandles;
+    // Whether Dart asked for markers#onBatchApplied even if the update fits in one frame.
+    boolean reportProgress;
+
+    MarkerUpdate() {
+        this(false);
+    }
+
+    MarkerUpdate(boolean handles) {
+        this.handles = handles;
+    }
+
+    static MarkerUpdate prepare(
+            List<Object> markersToAdd,
+            byte[] packedMarkersToAdd,
+            List<Object> markersToChange,
+            byte[] packedMarkersToChange,
+            List<Object> markerIdsToRemove,
+            MarkerIconRegistry icons,
+            MapPoi.Factory pois) {
+        return prepare(
+                false, markersToAdd, packedMarkersToAdd, markersToChange, packedMarkersToChange, markerIdsToRemove, null, icons, pois);
+    }
+
+    /**
+     * Prepares an update. With {@code handles} set, changes carry a {@code markerHandle} instead
+     * of a {@code markerId} and removes come from {@code markerHandlesToRemove}.
+     */
+    static MarkerUpdate prepare(
+            boolean handles,
+            List<Object> markersToAdd,
+            byte[] packedMarkersToAdd,
+            List<Object> markersToChange,
+            byte[] packedMarkersToChange,
+            List<Object> markerIdsToRemove,
+            int[] markerHandlesToRemove,
+            MarkerIconRegistry icons,
+            MapPoi.Factory pois) {
+        final MarkerUpdate update = new MarkerUpdate(handles);
+        if (markersToAdd != null) {
+            for (Object marker : markersToAdd) {
+                if (marker == null) {
+                    continue;
+                }
+                final MarkerBuilder markerBuilder = new MarkerBuilder(pois.newPoi());
+                update.idsToAdd.add(Convert.interpretMarkerOptions(marker, markerBuilder, icons));
+                update.markersToAdd.add(markerBuilder);
+            }
+        }
+        if (packedMarkersToAdd != null) {
+            final MarkerBatchDecoder decoder = new MarkerBatchDecoder(packedMarkersToAdd);
+            for (int i = 0; i < decoder.size(); i++) {
+                final MarkerBuilder markerBuilder = new MarkerBuilder(pois.newPoi());
+                update.idsToAdd.add(decoder.decode(i, markerBuilder, icons));
+                update.markersToAdd.add(markerBuilder);
+            }
+        }
+        if (markersToChange != null) {
+            for (Object marker : markersToChange) {
+                if (marker == null) {
+                    continue;
+                }
+                final MarkerOptionsRecorder recorder = new MarkerOptionsRecorder();
+                if (handles) {
+                    update.handlesToChange.add(Convert.interpretMarkerOptionsByHandle(marker, recorder, icons));
+                } else {
+                    update.idsToChange.add(Convert.interpretMarkerOptions(marker, recorder, icons));
+                }
+                update.markersToChange.add(recorder);
+            }
+        }
+        if (packedMarkersToChange != null) {
+            final MarkerBatchDecoder decoder = new MarkerBatchDecoder(packedMarkersToChange);
+            for (int i = 0; i < decoder.size(); i++) {
+                final MarkerOptionsRecorder recorder = new MarkerOptionsRecorder();
+                if (handles) {
+                    update.handlesToChange.add(decoder.decodeHandle(i, recorder, icons));
+                } else {
+                    update.idsToChange.add(decoder.decode(i, recorder, icons));
+                }
+                update.markersToChange.add(recorder);
+            }
+        }
+        if (markerIdsToRemove != null) {
+            for (Object markerId : markerIdsToRemove) {
+                if (markerId != null) {
+                    update.idsToRemove.add((String) markerId);
+                }
+            }
+        }
+        if (markerHandlesToRemove != null) {
+            for (int markerHandle : markerHandlesToRemove) {
+                update.handlesToRemove.add(markerHandle);
+            }
+        }
+        if (handles) {
+            update.addedHandles = new int[update.idsToAdd.size()];
+        }
+        return update;
+    }
+
+    int changeCount() {
+        return markersToChange.size();
+    }
+
+    int removeCount() {
+        return idsToRemove.size() + handlesToRemove.size();
+    }
+
+    int size() {
+        return idsToAdd.size() + changeCount() + removeCount();
+    }
+}
@@ -0,0 +1,191 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Runs {@code markers#update} calls as a two stage pipeline.
+ *
+ * <p>Large updates are prepared on a single background thread and then posted back to the main
+ * looper, where {@link MarkerBatchApplier} performs the POI mutations. Updates reach the applier
+ * in the order they were received: small updates are prepared inline only while nothing is in
+ * flight.
+ */
+final class MarkerUpdateQueue {
+    /** Receives prepared updates on the main thread, in the order they were submitted. */
+    interface Consumer {
+        void enqueue(MarkerUpdate update, MethodChannel.Result result);
+
+        /**
+         * Runs {@code action} once every update enqueued so far is applied. If they are dropped
+         * instead, {@code result} completes with an error for {@code method}.
+         */
+        void runAfterUpdates(String method, Runnable action, MethodChannel.Result result);
+    }
+
+    // Updates touching fewer markers than this are cheaper to prepare inline than to hand off.
+    private static final int INLINE_THRESHOLD = 256;
+
+    private final Consumer applier;
+    private final MarkerIconRegistry icons;
+    private final MapPoi.Factory pois;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            final Thread thread = new Thread(runnable, "KakaoMapMarkerUpdates");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+    // Updates handed to the background thread and not yet queued on the applier. Main thread only.
+    private int pending;
+    private boolean closed;
+    private boolean handles;
+
+    MarkerUpdateQueue(Consumer applier, MarkerIconRegistry icons, MapPoi.Factory pois) {
+        this.applier = applier;
+        this.icons = icons;
+        this.pois = pois;
+    }
+
+    /** Returns whether no update is being prepared in the background. Main thread only. */
+    boolean isIdle() {
+        return pending == 0;
+    }
+
+    /** Sets whether later submitted updates address markers by handle. */
+    void setHandles(boolean handles) {
+        this.handles = handles;
+    }
+
+    void submit(MethodCall call, final MethodChannel.Result result) {
+        final boolean handles = this.handles;
+        final List<Object> markersToAdd = call.argument("markersToAdd");
+        final byte[] packedMarkersToAdd = call.argument("packedMarkersToAdd");
+        final List<Object> markersToChange = call.argument("markersToChange");
+        final byte[] packedMarkersToChange = call.argument("packedMarkersToChange");
+        final List<Object> markerIdsToRemove = call.argument("markerIdsToRemove");
+        final int[] markerHandlesToRemove = call.argument("markerHandlesToRemove");
+        final boolean reportProgress = Boolean.TRUE.equals(call.argument("reportProgress"));
+
+        final int size = size(markersToAdd) + size(packedMarkersToAdd)
+                + size(markersToChange) + size(packedMarkersToChange);
+        if (pending == 0 && size < INLINE_THRESHOLD) {
+            final MarkerUpdate update = MarkerUpdate.prepare(
+                    handles,
+                    markersToAdd,
+                    packedMarkersToAdd,
+                    markersToChange,
+                    packedMarkersToChange,
+                    markerIdsToRemove,
+                    markerHandlesToRemove,
+                    icons,
+                    pois);
+            update.reportProgress = reportProgress;
+            applier.enqueue(update, result);
+            return;
+        }
+
+        pending++;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final MarkerUpdate update = MarkerUpdate.prepare(
+                            handles,
+                            markersToAdd,
+                            packedMarkersToAdd,
+                            markersToChange,
+                            packedMarkersToChange,
+                            markerIdsToRemove,
+                            markerHandlesToRemove,
+                            icons,
+                            pois);
+                    update.reportProgress = reportProgress;
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            pending--;
+                            if (!closed) {
+                                applier.enqueue(update, result);
+                            } else {
+                                result.error("markers#update", "Map disposed", null);
+                            }
+                        }
+                    });
+                } catch (final RuntimeException e) {
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            pending--;
+                            result.error("markers#update", e.getMessage(), null);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs {@code action} on the main thread once every update submitted before it is applied, so
+     * calls addressing markers see the ones earlier calls added. If the map is disposed first,
+     * {@code result} completes with an error for {@code method} instead.
+     */
+    void runAfterUpdates(final String method, final Runnable action, final MethodChannel.Result result) {
+        if (pending == 0) {
+            applier.runAfterUpdates(method, action, result);
+            return;
+        }
+
+        // The background thread takes tasks in order, so this comes back after every update ahead.
+        pending++;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        pending--;
+                        if (!closed) {
+                            applier.runAfterUpdates(method, action, result);
+                        } else {
+                            result.error(method, "Map disposed", null);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Drops updates that have not been applied yet and stops the background thread. Updates still
+     * being prepared complete with an error.
+     */
+    void close() {
+        closed = true;
+        executor.shutdown();
+    }
+
+    private static int size(List<Object> markers) {
+        return markers != null ? markers.size() : 0;
+    }
+
+    private static int size(byte[] packedMarkers) {
+        return packedMarkers != null ? packedMarkers.length / MarkerBatchDecoder.RECORD_SIZE : 0;
+    }
+}
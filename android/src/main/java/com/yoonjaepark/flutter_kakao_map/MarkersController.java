@@ -6,64 +6,429 @@ package com.yoonjaepark.flutter_kakao_map;
 
 import android.util.Log;
 
-import net.daum.mf.map.api.MapPOIItem;
-import net.daum.mf.map.api.MapPoint;
-import net.daum.mf.map.api.MapView;
-import net.daum.mf.map.n.api.internal.NativePOIItemMarkerManager;
-
 import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-class MarkersController {
+/**
+ * Controller of all markers on a map.
+ *
+ * <p>A marker's handle is its slot in the spatial index. POIs carry it as their user object, so
+ * taps and drags find their marker in {@code slotToController} without hashing. In handle mode
+ * (see {@link #setHandles}) Dart addresses markers by handle too and {@code markerIdToController}
+ * stays empty; a handle is valid until its marker is removed and may then be reused.
+ */
+class MarkersController implements MarkerAnimator.Target {
+
+    static final float DEFAULT_CULLING_MARGIN = 0.5f;
+    // How often clusters are rebuilt while markers keep moving.
+    private static final long ANIMATED_CLUSTER_INTERVAL_NANOS = 500000000;
 
     private final Map<String, MarkerController> markerIdToController;
-    private final Map<String, String> kakaoMapsMarkerIdToDartMarkerId;
     private final MethodChannel methodChannel;
-    private MapView kakaoMap;
+    private MapBackend kakaoMap;
+
+    private final MarkerSpatialIndex spatialIndex = new MarkerSpatialIndex();
+    private final MarkerAnimator animator = new MarkerAnimator(this);
+    private MarkerController[] slotToController = new MarkerController[64];
+
+    // Markers currently realized as POIs while clustering or culling; markers are removed from the
+    // map when a reconcile pass no longer stamps them with the current generation.
+    private final List<MarkerController> realizedMarkers = new ArrayList<>();
+    private final IntArrayList visibleItems = new IntArrayList();
+    private final double[] visibleBounds = new double[4];
+    private int generation;
+
+    private boolean cullingEnabled;
+    private float cullingMargin = DEFAULT_CULLING_MARGIN;
+
+    private MarkerClusterer clusterer;
+    private boolean clustersDirty;
+    private MarkerController[] clusteredMarkers;
+    private MarkerClusterer.Level shownLevel;
+    private Map<Integer, MapPoi> clusterItems = new HashMap<>();
+    private long lastAnimatedClusterNanos;
+
+    private boolean handles;
 
     MarkersController(MethodChannel methodChannel) {
         this.markerIdToController = new HashMap<>();
-        this.kakaoMapsMarkerIdToDartMarkerId = new HashMap<>();
         this.methodChannel = methodChannel;
     }
 
-    void setKakaoMap(MapView kakaoMap) {
+    int getMarkerCount() {
+        return spatialIndex.size();
+    }
+
+    boolean usesHandles() {
+        return handles;
+    }
+
+    /**
+     * Switches between addressing markers by their Dart ids and by int handles. Must only be
+     * called while there are no markers.
+     */
+    void setHandles(boolean handles) {
+        if (getMarkerCount() > 0) {
+            throw new IllegalStateException("Cannot switch marker handles while markers exist");
+        }
+        this.handles = handles;
+    }
+
+    void setKakaoMap(MapBackend kakaoMap) {
         this.kakaoMap = kakaoMap;
+        resetVisibleMarkers();
     }
 
-    void addMarkers(List<Object> markersToAdd) {
-        if (markersToAdd != null) {
-            for (Object markerToAdd : markersToAdd) {
-                addMarker(markerToAdd);
-            }
+    void configureClusters(Object clusterOptions) {
+        clusterer = Convert.toMarkerClusterer(clusterOptions);
+        clusteredMarkers = null;
+        clustersDirty = true;
+        resetVisibleMarkers();
+    }
+
+    /**
+     * Enables or disables viewport culling. While enabled only markers within the visible bounds,
+     * grown by {@code margin} screens on every side, are realized as POIs.
+     */
+    void setCulling(boolean enabled, float margin) {
+        cullingEnabled = enabled;
+        cullingMargin = Math.max(margin, 0);
+        resetVisibleMarkers();
+    }
+
+    /**
+     * Re-evaluates which clusters and markers are visible. Called once queued marker updates are
+     * applied and whenever the camera settles; rebuilds the cluster index only if the marker set
+     * changed.
+     */
+    void refreshVisibleMarkers() {
+        if (kakaoMap == null) {
+            return;
+        }
+        if (clusterer != null) {
+            refreshClusters();
+        } else if (cullingEnabled) {
+            cullMarkers();
         }
     }
 
-    void changeMarkers(List<Object> markersToChange) {
-        if (markersToChange != null) {
-            for (Object markerToChange : markersToChange) {
-                changeMarker(markerToChange);
-            }
+    /**
+     * Realizes culled markers that came into view and removes those that left it, without
+     * touching clusters. Cheap enough to run on every frame; clusters catch up on the next
+     * {@link #refreshVisibleMarkers}.
+     */
+    void refreshCulledMarkers() {
+        if (kakaoMap != null && clusterer == null && cullingEnabled) {
+            cullMarkers();
         }
     }
 
-    void removeMarkers(List<Object> markerIdsToRemove) {
-        if (markerIdsToRemove == null) {
+    private boolean realizesAllMarkers() {
+        return clusterer == null && !cullingEnabled;
+    }
+
+    private void resetVisibleMarkers() {
+        removeClusterItems();
+        shownLevel = null;
+        realizedMarkers.clear();
+        if (kakaoMap == null) {
             return;
         }
-        for (Object rawMarkerId : markerIdsToRemove) {
-            if (rawMarkerId == null) {
+        final boolean realizeAll = realizesAllMarkers();
+        for (MarkerController markerController : slotToController) {
+            if (markerController == null) {
                 continue;
             }
-            String markerId = (String) rawMarkerId;
-            final MarkerController markerController = markerIdToController.remove(markerId);
-            if (markerController != null) {
+            if (realizeAll) {
+                markerController.addTo(kakaoMap);
+            } else {
                 markerController.remove(kakaoMap);
-                kakaoMapsMarkerIdToDartMarkerId.remove(markerController.getKakaoMapsMarkerId());
             }
         }
+        refreshVisibleMarkers();
+    }
+
+    private void cullMarkers() {
+        computeVisibleBounds(cullingMargin);
+        visibleItems.clear();
+        spatialIndex.query(visibleBounds[0], visibleBounds[1], visibleBounds[2], visibleBounds[3], visibleItems);
+        generation++;
+        for (int i = 0; i < visibleItems.size(); i++) {
+            realizeMarker(slotToController[visibleItems.get(i)]);
+        }
+        removeUnrealizedMarkers();
+    }
+
+    private void refreshClusters() {
+        if (clustersDirty) {
+            loadClusters();
+        }
+
+        final MarkerClusterer.Level level = clusterer.level(kakaoMap.getZoomLevel());
+        if (level != shownLevel) {
+            removeClusterItems();
+            shownLevel = level;
+        }
+
+        // Keep half a screen of margin so short pans don't pop markers in at the edges.
+        computeVisibleBounds(DEFAULT_CULLING_MARGIN);
+        visibleItems.clear();
+        clusterer.getClusters(
+                level, visibleBounds[0], visibleBounds[1], visibleBounds[2], visibleBounds[3], visibleItems);
+
+        generation++;
+        final Map<Integer, MapPoi> nextClusterItems = new HashMap<>();
+        for (int i = 0; i < visibleItems.size(); i++) {
+            final int item = visibleItems.get(i);
+            if (level.isCluster(item)) {
+                MapPoi clusterItem = clusterItems.remove(item);
+                if (clusterItem == null) {
+                    clusterItem = buildClusterItem(level, item);
+                    kakaoMap.addPoi(clusterItem);
+                }
+                nextClusterItems.put(item, clusterItem);
+            } else {
+                realizeMarker(clusteredMarkers[level.leaf(item)]);
+            }
+        }
+        removeClusterItems();
+        clusterItems = nextClusterItems;
+        removeUnrealizedMarkers();
+    }
+
+    /** Fills visibleBounds with (minLatitude, minLongitude, maxLatitude, maxLongitude) plus margin. */
+    private void computeVisibleBounds(float margin) {
+        kakaoMap.getVisibleBounds(visibleBounds);
+        final double latitudeMargin = (visibleBounds[2] - visibleBounds[0]) * margin;
+        final double longitudeMargin = (visibleBounds[3] - visibleBounds[1]) * margin;
+        visibleBounds[0] -= latitudeMargin;
+        visibleBounds[1] -= longitudeMargin;
+        visibleBounds[2] += latitudeMargin;
+        visibleBounds[3] += longitudeMargin;
+    }
+
+    /**
+     * Moves the markers in {@code markerIds}, or in {@code markerHandles} if that is not null, to
+     * the matching lat/lng pairs of {@code positions}, bypassing option interpretation. Unknown
+     * markers are skipped. Returns the number of markers moved.
+     */
+    int updatePositions(List<?> markerIds, int[] markerHandles, double[] positions) {
+        final Tracer tracer = Tracers.get();
+        tracer.beginSection(Tracers.UPDATE_MARKER_POSITIONS);
+        try {
+            final int count = markerCount(markerIds, markerHandles);
+            if (positions.length < 2 * count) {
+                throw new IllegalArgumentException("Expected " + 2 * count + " coordinates, got " + positions.length);
+            }
+            int updated = 0;
+            for (int i = 0; i < count; i++) {
+                final MarkerController markerController = marker(markerIds, markerHandles, i);
+                if (markerController == null) {
+                    continue;
+                }
+                final double latitude = positions[2 * i];
+                final double longitude = positions[2 * i + 1];
+                if (latitude == markerController.getLatitude() && longitude == markerController.getLongitude()) {
+                    continue;
+                }
+                animator.cancel(markerController);
+                markerController.setPosition(latitude, longitude);
+                spatialIndex.move(markerController.slot, latitude, longitude);
+                updated++;
+            }
+            if (updated > 0) {
+                clustersDirty = true;
+                refreshVisibleMarkers();
+            }
+            return updated;
+        } finally {
+            tracer.endSection();
+        }
+    }
+
+    /**
+     * Animates the markers in {@code markerIds}, or in {@code markerHandles} if that is not null,
+     * towards the matching lat/lng pairs of {@code positions} and, when {@code rotations} is not
+     * null, towards its rotations. Unknown markers are skipped.
+     */
+    void animateMarkers(
+            List<?> markerIds, int[] markerHandles, double[] positions, double[] rotations, long durationMillis, int easing) {
+        final int count = markerCount(markerIds, markerHandles);
+        if (positions.length < 2 * count || (rotations != null && rotations.length < count)) {
+            throw new IllegalArgumentException("Expected a position and rotation for each of " + count + " markers");
+        }
+        for (int i = 0; i < count; i++) {
+            final MarkerController markerController = marker(markerIds, markerHandles, i);
+            if (markerController != null) {
+                animator.animate(
+                        markerController,
+                        positions[2 * i],
+                        positions[2 * i + 1],
+                        rotations != null ? (float) rotations[i] : Float.NaN,
+                        durationMillis,
+                        easing);
+            }
+        }
+    }
+
+    void cancelAnimations() {
+        animator.cancelAll();
+    }
+
+    private static int markerCount(List<?> markerIds, int[] markerHandles) {
+        if (markerHandles != null) {
+            return markerHandles.length;
+        }
+        return markerIds != null ? markerIds.size() : 0;
+    }
+
+    private MarkerController marker(List<?> markerIds, int[] markerHandles, int index) {
+        if (markerHandles != null) {
+            return markerForHandle(markerHandles[index]);
+        }
+        return markerIdToController.get(markerIds.get(index));
+    }
+
+    /** Returns the handle of the marker with the given id, or null if there is none. */
+    Integer getMarkerHandle(String markerId) {
+        final MarkerController markerController = markerIdToController.get(markerId);
+        return markerController != null ? markerController.slot : null;
+    }
+
+    private MarkerController markerForHandle(int handle) {
+        return handle >= 0 && handle < slotToController.length ? slotToController[handle] : null;
+    }
+
+    @Override
+    public void onAnimatedPosition(MarkerController markerController, double latitude, double longitude) {
+        markerController.setPosition(latitude, longitude);
+        spatialIndex.move(markerController.slot, latitude, longitude);
+        clustersDirty = true;
+    }
+
+    // New animateTo calls keep arriving with live GPS fixes, so animations may never all finish.
+    // Culling follows every frame; clusters, which cost a full rebuild, are throttled.
+    @Override
+    public void onAnimationFrame(long frameTimeNanos) {
+        if (clusterer == null) {
+            refreshCulledMarkers();
+        } else if (frameTimeNanos - lastAnimatedClusterNanos >= ANIMATED_CLUSTER_INTERVAL_NANOS) {
+            lastAnimatedClusterNanos = frameTimeNanos;
+            refreshVisibleMarkers();
+        }
+    }
+
+    @Override
+    public void onAnimationsFinished() {
+        refreshVisibleMarkers();
+    }
+
+    /**
+     * Returns the ids, or in handle mode an int[] of the handles, of all markers inside
+     * {@code bounds}, whether or not they are realized.
+     */
+    Object queryInBounds(double[] bounds) {
+        visibleItems.clear();
+        spatialIndex.query(bounds[0], bounds[1], bounds[2], bounds[3], visibleItems);
+        return slotsToJson(visibleItems);
+    }
+
+    /**
+     * Returns the ids, or in handle mode an int[] of the handles, of the {@code count} markers
+     * nearest to the given position, nearest first.
+     */
+    Object nearest(double latitude, double longitude, int count) {
+        visibleItems.clear();
+        spatialIndex.nearest(latitude, longitude, count, visibleItems);
+        return slotsToJson(visibleItems);
+    }
+
+    private Object slotsToJson(IntArrayList slots) {
+        if (handles) {
+            return slots.toArray();
+        }
+        final List<String> markerIds = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            markerIds.add(slotToController[slots.get(i)].getMarkerId());
+        }
+        return markerIds;
+    }
+
+    boolean onClusterTap(Object userObject) {
+        if (!(userObject instanceof MarkerClusterer.Cluster)) {
+            return false;
+        }
+        final MarkerClusterer.Cluster cluster = (MarkerClusterer.Cluster) userObject;
+        final MarkerClusterer.Level level = cluster.level;
+        if (level != shownLevel) {
+            return true;
+        }
+        final int start = level.leafStart[cluster.item];
+        final int count = level.numPoints[cluster.item];
+        final Map<String, Object> data = new HashMap<>(4);
+        final List<String> markerIds = new ArrayList<>(count);
+        for (int i = start; i < start + count; i++) {
+            markerIds.add(clusteredMarkers[level.leaves[i]].getMarkerId());
+        }
+        data.put("markerIds", markerIds);
+        if (handles) {
+            final int[] markerHandles = new int[count];
+            for (int i = 0; i < count; i++) {
+                markerHandles[i] = clusteredMarkers[level.leaves[start + i]].slot;
+            }
+            data.put("markerHandles", markerHandles);
+        }
+        data.put("position", Arrays.asList(level.latitude(cluster.item), level.longitude(cluster.item)));
+        data.put("zoomLevel", level.zoomLevel);
+        methodChannel.invokeMethod("cluster#onTap", data);
+        return true;
+    }
+
+    /**
+     * Applies the operations of {@code update} starting at {@code from}, in the order adds,
+     * changes, removes, until all are applied or {@code deadlineNanos} (a {@link System#nanoTime}
+     * value) has passed. Returns the index of the first operation not yet applied. Must run on the
+     * main thread. In handle mode the handles of added markers go to {@code update.addedHandles}.
+     */
+    int applyUpdate(MarkerUpdate update, int from, long deadlineNanos) {
+        final Tracer tracer = Tracers.get();
+        tracer.beginSection(Tracers.APPLY_MARKER_UPDATE);
+        try {
+            final int adds = update.idsToAdd.size();
+            final int changes = update.changeCount();
+            final int idRemoves = update.idsToRemove.size();
+            final int size = update.size();
+            int i = from;
+            while (i < size) {
+                if (i < adds) {
+                    final int handle = addMarker(update.idsToAdd.get(i), update.markersToAdd.get(i));
+                    if (update.addedHandles != null) {
+                        update.addedHandles[i] = handle;
+                    }
+                } else if (i < adds + changes) {
+                    final MarkerController markerController = update.handles
+                            ? markerForHandle(update.handlesToChange.get(i - adds))
+                            : markerIdToController.get(update.idsToChange.get(i - adds));
+                    changeMarker(markerController, update.markersToChange.get(i - adds));
+                } else if (i < adds + changes + idRemoves) {
+                    removeMarker(markerIdToController.get(update.idsToRemove.get(i - adds - changes)));
+                } else {
+                    removeMarker(markerForHandle(update.handlesToRemove.get(i - adds - changes - idRemoves)));
+                }
+                i++;
+                // Checking the clock is not free; a handful of markers always fits in the budget.
+                if ((i & 15) == 0 && System.nanoTime() >= deadlineNanos) {
+                    break;
+                }
+            }
+            return i;
+        } finally {
+            tracer.endSection();
+        }
     }
 
     void showMarkerInfoWindow(String markerId, MethodChannel.Result result) {
@@ -95,70 +460,161 @@ class MarkersController {
         }
     }
 
-    boolean onMarkerTap(String kakaoMarkerId) {
-        String markerId = kakaoMapsMarkerIdToDartMarkerId.get(kakaoMarkerId);
-        if (markerId == null) {
+    /** Handles a tap on a POI with the given user object. */
+    boolean onMarkerTap(Object userObject) {
+        final MarkerController markerController = markerForUserObject(userObject);
+        if (markerController == null) {
             return false;
         }
-        methodChannel.invokeMethod("marker#onTap", Convert.markerIdToJson(markerId));
-        MarkerController markerController = markerIdToController.get(markerId);
-        if (markerController != null) {
-            return markerController.consumeTapEvents();
-        }
-        return false;
+        methodChannel.invokeMethod("marker#onTap", markerToJson(markerController));
+        return markerController.consumeTapEvents();
     }
 
-    void onMarkerDragEnd(String kakaoMarkerId, MapPoint latLng) {
-        String markerId = kakaoMapsMarkerIdToDartMarkerId.get(kakaoMarkerId);
-        if (markerId == null) {
+    void onMarkerDragEnd(Object userObject, double latitude, double longitude) {
+        final MarkerController markerController = markerForUserObject(userObject);
+        if (markerController == null) {
             return;
         }
         final Map<String, Object> data = new HashMap<>();
-        data.put("markerId", markerId);
-        data.put("position", Convert.mapPointToJson(latLng));
+        data.put("markerId", markerController.getMarkerId());
+        if (handles) {
+            data.put("markerHandle", markerController.slot);
+        }
+        data.put("position", Arrays.asList(latitude, longitude));
         methodChannel.invokeMethod("marker#onDragEnd", data);
     }
 
-    void onInfoWindowTap(String kakaoMarkerId) {
-        String markerId = kakaoMapsMarkerIdToDartMarkerId.get(kakaoMarkerId);
-        if (markerId == null) {
+    void onInfoWindowTap(Object userObject) {
+        final MarkerController markerController = markerForUserObject(userObject);
+        if (markerController == null) {
             return;
         }
-        methodChannel.invokeMethod("infoWindow#onTap", Convert.markerIdToJson(markerId));
+        methodChannel.invokeMethod("infoWindow#onTap", markerToJson(markerController));
     }
 
-    private void addMarker(Object marker) {
-        if (marker == null) {
-            return;
-        }
-        MarkerBuilder markerBuilder = new MarkerBuilder();
-        String markerId = Convert.interpretMarkerOptions(marker, markerBuilder);
-        MapPOIItem mapPOIItem = markerBuilder.build();
-        mapPOIItem.setUserObject(markerId);
-        addMarker(markerId, mapPOIItem, markerBuilder.consumeTapEvents());
+    private MarkerController markerForUserObject(Object userObject) {
+        return userObject instanceof Integer ? markerForHandle((Integer) userObject) : null;
     }
 
-    private void addMarker(String markerId, MapPOIItem mapPOIItem, boolean consumeTapEvents) {
-        kakaoMap.addPOIItem(mapPOIItem);
-        MarkerController controller = new MarkerController(mapPOIItem, consumeTapEvents);
-        markerIdToController.put(markerId, controller);
-        kakaoMapsMarkerIdToDartMarkerId.put(mapPOIItem.getUserObject().toString(), markerId);
+    private Object markerToJson(MarkerController markerController) {
+        return handles
+                ? Convert.markerHandleToJson(markerController.getMarkerId(), markerController.slot)
+                : Convert.markerIdToJson(markerController.getMarkerId());
     }
 
-    private void changeMarker(Object marker) {
-        if (marker == null) {
-            return;
+    /** Adds a marker and returns its handle. */
+    private int addMarker(String markerId, MarkerBuilder markerBuilder) {
+        if (!handles) {
+            // Adding an id again replaces its marker rather than orphaning the old POI.
+            removeMarker(markerIdToController.get(markerId));
         }
-        String markerId = getMarkerId(marker);
-        MarkerController markerController = markerIdToController.get(markerId);
+        MarkerController controller = new MarkerController(markerId, markerBuilder);
+        controller.slot = spatialIndex.add(controller.getLatitude(), controller.getLongitude());
+        if (controller.slot >= slotToController.length) {
+            slotToController = Arrays.copyOf(slotToController, Math.max(controller.slot + 1, slotToController.length * 2));
+        }
+        slotToController[controller.slot] = controller;
+        markerBuilder.build().setUserObject(controller.slot);
+        if (kakaoMap != null && realizesAllMarkers()) {
+            controller.addTo(kakaoMap);
+        }
+        clustersDirty = true;
+        if (!handles) {
+            markerIdToController.put(markerId, controller);
+        }
+        return controller.slot;
+    }
+
+    private void changeMarker(MarkerController markerController, MarkerOptionsRecorder options) {
+        if (markerController != null) {
+            final double latitude = markerController.getLatitude();
+            final double longitude = markerController.getLongitude();
+            options.applyTo(markerController);
+            onMarkerChanged(markerController, latitude, longitude);
+        }
+    }
+
+    private void removeMarker(MarkerController markerController) {
         if (markerController != null) {
-            Convert.interpretMarkerOptions(marker, markerController);
+            if (!handles) {
+                markerIdToController.remove(markerController.getMarkerId());
+            }
+            animator.cancel(markerController);
+            markerController.remove(kakaoMap);
+            spatialIndex.remove(markerController.slot);
+            slotToController[markerController.slot] = null;
+            clustersDirty = true;
+        }
+    }
+
+    private void onMarkerChanged(MarkerController markerController, double oldLatitude, double oldLongitude) {
+        if (markerController.getLatitude() != oldLatitude || markerController.getLongitude() != oldLongitude) {
+            animator.cancel(markerController);
+            spatialIndex.move(markerController.slot, markerController.getLatitude(), markerController.getLongitude());
+            clustersDirty = true;
+        }
+    }
+
+    private void loadClusters() {
+        removeClusterItems();
+        shownLevel = null;
+        final int count = getMarkerCount();
+        clusteredMarkers = new MarkerController[count];
+        final double[] latitudes = new double[count];
+        final double[] longitudes = new double[count];
+        int i = 0;
+        for (MarkerController markerController : slotToController) {
+            if (markerController != null) {
+                clusteredMarkers[i] = markerController;
+                latitudes[i] = markerController.getLatitude();
+                longitudes[i] = markerController.getLongitude();
+                i++;
+            }
+        }
+        clusterer.load(latitudes, longitudes, count);
+        clustersDirty = false;
+    }
+
+    private MapPoi buildClusterItem(MarkerClusterer.Level level, int item) {
+        final MapPoi clusterItem = kakaoMap.newPoi();
+        clusterItem.setItemName(String.valueOf(level.numPoints[item]));
+        clusterItem.setPosition(level.latitude(item), level.longitude(item));
+        clusterItem.setMarkerType(MapPoi.MARKER_TYPE_YELLOW_PIN);
+        clusterItem.setShowCalloutBalloonOnTouch(false);
+        clusterItem.setUserObject(new MarkerClusterer.Cluster(level, item));
+        return clusterItem;
+    }
+
+    private void removeClusterItems() {
+        if (kakaoMap != null) {
+            for (MapPoi clusterItem : clusterItems.values()) {
+                kakaoMap.removePoi(clusterItem);
+            }
+        }
+        clusterItems.clear();
+    }
+
+    private void realizeMarker(MarkerController markerController) {
+        if (!markerController.isAdded()) {
+            markerController.addTo(kakaoMap);
+            realizedMarkers.add(markerController);
         }
+        markerController.realizedGeneration = generation;
     }
 
-    @SuppressWarnings("unchecked")
-    private static String getMarkerId(Object marker) {
-        Map<String, Object> markerMap = (Map<String, Object>) marker;
-        return (String) markerMap.get("markerId");
+    private void removeUnrealizedMarkers() {
+        int kept = 0;
+        for (int i = 0; i < realizedMarkers.size(); i++) {
+            final MarkerController markerController = realizedMarkers.get(i);
+            if (!markerController.isAdded()) {
+                continue;
+            }
+            if (markerController.realizedGeneration != generation) {
+                markerController.remove(kakaoMap);
+                continue;
+            }
+            realizedMarkers.set(kept++, markerController);
+        }
+        realizedMarkers.subList(kept, realizedMarkers.size()).clear();
     }
 }
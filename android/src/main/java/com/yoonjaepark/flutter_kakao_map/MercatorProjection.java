@@ -0,0 +1,63 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+/**
+ * Web Mercator helpers shared by the native marker layers.
+ *
+ * <p>Coordinates are normalized to [0, 1] on both axes, with y growing southwards. Kakao zoom
+ * levels grow as the map zooms out, so they are mapped onto conventional tile zooms with
+ * {@link #worldZoom(int)}.
+ */
+final class MercatorProjection {
+    static final int MIN_ZOOM_LEVEL = -2;
+    static final int MAX_ZOOM_LEVEL = 14;
+    static final double TILE_SIZE = 256;
+
+    // Kakao level 1 is roughly a web mercator zoom of 19.
+    private static final int ZOOM_LEVEL_OFFSET = 20;
+    private static final double MAX_LATITUDE = 85.0511287798;
+    private static final double EARTH_CIRCUMFERENCE = 40075016.686;
+
+    private MercatorProjection() {}
+
+    static double x(double longitude) {
+        return longitude / 360 + 0.5;
+    }
+
+    static double y(double latitude) {
+        final double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        final double sin = Math.sin(Math.toRadians(clamped));
+        final double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+        return y < 0 ? 0 : y > 1 ? 1 : y;
+    }
+
+    static double longitude(double x) {
+        return (x - 0.5) * 360;
+    }
+
+    static double latitude(double y) {
+        final double y2 = (180 - y * 360) * Math.PI / 180;
+        return 360 * Math.atan(Math.exp(y2)) / Math.PI - 90;
+    }
+
+    static int clampZoomLevel(int zoomLevel) {
+        return Math.max(MIN_ZOOM_LEVEL, Math.min(MAX_ZOOM_LEVEL, zoomLevel));
+    }
+
+    static double worldZoom(int zoomLevel) {
+        return ZOOM_LEVEL_OFFSET - zoomLevel;
+    }
+
+    /** Size of one (density independent) screen pixel in normalized units at {@code zoomLevel}. */
+    static double pixelSize(int zoomLevel) {
+        return 1 / (TILE_SIZE * Math.pow(2, worldZoom(zoomLevel)));
+    }
+
+    /** Ground distance covered by one screen pixel at {@code latitude} and {@code zoomLevel}. */
+    static double metersPerPixel(double latitude, int zoomLevel) {
+        return EARTH_CIRCUMFERENCE * Math.cos(Math.toRadians(latitude)) * pixelSize(zoomLevel);
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per method counts, payload sizes and latency histograms of one map's channel traffic.
+ *
+ * <p>Latencies fall into {@link #BUCKET_COUNT} power of two buckets: bucket 0 counts calls under
+ * 1 us and bucket {@code i} calls in [2^(i-1), 2^i) us, the last one being open ended. Recording a
+ * method that has been seen before only touches one {@link AtomicLongArray}, so it neither locks
+ * nor allocates.
+ */
+final class MethodChannelStats {
+    static final int BUCKET_COUNT = 26;
+
+    private static final int COUNT = 0;
+    private static final int TOTAL_NANOS = 1;
+    private static final int MAX_NANOS = 2;
+    private static final int TOTAL_BYTES = 3;
+    private static final int FIRST_BUCKET = 4;
+
+    // Method calls from Dart, timed from dispatch until the handler returns.
+    private final ConcurrentHashMap<String, AtomicLongArray> calls = new ConcurrentHashMap<>();
+    // Events sent to Dart, timed over encoding and sending.
+    private final ConcurrentHashMap<String, AtomicLongArray> events = new ConcurrentHashMap<>();
+
+    void recordCall(String method, long nanos, int bytes) {
+        record(calls, method, nanos, bytes);
+    }
+
+    void recordEvent(String method, long nanos, int bytes) {
+        record(events, method, nanos, bytes);
+    }
+
+    /** Zeroes every counter, keeping the per method entries. */
+    void reset() {
+        reset(calls);
+        reset(events);
+    }
+
+    Map<String, Object> toJson() {
+        final Map<String, Object> json = new HashMap<>(2);
+        json.put("calls", toJson(calls));
+        json.put("events", toJson(events));
+        return json;
+    }
+
+    private static void record(ConcurrentHashMap<String, AtomicLongArray> stats, String method, long nanos, int bytes) {
+        AtomicLongArray values = stats.get(method);
+        if (values == null) {
+            stats.putIfAbsent(method, new AtomicLongArray(FIRST_BUCKET + BUCKET_COUNT));
+            values = stats.get(method);
+        }
+        values.incrementAndGet(COUNT);
+        values.addAndGet(TOTAL_NANOS, nanos);
+        values.addAndGet(TOTAL_BYTES, bytes);
+        values.incrementAndGet(FIRST_BUCKET + bucket(nanos));
+        long max = values.get(MAX_NANOS);
+        while (nanos > max && !values.compareAndSet(MAX_NANOS, max, nanos)) {
+            max = values.get(MAX_NANOS);
+        }
+    }
+
+    static int bucket(long nanos) {
+        final long micros = nanos / 1000;
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static void reset(ConcurrentHashMap<String, AtomicLongArray> stats) {
+        for (AtomicLongArray values : stats.values()) {
+            for (int i = 0; i < values.length(); i++) {
+                values.set(i, 0);
+            }
+        }
+    }
+
+    private static Map<String, Object> toJson(ConcurrentHashMap<String, AtomicLongArray> stats) {
+        final Map<String, Object> json = new HashMap<>(stats.size());
+        for (Map.Entry<String, AtomicLongArray> entry : stats.entrySet()) {
+            final AtomicLongArray values = entry.getValue();
+            final long[] histogram = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                histogram[i] = values.get(FIRST_BUCKET + i);
+            }
+            final Map<String, Object> method = new HashMap<>(8);
+            method.put("count", values.get(COUNT));
+            method.put("totalNanos", values.get(TOTAL_NANOS));
+            method.put("maxNanos", values.get(MAX_NANOS));
+            method.put("totalBytes", values.get(TOTAL_BYTES));
+            method.put("histogram", histogram);
+            method.put("p50Micros", percentileMicros(histogram, 0.5));
+            method.put("p90Micros", percentileMicros(histogram, 0.9));
+            method.put("p99Micros", percentileMicros(histogram, 0.99));
+            json.put(entry.getKey(), method);
+        }
+        return json;
+    }
+
+    // Upper bound of the bucket holding the given percentile, or -1 without samples.
+    private static long percentileMicros(long[] histogram, double percentile) {
+        long count = 0;
+        for (long value : histogram) {
+            count += value;
+        }
+        if (count == 0) {
+            return -1;
+        }
+        final long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (histogram.length - 1);
+    }
+}
@@ -0,0 +1,197 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Holds marker, camera and option operations that arrive before the map is authenticated, and
+ * replays them in one pass once it is.
+ *
+ * <p>Operations are collapsed while they wait: markers are kept as one builder per id with later
+ * changes and moves applied to it, so adding and then removing a marker leaves nothing to do; the
+ * latest camera update wins; option updates are merged key by key. The {@code markers#update}
+ * calls that were held complete together once the collapsed markers are on the map. Updates in
+ * handle mode are held as they are and complete one by one, each with its own handles.
+ */
+final class PendingMapOperations implements MarkerUpdateQueue.Consumer {
+    private final MarkerBatchApplier applier;
+    private final Map<String, MarkerBuilder> markers = new LinkedHashMap<>();
+    private final List<MethodChannel.Result> markerResults = new ArrayList<>();
+    private final List<MarkerUpdate> handleUpdates = new ArrayList<>();
+    private final List<MethodChannel.Result> handleResults = new ArrayList<>();
+    private final Map<Object, Object> options = new HashMap<>();
+    private Object cameraUpdate;
+    private boolean cameraAnimated;
+    // Whether any held update without handles asked for markers#onBatchApplied.
+    private boolean reportMarkerProgress;
+    private boolean ready;
+
+    PendingMapOperations(MarkerBatchApplier applier) {
+        this.applier = applier;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    boolean hasMarkerUpdates() {
+        return !markers.isEmpty() || !markerResults.isEmpty() || !handleUpdates.isEmpty();
+    }
+
+    /** Applies {@code update} now if the map is ready, or folds it into the pending markers. */
+    @Override
+    public void enqueue(MarkerUpdate update, MethodChannel.Result result) {
+        if (ready) {
+            applier.enqueue(update, result);
+            return;
+        }
+        if (update.handles) {
+            // Handles are only handed out on the map, so these can only add markers.
+            handleUpdates.add(update);
+            handleResults.add(result);
+            return;
+        }
+        reportMarkerProgress |= update.reportProgress;
+        for (int i = 0; i < update.idsToAdd.size(); i++) {
+            markers.put(update.idsToAdd.get(i), update.markersToAdd.get(i));
+        }
+        for (int i = 0; i < update.idsToChange.size(); i++) {
+            final MarkerBuilder marker = markers.get(update.idsToChange.get(i));
+            if (marker != null) {
+                update.markersToChange.get(i).applyTo(marker);
+            }
+        }
+        for (String markerId : update.idsToRemove) {
+            markers.remove(markerId);
+        }
+        if (result != null) {
+            markerResults.add(result);
+        }
+    }
+
+    /** Runs {@code action} right away while the map is not ready, as held updates are folded in. */
+    @Override
+    public void runAfterUpdates(String method, Runnable action, MethodChannel.Result result) {
+        if (ready) {
+            applier.runAfterUpdates(method, action, result);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Moves pending markers to the matching lat/lng pairs of {@code positions}, and rotates them
+     * if {@code rotations} is not null. Returns the number of markers moved.
+     */
+    int updatePositions(List<?> markerIds, double[] positions, double[] rotations) {
+        if (positions.length < 2 * markerIds.size()) {
+            throw new IllegalArgumentException("Expected " + 2 * markerIds.size() + " coordinates, got " + positions.length);
+        }
+        int updated = 0;
+        for (int i = 0; i < markerIds.size(); i++) {
+            final MarkerBuilder marker = markers.get(markerIds.get(i));
+            if (marker == null) {
+                continue;
+            }
+            marker.setPosition(positions[2 * i], positions[2 * i + 1]);
+            if (rotations != null && i < rotations.length) {
+                marker.setRotation((float) rotations[i]);
+            }
+            updated++;
+        }
+        return updated;
+    }
+
+    /** Holds a camera update as Dart sent it, see {@link Convert#interpretCameraUpdate}. */
+    void moveCamera(Object cameraUpdate, boolean animated) {
+        this.cameraUpdate = cameraUpdate;
+        cameraAnimated = animated;
+    }
+
+    void updateOptions(Object options) {
+        if (options instanceof Map) {
+            this.options.putAll((Map<?, ?>) options);
+        }
+    }
+
+    /** Replays everything held so far. Later operations are applied directly. */
+    void onMapReady(MapBackend map, float density, KakaoMapOptionsSink optionsSink) {
+        ready = true;
+        if (!options.isEmpty()) {
+            Convert.interpretKakaoMapOptions(options, optionsSink);
+            options.clear();
+        }
+        if (cameraUpdate != null) {
+            Convert.interpretCameraUpdate(cameraUpdate, density, cameraAnimated, map);
+            cameraUpdate = null;
+        }
+        for (int i = 0; i < handleUpdates.size(); i++) {
+            applier.enqueue(handleUpdates.get(i), handleResults.get(i));
+        }
+        handleUpdates.clear();
+        handleResults.clear();
+        if (markers.isEmpty() && markerResults.isEmpty()) {
+            return;
+        }
+        final MarkerUpdate update = new MarkerUpdate();
+        update.reportProgress = reportMarkerProgress;
+        reportMarkerProgress = false;
+        for (Map.Entry<String, MarkerBuilder> marker : markers.entrySet()) {
+            update.idsToAdd.add(marker.getKey());
+            update.markersToAdd.add(marker.getValue());
+        }
+        markers.clear();
+        final List<MethodChannel.Result> results = new ArrayList<>(markerResults);
+        markerResults.clear();
+        applier.enqueue(update, new MethodChannel.Result() {
+            @Override
+            public void success(Object batchId) {
+                for (MethodChannel.Result result : results) {
+                    result.success(batchId);
+                }
+            }
+
+            @Override
+            public void error(String errorCode, String errorMessage, Object errorDetails) {
+                for (MethodChannel.Result result : results) {
+                    result.error(errorCode, errorMessage, errorDetails);
+                }
+            }
+
+            @Override
+            public void notImplemented() {
+                for (MethodChannel.Result result : results) {
+                    result.notImplemented();
+                }
+            }
+        });
+    }
+
+    /** Drops everything held. Held {@code markers#update} calls complete with an error. */
+    void clear() {
+        for (MethodChannel.Result result : markerResults) {
+            result.error("markers#update", "Map disposed before it was ready", null);
+        }
+        for (MethodChannel.Result result : handleResults) {
+            if (result != null) {
+                result.error("markers#update", "Map disposed before it was ready", null);
+            }
+        }
+        markers.clear();
+        markerResults.clear();
+        handleUpdates.clear();
+        handleResults.clear();
+        options.clear();
+        cameraUpdate = null;
+        reportMarkerProgress = false;
+    }
+}
@@ -0,0 +1,70 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.util.Log;
+
+/**
+ * Process wide options read from {@code <meta-data>} entries of the application manifest, next
+ * to {@code com.kakao.sdk.AppKey}:
+ *
+ * <pre>{@code
+ * <meta-data
+ *     android:name="com.yoonjaepark.flutter_kakao_map.MapViewPoolSize"
+ *     android:value="2"/>
+ * }</pre>
+ */
+final class PluginSettings {
+    private static final String TAG = "KakaoMapSettings";
+    private static final String PREFIX = "com.yoonjaepark.flutter_kakao_map.";
+
+    /** Number of map views of disposed maps kept for reuse. 0 disables pooling. */
+    final int mapViewPoolSize;
+    /** How long an idle pooled map view is kept before it is destroyed. */
+    final int mapViewPoolIdleTimeoutMillis;
+    /** Whether to load the map engine in the background as soon as the plugin attaches. */
+    final boolean warmUpMapEngine;
+    /** Whether to emit {@code android.os.Trace} sections, see {@link Tracers}. */
+    final boolean enableTracing;
+    /** Whether every map records its channel traffic from the start, see {@link ChannelRecorder}. */
+    final boolean recordChannelTraffic;
+
+    private static PluginSettings instance;
+
+    private PluginSettings(Bundle metaData) {
+        mapViewPoolSize = Math.max(0, getInt(metaData, "MapViewPoolSize", 0));
+        mapViewPoolIdleTimeoutMillis = Math.max(0, getInt(metaData, "MapViewPoolIdleTimeoutMillis", 60000));
+        warmUpMapEngine = getBoolean(metaData, "WarmUpMapEngine", false);
+        enableTracing = getBoolean(metaData, "EnableTracing", false);
+        recordChannelTraffic = getBoolean(metaData, "RecordChannelTraffic", false);
+    }
+
+    static synchronized PluginSettings getInstance(Context context) {
+        if (instance == null) {
+            Bundle metaData = null;
+            try {
+                final ApplicationInfo info = context.getPackageManager()
+                        .getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
+                metaData = info.metaData;
+            } catch (PackageManager.NameNotFoundException e) {
+                Log.w(TAG, "Could not read the application meta-data", e);
+            }
+            instance = new PluginSettings(metaData);
+        }
+        return instance;
+    }
+
+    private static int getInt(Bundle metaData, String name, int defaultValue) {
+        return metaData != null ? metaData.getInt(PREFIX + name, defaultValue) : defaultValue;
+    }
+
+    private static boolean getBoolean(Bundle metaData, String name, boolean defaultValue) {
+        return metaData != null ? metaData.getBoolean(PREFIX + name, defaultValue) : defaultValue;
+    }
+}
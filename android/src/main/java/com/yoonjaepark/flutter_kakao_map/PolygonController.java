@@ -0,0 +1,163 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import net.daum.mf.map.api.MapPoint;
+import net.daum.mf.map.api.MapPolyline;
+import net.daum.mf.map.api.MapView;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Controller of a single Polygon on the map.
+ *
+ * <p>The map SDK has no filled shapes, so every ring is drawn as a closed {@link MapPolyline}.
+ * Hit testing uses the even-odd rule over all rings, which leaves holes out of the polygon.
+ */
+class PolygonController implements PolygonOptionsSink {
+    private final String polygonId;
+    private final int kakaoMapsTag;
+    // Insertion order, breaks zIndex ties between overlapping polygons.
+    final int order;
+    private boolean consumeTapEvents;
+    private int strokeColor = 0xff000000;
+    private boolean visible = true;
+    private int zIndex;
+    private double[] points = new double[0];
+    private List<double[]> holes = Collections.emptyList();
+    private MapPolyline[] rings = new MapPolyline[0];
+    private final double[] bounds = new double[4];
+
+    PolygonController(String polygonId, int kakaoMapsTag, int order) {
+        this.polygonId = polygonId;
+        this.kakaoMapsTag = kakaoMapsTag;
+        this.order = order;
+    }
+
+    String getPolygonId() {
+        return polygonId;
+    }
+
+    boolean consumeTapEvents() {
+        return consumeTapEvents;
+    }
+
+    boolean isVisible() {
+        return visible;
+    }
+
+    int getZIndex() {
+        return zIndex;
+    }
+
+    /** Returns {minLatitude, minLongitude, maxLatitude, maxLongitude} of the outer ring. */
+    double[] getBounds() {
+        return bounds;
+    }
+
+    void update(MapView mapView) {
+        remove(mapView);
+        if (!visible || points.length < 6) {
+            return;
+        }
+        rings = new MapPolyline[1 + holes.size()];
+        rings[0] = buildRing(points);
+        for (int i = 0; i < holes.size(); i++) {
+            rings[i + 1] = buildRing(holes.get(i));
+        }
+        for (MapPolyline ring : rings) {
+            mapView.addPolyline(ring);
+        }
+    }
+
+    void remove(MapView mapView) {
+        for (MapPolyline ring : rings) {
+            mapView.removePolyline(ring);
+        }
+        rings = new MapPolyline[0];
+    }
+
+    boolean contains(double latitude, double longitude) {
+        boolean inside = containedBy(points, latitude, longitude);
+        for (int i = 0; i < holes.size(); i++) {
+            if (containedBy(holes.get(i), latitude, longitude)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private MapPolyline buildRing(double[] latLngs) {
+        final int count = latLngs.length / 2;
+        final MapPoint[] mapPoints = new MapPoint[count + 1];
+        for (int i = 0; i < count; i++) {
+            mapPoints[i] = MapPoint.mapPointWithGeoCoord(latLngs[2 * i], latLngs[2 * i + 1]);
+        }
+        mapPoints[count] = mapPoints[0];
+        final MapPolyline ring = new MapPolyline(count + 1);
+        ring.setTag(kakaoMapsTag);
+        ring.setLineColor(strokeColor);
+        ring.addPoints(mapPoints);
+        return ring;
+    }
+
+    // Even-odd crossing test of one ring.
+    private static boolean containedBy(double[] latLngs, double latitude, double longitude) {
+        boolean inside = false;
+        final int count = latLngs.length / 2;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            final double latI = latLngs[2 * i];
+            final double lngI = latLngs[2 * i + 1];
+            final double latJ = latLngs[2 * j];
+            final double lngJ = latLngs[2 * j + 1];
+            if ((latI > latitude) != (latJ > latitude)
+                    && longitude < (lngJ - lngI) * (latitude - latI) / (latJ - latI) + lngI) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    @Override
+    public void setConsumeTapEvents(boolean consumeTapEvents) {
+        this.consumeTapEvents = consumeTapEvents;
+    }
+
+    @Override
+    public void setStrokeColor(int strokeColor) {
+        this.strokeColor = strokeColor;
+    }
+
+    @Override
+    public void setPoints(double[] latLngs) {
+        this.points = latLngs;
+        bounds[0] = Double.POSITIVE_INFINITY;
+        bounds[1] = Double.POSITIVE_INFINITY;
+        bounds[2] = Double.NEGATIVE_INFINITY;
+        bounds[3] = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i + 1 < latLngs.length; i += 2) {
+            bounds[0] = Math.min(bounds[0], latLngs[i]);
+            bounds[1] = Math.min(bounds[1], latLngs[i + 1]);
+            bounds[2] = Math.max(bounds[2], latLngs[i]);
+            bounds[3] = Math.max(bounds[3], latLngs[i + 1]);
+        }
+    }
+
+    @Override
+    public void setHoles(List<double[]> holes) {
+        this.holes = holes;
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    @Override
+    public void setZIndex(int zIndex) {
+        this.zIndex = zIndex;
+    }
+}
@@ -0,0 +1,24 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.List;
+
+/** Receiver of Polygon configuration options. */
+interface PolygonOptionsSink {
+    void setConsumeTapEvents(boolean consumeTapEvents);
+
+    void setStrokeColor(int strokeColor);
+
+    /** Sets the outer ring as packed latitude/longitude pairs. */
+    void setPoints(double[] latLngs);
+
+    /** Sets the holes, each a ring of packed latitude/longitude pairs. */
+    void setHoles(List<double[]> holes);
+
+    void setVisible(boolean visible);
+
+    void setZIndex(int zIndex);
+}
@@ -0,0 +1,152 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import net.daum.mf.map.api.MapView;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodChannel;
+
+class PolygonsController {
+
+    private final Map<String, PolygonController> polygonIdToController = new HashMap<>();
+    private final MethodChannel methodChannel;
+    private MapView kakaoMap;
+    // Polygon rings share the MapPolyline tag space with polylines, so they count downwards.
+    private int nextKakaoMapsTag = -1;
+    private int nextOrder;
+
+    // Bounding box index over the visible polygons, rebuilt on the first tap after a change.
+    private BoundsIndex boundsIndex;
+    private PolygonController[] indexedPolygons;
+    private final IntArrayList candidates = new IntArrayList();
+
+    PolygonsController(MethodChannel methodChannel) {
+        this.methodChannel = methodChannel;
+    }
+
+    void setKakaoMap(MapView kakaoMap) {
+        this.kakaoMap = kakaoMap;
+        for (PolygonController polygonController : polygonIdToController.values()) {
+            polygonController.update(kakaoMap);
+        }
+    }
+
+    void addPolygons(List<Object> polygonsToAdd) {
+        if (polygonsToAdd == null) {
+            return;
+        }
+        for (Object polygonToAdd : polygonsToAdd) {
+            if (polygonToAdd == null) {
+                continue;
+            }
+            final PolygonController polygonController =
+                    new PolygonController(Convert.getPolygonId(polygonToAdd), nextKakaoMapsTag--, nextOrder++);
+            Convert.interpretPolygonOptions(polygonToAdd, polygonController);
+            final PolygonController previous =
+                    polygonIdToController.put(polygonController.getPolygonId(), polygonController);
+            if (kakaoMap != null) {
+                if (previous != null) {
+                    previous.remove(kakaoMap);
+                }
+                polygonController.update(kakaoMap);
+            }
+        }
+        boundsIndex = null;
+    }
+
+    void changePolygons(List<Object> polygonsToChange) {
+        if (polygonsToChange == null) {
+            return;
+        }
+        for (Object polygonToChange : polygonsToChange) {
+            if (polygonToChange == null) {
+                continue;
+            }
+            final PolygonController polygonController =
+                    polygonIdToController.get(Convert.getPolygonId(polygonToChange));
+            if (polygonController == null) {
+                continue;
+            }
+            Convert.interpretPolygonOptions(polygonToChange, polygonController);
+            if (kakaoMap != null) {
+                polygonController.update(kakaoMap);
+            }
+        }
+        boundsIndex = null;
+    }
+
+    void removePolygons(List<Object> polygonIdsToRemove) {
+        if (polygonIdsToRemove == null) {
+            return;
+        }
+        for (Object rawPolygonId : polygonIdsToRemove) {
+            if (rawPolygonId == null) {
+                continue;
+            }
+            final PolygonController polygonController = polygonIdToController.remove(rawPolygonId);
+            if (polygonController != null && kakaoMap != null) {
+                polygonController.remove(kakaoMap);
+            }
+        }
+        boundsIndex = null;
+    }
+
+    /**
+     * Sends polygon#onTap for the topmost visible polygon containing the tapped point. Returns
+     * true if that polygon consumes the tap, in which case it is not reported as a map tap.
+     */
+    boolean onTap(double latitude, double longitude) {
+        if (polygonIdToController.isEmpty()) {
+            return false;
+        }
+        if (boundsIndex == null) {
+            buildBoundsIndex();
+        }
+        candidates.clear();
+        boundsIndex.search(longitude, latitude, candidates);
+        PolygonController hit = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            final PolygonController polygonController = indexedPolygons[candidates.get(i)];
+            if ((hit == null
+                    || polygonController.getZIndex() > hit.getZIndex()
+                    || (polygonController.getZIndex() == hit.getZIndex() && polygonController.order > hit.order))
+                    && polygonController.contains(latitude, longitude)) {
+                hit = polygonController;
+            }
+        }
+        if (hit == null) {
+            return false;
+        }
+        methodChannel.invokeMethod("polygon#onTap", Convert.polygonIdToJson(hit.getPolygonId()));
+        return hit.consumeTapEvents();
+    }
+
+    private void buildBoundsIndex() {
+        final int size = polygonIdToController.size();
+        indexedPolygons = new PolygonController[size];
+        final double[] minX = new double[size];
+        final double[] minY = new double[size];
+        final double[] maxX = new double[size];
+        final double[] maxY = new double[size];
+        int count = 0;
+        for (PolygonController polygonController : polygonIdToController.values()) {
+            if (!polygonController.isVisible()) {
+                continue;
+            }
+            final double[] bounds = polygonController.getBounds();
+            indexedPolygons[count] = polygonController;
+            minX[count] = bounds[1];
+            minY[count] = bounds[0];
+            maxX[count] = bounds[3];
+            maxY[count] = bounds[2];
+            count++;
+        }
+        boundsIndex = new BoundsIndex(minX, minY, maxX, maxY, count);
+    }
+}
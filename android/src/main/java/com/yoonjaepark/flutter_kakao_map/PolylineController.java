@@ -0,0 +1,124 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import net.daum.mf.map.api.MapPoint;
+import net.daum.mf.map.api.MapPolyline;
+import net.daum.mf.map.api.MapView;
+
+/**
+ * Controller of a single Polyline on the map.
+ *
+ * <p>The full resolution geometry stays here; the map only ever holds the vertices that are more
+ * than {@link #TOLERANCE_PIXELS} off the simplified line at the current zoom level. The vertex
+ * set of each zoom level is computed once and cached. A {@link MapPolyline} cannot be edited once
+ * added, so changes replace it.
+ */
+class PolylineController implements PolylineOptionsSink {
+    private static final double TOLERANCE_PIXELS = 0.5;
+
+    private final String polylineId;
+    private final int kakaoMapsTag;
+    private int color = 0xff000000;
+    private boolean visible = true;
+    private double[] latLngs = new double[0];
+    private double[] importance;
+    private MapPoint[] mapPoints;
+    private final int[][] levelVertices =
+            new int[MercatorProjection.MAX_ZOOM_LEVEL - MercatorProjection.MIN_ZOOM_LEVEL + 1][];
+    private MapPolyline polyline;
+    private boolean changed = true;
+
+    PolylineController(String polylineId, int kakaoMapsTag) {
+        this.polylineId = polylineId;
+        this.kakaoMapsTag = kakaoMapsTag;
+    }
+
+    String getPolylineId() {
+        return polylineId;
+    }
+
+    /** Shows the polyline simplified for {@code zoomLevel}, replacing it only if needed. */
+    void update(MapView mapView, int zoomLevel) {
+        final int vertexCount = latLngs.length / 2;
+        if (!visible || vertexCount < 2) {
+            remove(mapView);
+            return;
+        }
+        final int[] vertices = vertices(zoomLevel);
+        // Vertex sets are nested, so an equal count means an equal set.
+        if (!changed && polyline != null && polyline.getPointCount() == vertices.length) {
+            return;
+        }
+        if (mapPoints == null) {
+            mapPoints = new MapPoint[vertexCount];
+        }
+        final MapPoint[] points = new MapPoint[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            final int vertex = vertices[i];
+            if (mapPoints[vertex] == null) {
+                mapPoints[vertex] = MapPoint.mapPointWithGeoCoord(latLngs[2 * vertex], latLngs[2 * vertex + 1]);
+            }
+            points[i] = mapPoints[vertex];
+        }
+        remove(mapView);
+        polyline = new MapPolyline(vertices.length);
+        polyline.setTag(kakaoMapsTag);
+        polyline.setLineColor(color);
+        polyline.addPoints(points);
+        mapView.addPolyline(polyline);
+        changed = false;
+    }
+
+    void remove(MapView mapView) {
+        if (polyline != null) {
+            mapView.removePolyline(polyline);
+            polyline = null;
+        }
+    }
+
+    private int[] vertices(int zoomLevel) {
+        final int level = MercatorProjection.clampZoomLevel(zoomLevel) - MercatorProjection.MIN_ZOOM_LEVEL;
+        if (levelVertices[level] == null) {
+            if (importance == null) {
+                final int vertexCount = latLngs.length / 2;
+                final double[] xs = new double[vertexCount];
+                final double[] ys = new double[vertexCount];
+                for (int i = 0; i < vertexCount; i++) {
+                    xs[i] = MercatorProjection.x(latLngs[2 * i + 1]);
+                    ys[i] = MercatorProjection.y(latLngs[2 * i]);
+                }
+                importance = PolylineSimplifier.importance(xs, ys, vertexCount);
+            }
+            final IntArrayList vertices = new IntArrayList();
+            PolylineSimplifier.select(
+                    importance, TOLERANCE_PIXELS * MercatorProjection.pixelSize(zoomLevel), vertices);
+            levelVertices[level] = vertices.toArray();
+        }
+        return levelVertices[level];
+    }
+
+    @Override
+    public void setColor(int color) {
+        this.color = color;
+        changed = true;
+    }
+
+    @Override
+    public void setPoints(double[] latLngs) {
+        this.latLngs = latLngs;
+        importance = null;
+        mapPoints = null;
+        for (int i = 0; i < levelVertices.length; i++) {
+            levelVertices[i] = null;
+        }
+        changed = true;
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+}
@@ -0,0 +1,15 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+/** Receiver of Polyline configuration options. */
+interface PolylineOptionsSink {
+    void setColor(int color);
+
+    /** Sets the vertices as packed latitude/longitude pairs. */
+    void setPoints(double[] latLngs);
+
+    void setVisible(boolean visible);
+}
@@ -0,0 +1,97 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import java.util.Arrays;
+
+/**
+ * Douglas-Peucker simplification with precomputed tolerances.
+ *
+ * <p>{@link #importance} runs Douglas-Peucker once with a zero tolerance and records, for every
+ * vertex, the squared distance at which it was split off. Children never rank above the vertex
+ * that split their segment, so the vertices kept for any tolerance are exactly those whose
+ * importance exceeds it, and simplifying for another zoom level is a single linear scan.
+ */
+final class PolylineSimplifier {
+    private PolylineSimplifier() {}
+
+    /** Returns the squared tolerance below which each vertex is kept. End points are always kept. */
+    static double[] importance(double[] xs, double[] ys, int count) {
+        final double[] importance = new double[count];
+        if (count == 0) {
+            return importance;
+        }
+        importance[0] = Double.POSITIVE_INFINITY;
+        importance[count - 1] = Double.POSITIVE_INFINITY;
+
+        int[] stack = new int[64];
+        double[] limits = new double[32];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        limits[0] = Double.POSITIVE_INFINITY;
+        while (top > 0) {
+            final int last = stack[--top];
+            final int first = stack[--top];
+            final double limit = limits[top >> 1];
+            if (last - first < 2) {
+                continue;
+            }
+
+            int split = first + 1;
+            double maxDistance = -1;
+            for (int i = first + 1; i < last; i++) {
+                final double distance = segmentDistance(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    split = i;
+                }
+            }
+            final double splitImportance = Math.min(maxDistance, limit);
+            importance[split] = splitImportance;
+
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                limits = Arrays.copyOf(limits, limits.length * 2);
+            }
+            limits[top >> 1] = splitImportance;
+            stack[top++] = first;
+            stack[top++] = split;
+            limits[top >> 1] = splitImportance;
+            stack[top++] = split;
+            stack[top++] = last;
+        }
+        return importance;
+    }
+
+    /** Appends the indices of the vertices kept at {@code tolerance}, in order. */
+    static void select(double[] importance, double tolerance, IntArrayList result) {
+        final double squaredTolerance = tolerance * tolerance;
+        for (int i = 0; i < importance.length; i++) {
+            if (importance[i] > squaredTolerance) {
+                result.add(i);
+            }
+        }
+    }
+
+    // Squared distance from (px, py) to the segment (ax, ay)-(bx, by).
+    private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        if (dx != 0 || dy != 0) {
+            final double t = ((px - ax) * dx + (py - ay) * dy) / (dx * dx + dy * dy);
+            if (t > 1) {
+                ax = bx;
+                ay = by;
+            } else if (t > 0) {
+                ax += dx * t;
+                ay += dy * t;
+            }
+        }
+        dx = px - ax;
+        dy = py - ay;
+        return dx * dx + dy * dy;
+    }
+}
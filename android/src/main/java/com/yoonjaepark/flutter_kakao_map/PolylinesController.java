@@ -0,0 +1,95 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import net.daum.mf.map.api.MapView;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class PolylinesController {
+
+    private final Map<String, PolylineController> polylineIdToController = new HashMap<>();
+    private MapView kakaoMap;
+    private int zoomLevel;
+    private int nextKakaoMapsTag = 1;
+
+    void setKakaoMap(MapView kakaoMap) {
+        this.kakaoMap = kakaoMap;
+        this.zoomLevel = kakaoMap.getZoomLevel();
+        for (PolylineController polylineController : polylineIdToController.values()) {
+            polylineController.update(kakaoMap, zoomLevel);
+        }
+    }
+
+    /** Swaps in the geometry simplified for the new zoom level. */
+    void onZoomLevelChanged(int zoomLevel) {
+        if (kakaoMap == null || zoomLevel == this.zoomLevel) {
+            return;
+        }
+        this.zoomLevel = zoomLevel;
+        for (PolylineController polylineController : polylineIdToController.values()) {
+            polylineController.update(kakaoMap, zoomLevel);
+        }
+    }
+
+    void addPolylines(List<Object> polylinesToAdd) {
+        if (polylinesToAdd == null) {
+            return;
+        }
+        for (Object polylineToAdd : polylinesToAdd) {
+            if (polylineToAdd == null) {
+                continue;
+            }
+            final PolylineController polylineController =
+                    new PolylineController(Convert.getPolylineId(polylineToAdd), nextKakaoMapsTag++);
+            Convert.interpretPolylineOptions(polylineToAdd, polylineController);
+            final PolylineController previous =
+                    polylineIdToController.put(polylineController.getPolylineId(), polylineController);
+            if (kakaoMap != null) {
+                if (previous != null) {
+                    previous.remove(kakaoMap);
+                }
+                polylineController.update(kakaoMap, zoomLevel);
+            }
+        }
+    }
+
+    void changePolylines(List<Object> polylinesToChange) {
+        if (polylinesToChange == null) {
+            return;
+        }
+        for (Object polylineToChange : polylinesToChange) {
+            if (polylineToChange == null) {
+                continue;
+            }
+            final PolylineController polylineController =
+                    polylineIdToController.get(Convert.getPolylineId(polylineToChange));
+            if (polylineController == null) {
+                continue;
+            }
+            Convert.interpretPolylineOptions(polylineToChange, polylineController);
+            if (kakaoMap != null) {
+                polylineController.update(kakaoMap, zoomLevel);
+            }
+        }
+    }
+
+    void removePolylines(List<Object> polylineIdsToRemove) {
+        if (polylineIdsToRemove == null) {
+            return;
+        }
+        for (Object rawPolylineId : polylineIdsToRemove) {
+            if (rawPolylineId == null) {
+                continue;
+            }
+            final PolylineController polylineController = polylineIdToController.remove(rawPolylineId);
+            if (polylineController != null && kakaoMap != null) {
+                polylineController.remove(kakaoMap);
+            }
+        }
+    }
+}
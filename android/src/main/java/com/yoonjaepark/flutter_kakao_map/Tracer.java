@@ -0,0 +1,36 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+/**
+ * Marks plugin work for system profilers. Sections must be ended on the thread that began them;
+ * async sections may end anywhere and are matched by name and cookie.
+ *
+ * <p>Call sites pass names they already hold, such as constants and method names, so tracing
+ * never allocates and the {@link #NO_OP} tracer costs one interface call.
+ */
+interface Tracer {
+    Tracer NO_OP = new Tracer() {
+        @Override
+        public void beginSection(String name) {}
+
+        @Override
+        public void endSection() {}
+
+        @Override
+        public void beginAsyncSection(String name, int cookie) {}
+
+        @Override
+        public void endAsyncSection(String name, int cookie) {}
+    };
+
+    void beginSection(String name);
+
+    void endSection();
+
+    void beginAsyncSection(String name, int cookie);
+
+    void endAsyncSection(String name, int cookie);
+}
@@ -0,0 +1,33 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.content.Context;
+
+/**
+ * Holds the process wide {@link Tracer}. It is {@link Tracer#NO_OP} unless the
+ * {@code EnableTracing} meta-data is set, see {@link PluginSettings}.
+ */
+final class Tracers {
+    static final String ON_METHOD_CALL = "KakaoMap.onMethodCall";
+    static final String INVOKE_METHOD = "KakaoMap.invokeMethod";
+    static final String INTERPRET_MARKER_OPTIONS = "KakaoMap.interpretMarkerOptions";
+    static final String APPLY_MARKER_UPDATE = "KakaoMap.applyMarkerUpdate";
+    static final String UPDATE_MARKER_POSITIONS = "KakaoMap.updateMarkerPositions";
+    static final String MAP_STARTUP = "KakaoMap.startup";
+
+    private static volatile Tracer tracer = Tracer.NO_OP;
+
+    private Tracers() {}
+
+    static Tracer get() {
+        return tracer;
+    }
+
+    /** Installs the tracer chosen by the manifest. Called when the plugin attaches. */
+    static void configure(Context context) {
+        tracer = PluginSettings.getInstance(context).enableTracing ? new AndroidTracer() : Tracer.NO_OP;
+    }
+}
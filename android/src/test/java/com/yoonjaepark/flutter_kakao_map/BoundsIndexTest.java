@@ -0,0 +1,80 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public final class BoundsIndexTest {
+    @Test
+    public void findsWhatBruteForceFinds() {
+        final Random random = new Random(1);
+        // Sizes around the node size and its powers exercise partial nodes and every tree depth.
+        for (int count : new int[] {1, 2, 15, 16, 17, 255, 256, 257, 5000}) {
+            final double[] minX = new double[count];
+            final double[] minY = new double[count];
+            final double[] maxX = new double[count];
+            final double[] maxY = new double[count];
+            for (int i = 0; i < count; i++) {
+                minX[i] = random.nextDouble() * 100;
+                minY[i] = random.nextDouble() * 100;
+                maxX[i] = minX[i] + random.nextDouble() * 10;
+                maxY[i] = minY[i] + random.nextDouble() * 10;
+            }
+            final BoundsIndex index = new BoundsIndex(minX, minY, maxX, maxY, count);
+            for (int query = 0; query < 200; query++) {
+                final double x = random.nextDouble() * 110;
+                final double y = random.nextDouble() * 110;
+                assertEquals(
+                        count + " boxes at (" + x + ", " + y + ")",
+                        bruteForce(minX, minY, maxX, maxY, x, y),
+                        search(index, x, y));
+            }
+        }
+    }
+
+    @Test
+    public void includesBoxEdges() {
+        final BoundsIndex index = new BoundsIndex(
+                new double[] {0, 1}, new double[] {0, 1}, new double[] {1, 2}, new double[] {1, 2}, 2);
+
+        assertEquals(Arrays.asList(0, 1), search(index, 1, 1));
+        assertEquals(Arrays.asList(0), search(index, 0, 0));
+        assertEquals(Arrays.<Integer>asList(), search(index, 2.5, 2));
+    }
+
+    @Test
+    public void findsNothingWhenEmpty() {
+        final BoundsIndex index = new BoundsIndex(new double[0], new double[0], new double[0], new double[0], 0);
+
+        assertEquals(Arrays.<Integer>asList(), search(index, 0, 0));
+    }
+
+    private static List<Integer> search(BoundsIndex index, double x, double y) {
+        final IntArrayList result = new IntArrayList();
+        index.search(x, y, result);
+        final List<Integer> ids = result.toList();
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static List<Integer> bruteForce(
+            double[] minX, double[] minY, double[] maxX, double[] maxY, double x, double y) {
+        final List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < minX.length; i++) {
+            if (x >= minX[i] && x <= maxX[i] && y >= minY[i] && y <= maxY[i]) {
+                ids.add(i);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,94 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public final class KdTreeTest {
+    @Test
+    public void findsWhatBruteForceFinds() {
+        final Random random = new Random(1);
+        for (int nodeSize : new int[] {1, 4, 64}) {
+            for (int count : new int[] {1, 2, 63, 64, 65, 3000}) {
+                final double[] xs = new double[count];
+                final double[] ys = new double[count];
+                for (int i = 0; i < count; i++) {
+                    // Coarse coordinates put several points on the same spot and on query edges.
+                    xs[i] = random.nextInt(100);
+                    ys[i] = random.nextInt(100);
+                }
+                final KdTree tree = new KdTree(xs, ys, count, nodeSize);
+                assertEquals(count, tree.size());
+                for (int query = 0; query < 100; query++) {
+                    final double minX = random.nextInt(100);
+                    final double minY = random.nextInt(100);
+                    final double maxX = minX + random.nextInt(30);
+                    final double maxY = minY + random.nextInt(30);
+                    assertEquals(bruteForceRange(xs, ys, minX, minY, maxX, maxY), range(tree, minX, minY, maxX, maxY));
+
+                    final double radius = random.nextInt(20);
+                    assertEquals(bruteForceWithin(xs, ys, minX, minY, radius), within(tree, minX, minY, radius));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findsNothingWhenEmpty() {
+        final KdTree tree = new KdTree(new double[0], new double[0], 0);
+
+        assertEquals(Arrays.<Integer>asList(), range(tree, 0, 0, 1, 1));
+        assertEquals(Arrays.<Integer>asList(), within(tree, 0, 0, 1));
+    }
+
+    private static List<Integer> range(KdTree tree, double minX, double minY, double maxX, double maxY) {
+        final IntArrayList result = new IntArrayList();
+        tree.range(minX, minY, maxX, maxY, result);
+        return sorted(result);
+    }
+
+    private static List<Integer> within(KdTree tree, double x, double y, double radius) {
+        final IntArrayList result = new IntArrayList();
+        tree.within(x, y, radius, result);
+        return sorted(result);
+    }
+
+    private static List<Integer> sorted(IntArrayList result) {
+        final List<Integer> ids = result.toList();
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static List<Integer> bruteForceRange(
+            double[] xs, double[] ys, double minX, double minY, double maxX, double maxY) {
+        final List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < xs.length; i++) {
+            if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+                ids.add(i);
+            }
+        }
+        return ids;
+    }
+
+    private static List<Integer> bruteForceWithin(double[] xs, double[] ys, double x, double y, double radius) {
+        final List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < xs.length; i++) {
+            final double dx = xs[i] - x;
+            final double dy = ys[i] - y;
+            if (dx * dx + dy * dy <= radius * radius) {
+                ids.add(i);
+            }
+        }
+        return ids;
+    }
+}
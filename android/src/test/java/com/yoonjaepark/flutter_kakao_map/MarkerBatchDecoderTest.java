@@ -0,0 +1,282 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class MarkerBatchDecoderTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void decodesWhatWasEncoded() {
+        final Batch batch = new Batch(MarkerBatchDecoder.RECORD_SIZE, "marker_0", "marker_1", "title", "snippet");
+        batch.record(37.5, 126.9, 0, MarkerBatchDecoder.FLAG_POSITION | MarkerBatchDecoder.FLAG_ALPHA,
+                0.5f, 0, 0, 0, -1, -1, 2, 3);
+        batch.record(37.6, 127.0, 1,
+                MarkerBatchDecoder.FLAG_ANCHOR
+                        | MarkerBatchDecoder.FLAG_ROTATION
+                        | MarkerBatchDecoder.FLAG_HAS_CONSUME_TAP_EVENTS
+                        | MarkerBatchDecoder.FLAG_CONSUME_TAP_EVENTS
+                        | MarkerBatchDecoder.FLAG_HAS_DRAGGABLE,
+                1, 90, 0.5f, 1, 0, 1, -1, -1);
+        final MarkerBatchDecoder decoder = new MarkerBatchDecoder(batch.toBytes());
+
+        assertEquals(2, decoder.size());
+        assertEquals("marker_1", decoder.markerId(1));
+        final RecordingSink first = new RecordingSink();
+        assertEquals("marker_0", decoder.decode(0, first, null));
+        assertEquals(Arrays.asList("alpha 0.5", "infoWindow title snippet", "position 37.5 126.9"), first.calls);
+        final RecordingSink second = new RecordingSink();
+        assertEquals("marker_1", decoder.decode(1, second, null));
+        assertEquals(
+                Arrays.asList(
+                        "anchor 0.5 1.0",
+                        "consumeTapEvents true",
+                        "draggable false",
+                        "rotation 90.0",
+                        "markerType 0",
+                        "markerSelectedType 1"),
+                second.calls);
+    }
+
+    @Test
+    public void decodesHandles() {
+        final Batch batch = new Batch(MarkerBatchDecoder.RECORD_SIZE);
+        batch.record(37.5, 126.9, 42, MarkerBatchDecoder.FLAG_POSITION, 0, 0, 0, 0, -1, -1, -1, -1);
+        final RecordingSink sink = new RecordingSink();
+
+        assertEquals(42, new MarkerBatchDecoder(batch.toBytes()).decodeHandle(0, sink, null));
+        assertEquals(Arrays.asList("position 37.5 126.9"), sink.calls);
+    }
+
+    @Test
+    public void skipsUnknownTrailingFields() {
+        final Batch batch = new Batch(MarkerBatchDecoder.RECORD_SIZE_WITH_ICON + 8, "a", "b");
+        batch.record(1, 2, 0, MarkerBatchDecoder.FLAG_POSITION, 0, 0, 0, 0, -1, -1, -1, -1);
+        batch.record(3, 4, 1, MarkerBatchDecoder.FLAG_POSITION, 0, 0, 0, 0, -1, -1, -1, -1);
+        final MarkerBatchDecoder decoder = new MarkerBatchDecoder(batch.toBytes());
+        final RecordingSink sink = new RecordingSink();
+
+        assertEquals("b", decoder.decode(1, sink, null));
+        assertEquals(Arrays.asList("position 3.0 4.0"), sink.calls);
+    }
+
+    @Test
+    public void decodesFromAnOffsetDirectBuffer() {
+        final Batch batch = new Batch(MarkerBatchDecoder.RECORD_SIZE, "marker_0");
+        batch.record(1, 2, 0, MarkerBatchDecoder.FLAG_POSITION, 0, 0, 0, 0, -1, -1, -1, -1);
+        final byte[] bytes = batch.toBytes();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 3);
+        buffer.position(3);
+        buffer.put(bytes);
+        buffer.position(3);
+
+        assertEquals("marker_0", new MarkerBatchDecoder(buffer).decode(0, new RecordingSink(), null));
+    }
+
+    @Test
+    public void rejectsTruncatedBatches() {
+        final Batch batch = new Batch(MarkerBatchDecoder.RECORD_SIZE, "marker_0");
+        batch.record(1, 2, 0, MarkerBatchDecoder.FLAG_POSITION, 0, 0, 0, 0, -1, -1, -1, -1);
+        final byte[] bytes = batch.toBytes();
+        // Every cut lands in the header, the string table or the record.
+        for (int length = 0; length < bytes.length; length++) {
+            assertRejected(Arrays.copyOf(bytes, length));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedHeaders() {
+        assertRejected(header(MarkerBatchDecoder.VERSION + 1, 0, MarkerBatchDecoder.RECORD_SIZE, 0));
+        assertRejected(header(MarkerBatchDecoder.VERSION, -1, MarkerBatchDecoder.RECORD_SIZE, 0));
+        assertRejected(header(MarkerBatchDecoder.VERSION, 0, MarkerBatchDecoder.RECORD_SIZE - 1, 0));
+        assertRejected(header(MarkerBatchDecoder.VERSION, 0, MarkerBatchDecoder.RECORD_SIZE, -1));
+        assertRejected(header(MarkerBatchDecoder.VERSION, 0, MarkerBatchDecoder.RECORD_SIZE, Integer.MAX_VALUE));
+        assertRejected(header(MarkerBatchDecoder.VERSION, Integer.MAX_VALUE, Integer.MAX_VALUE, 0));
+    }
+
+    @Test
+    public void rejectsNegativeStringLengths() {
+        final ByteBuffer buffer = ByteBuffer.allocate(MarkerBatchDecoder.HEADER_SIZE + 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MarkerBatchDecoder.VERSION).putInt(0).putInt(MarkerBatchDecoder.RECORD_SIZE).putInt(1);
+        buffer.putInt(-4);
+        assertRejected(buffer.array());
+    }
+
+    @Test
+    public void rejectsBadStringIndices() {
+        final Batch batch = new Batch(MarkerBatchDecoder.RECORD_SIZE, "marker_0");
+        batch.record(1, 2, 5, 0, 0, 0, 0, 0, -1, -1, -1, -1);
+        batch.record(1, 2, -1, 0, 0, 0, 0, 0, -1, -1, -1, -1);
+        batch.record(1, 2, 0, 0, 0, 0, 0, 0, -1, -1, 7, -1);
+        final MarkerBatchDecoder decoder = new MarkerBatchDecoder(batch.toBytes());
+
+        for (int i = 0; i < decoder.size(); i++) {
+            try {
+                decoder.decode(i, new RecordingSink(), null);
+                fail("Record " + i + " decoded");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsRecordIndicesOutOfRange() {
+        new MarkerBatchDecoder(new Batch(MarkerBatchDecoder.RECORD_SIZE).toBytes()).markerId(0);
+    }
+
+    private static byte[] header(int version, int recordCount, int recordSize, int stringCount) {
+        return ByteBuffer.allocate(MarkerBatchDecoder.HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(version)
+                .putInt(recordCount)
+                .putInt(recordSize)
+                .putInt(stringCount)
+                .array();
+    }
+
+    private static void assertRejected(byte[] bytes) {
+        try {
+            new MarkerBatchDecoder(bytes);
+            fail("Decoded " + Arrays.toString(bytes));
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /** Encodes a batch the way the Dart side does. */
+    private static final class Batch {
+        private final int recordSize;
+        private final String[] strings;
+        private final List<ByteBuffer> records = new ArrayList<>();
+
+        Batch(int recordSize, String... strings) {
+            this.recordSize = recordSize;
+            this.strings = strings;
+        }
+
+        void record(
+                double latitude,
+                double longitude,
+                int markerId,
+                int flags,
+                float alpha,
+                float rotation,
+                float anchorU,
+                float anchorV,
+                int markerType,
+                int markerSelectedType,
+                int title,
+                int snippet) {
+            final ByteBuffer record = ByteBuffer.allocate(recordSize).order(ByteOrder.LITTLE_ENDIAN);
+            record.putDouble(latitude)
+                    .putDouble(longitude)
+                    .putInt(markerId)
+                    .putInt(flags)
+                    .putFloat(alpha)
+                    .putFloat(rotation)
+                    .putFloat(anchorU)
+                    .putFloat(anchorV)
+                    .putInt(markerType)
+                    .putInt(markerSelectedType)
+                    .putInt(title)
+                    .putInt(snippet);
+            if (recordSize >= MarkerBatchDecoder.RECORD_SIZE_WITH_ICON) {
+                record.putInt(-1);
+            }
+            records.add(record);
+        }
+
+        byte[] toBytes() {
+            int size = MarkerBatchDecoder.HEADER_SIZE + records.size() * recordSize;
+            for (String string : strings) {
+                size += 4 + string.getBytes(UTF_8).length;
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MarkerBatchDecoder.VERSION)
+                    .putInt(records.size())
+                    .putInt(recordSize)
+                    .putInt(strings.length);
+            for (String string : strings) {
+                final byte[] bytes = string.getBytes(UTF_8);
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            for (ByteBuffer record : records) {
+                buffer.put(record.array());
+            }
+            return buffer.array();
+        }
+    }
+
+    private static final class RecordingSink implements MarkerOptionsSink {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void setAlpha(float alpha) {
+            calls.add("alpha " + alpha);
+        }
+
+        @Override
+        public void setAnchor(float u, float v) {
+            calls.add("anchor " + u + " " + v);
+        }
+
+        @Override
+        public void setConsumeTapEvents(boolean consumeTapEvents) {
+            calls.add("consumeTapEvents " + consumeTapEvents);
+        }
+
+        @Override
+        public void setDraggable(boolean draggable) {
+            calls.add("draggable " + draggable);
+        }
+
+        @Override
+        public void setIcon(Bitmap icon) {
+            calls.add("icon");
+        }
+
+        @Override
+        public void setInfoWindowAnchor(float u, float v) {
+            calls.add("infoWindowAnchor " + u + " " + v);
+        }
+
+        @Override
+        public void setInfoWindowText(String title, String snippet) {
+            calls.add("infoWindow " + title + " " + snippet);
+        }
+
+        @Override
+        public void setPosition(double latitude, double longitude) {
+            calls.add("position " + latitude + " " + longitude);
+        }
+
+        @Override
+        public void setRotation(float rotation) {
+            calls.add("rotation " + rotation);
+        }
+
+        @Override
+        public void setMarkerType(int markerType) {
+            calls.add("markerType " + markerType);
+        }
+
+        @Override
+        public void setMarkerSelectedType(int markerSelectedType) {
+            calls.add("markerSelectedType " + markerSelectedType);
+        }
+    }
+}
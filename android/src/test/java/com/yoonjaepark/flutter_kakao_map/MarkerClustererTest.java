@@ -0,0 +1,142 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class MarkerClustererTest {
+    private static final int COUNT = 2000;
+    // South, west, north and east edges of Seoul.
+    private static final double[] AREA = {37.42, 126.76, 37.70, 127.18};
+
+    private final double[] latitudes = new double[COUNT];
+    private final double[] longitudes = new double[COUNT];
+
+    public MarkerClustererTest() {
+        final Random random = new Random(1);
+        final double[] area = AREA;
+        for (int i = 0; i < COUNT; i++) {
+            latitudes[i] = area[0] + random.nextDouble() * (area[2] - area[0]);
+            longitudes[i] = area[1] + random.nextDouble() * (area[3] - area[1]);
+        }
+    }
+
+    @Test
+    public void everyLevelCoversEveryPointOnce() {
+        final MarkerClusterer clusterer = load(MarkerClusterer.DEFAULT_MAX_ZOOM_LEVEL);
+        for (int zoomLevel = MercatorProjection.MIN_ZOOM_LEVEL; zoomLevel <= MercatorProjection.MAX_ZOOM_LEVEL; zoomLevel++) {
+            final MarkerClusterer.Level level = clusterer.level(zoomLevel);
+            final boolean[] seen = new boolean[COUNT];
+            int points = 0;
+            for (int item = 0; item < level.size; item++) {
+                double x = 0;
+                double y = 0;
+                for (int i = 0; i < level.numPoints[item]; i++) {
+                    final int leaf = level.leaves[level.leafStart[item] + i];
+                    assertFalse("Point " + leaf + " twice at level " + zoomLevel, seen[leaf]);
+                    seen[leaf] = true;
+                    x += MercatorProjection.x(longitudes[leaf]);
+                    y += MercatorProjection.y(latitudes[leaf]);
+                }
+                // Clusters sit at the centroid of their points.
+                assertEquals(x / level.numPoints[item], level.x[item], 1e-12);
+                assertEquals(y / level.numPoints[item], level.y[item], 1e-12);
+                points += level.numPoints[item];
+            }
+            assertEquals(COUNT, points);
+        }
+    }
+
+    @Test
+    public void clustersOnlyFromTheMaxZoomLevelOut() {
+        final MarkerClusterer clusterer = load(MarkerClusterer.DEFAULT_MAX_ZOOM_LEVEL);
+        for (int zoomLevel = MercatorProjection.MIN_ZOOM_LEVEL; zoomLevel < MarkerClusterer.DEFAULT_MAX_ZOOM_LEVEL; zoomLevel++) {
+            final MarkerClusterer.Level level = clusterer.level(zoomLevel);
+            assertEquals(COUNT, level.size);
+            for (int item = 0; item < level.size; item++) {
+                assertFalse(level.isCluster(item));
+                assertEquals(item, level.leaf(item));
+            }
+        }
+        int previousSize = COUNT;
+        for (int zoomLevel = MarkerClusterer.DEFAULT_MAX_ZOOM_LEVEL; zoomLevel <= MercatorProjection.MAX_ZOOM_LEVEL; zoomLevel++) {
+            final int size = clusterer.level(zoomLevel).size;
+            assertTrue("Level " + zoomLevel + " has more items than the one below", size <= previousSize);
+            previousSize = size;
+        }
+        assertTrue(clusterer.level(MercatorProjection.MAX_ZOOM_LEVEL).size < COUNT);
+    }
+
+    @Test
+    public void getClustersFindsWhatBruteForceFinds() {
+        final MarkerClusterer clusterer = load(MarkerClusterer.DEFAULT_MAX_ZOOM_LEVEL);
+        final double[] area = AREA;
+        final Random random = new Random(2);
+        for (int zoomLevel = MercatorProjection.MIN_ZOOM_LEVEL; zoomLevel <= MercatorProjection.MAX_ZOOM_LEVEL; zoomLevel++) {
+            final MarkerClusterer.Level level = clusterer.level(zoomLevel);
+            for (int query = 0; query < 20; query++) {
+                final double minLatitude = area[0] + random.nextDouble() * (area[2] - area[0]);
+                final double minLongitude = area[1] + random.nextDouble() * (area[3] - area[1]);
+                final double maxLatitude = minLatitude + random.nextDouble() * 0.1;
+                final double maxLongitude = minLongitude + random.nextDouble() * 0.1;
+                final IntArrayList result = new IntArrayList();
+                clusterer.getClusters(level, minLatitude, minLongitude, maxLatitude, maxLongitude, result);
+                final List<Integer> items = result.toList();
+                Collections.sort(items);
+
+                final List<Integer> expected = new ArrayList<>();
+                for (int item = 0; item < level.size; item++) {
+                    if (level.x[item] >= MercatorProjection.x(minLongitude)
+                            && level.x[item] <= MercatorProjection.x(maxLongitude)
+                            && level.y[item] >= MercatorProjection.y(maxLatitude)
+                            && level.y[item] <= MercatorProjection.y(minLatitude)) {
+                        expected.add(item);
+                    }
+                }
+                assertEquals("Level " + zoomLevel, expected, items);
+            }
+        }
+    }
+
+    @Test
+    public void mergesOnlyNearbyPoints() {
+        final MarkerClusterer clusterer = new MarkerClusterer(MarkerClusterer.DEFAULT_RADIUS, 2, 1);
+        // Two points about 3 meters apart in Seoul, one in Busan.
+        clusterer.load(new double[] {37.56650, 37.56652, 35.1796}, new double[] {126.97800, 126.97802, 129.0756}, 3);
+        final MarkerClusterer.Level level = clusterer.level(1);
+
+        assertEquals(2, level.size);
+        assertTrue(level.isCluster(0));
+        assertEquals(2, level.numPoints[0]);
+        assertFalse(level.isCluster(1));
+        assertEquals(2, level.leaf(1));
+    }
+
+    @Test
+    public void needsMinPointsToCluster() {
+        final MarkerClusterer clusterer = new MarkerClusterer(MarkerClusterer.DEFAULT_RADIUS, 3, 1);
+        clusterer.load(new double[] {37.56650, 37.56652}, new double[] {126.97800, 126.97802}, 2);
+
+        for (int zoomLevel = MercatorProjection.MIN_ZOOM_LEVEL; zoomLevel <= MercatorProjection.MAX_ZOOM_LEVEL; zoomLevel++) {
+            assertEquals(2, clusterer.level(zoomLevel).size);
+        }
+    }
+
+    private MarkerClusterer load(int maxZoomLevel) {
+        final MarkerClusterer clusterer =
+                new MarkerClusterer(MarkerClusterer.DEFAULT_RADIUS, MarkerClusterer.DEFAULT_MIN_POINTS, maxZoomLevel);
+        clusterer.load(latitudes, longitudes, COUNT);
+        return clusterer;
+    }
+}
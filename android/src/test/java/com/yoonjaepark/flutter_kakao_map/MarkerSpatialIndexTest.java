@@ -0,0 +1,179 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public final class MarkerSpatialIndexTest {
+    // South, west, north and east edges of Seoul.
+    private static final double[] AREA = {37.42, 126.76, 37.70, 127.18};
+
+    private final Random random = new Random(1);
+    private final MarkerSpatialIndex index = new MarkerSpatialIndex();
+    // Position of every live slot, as {latitude, longitude}.
+    private final Map<Integer, double[]> positions = new HashMap<>();
+
+    @Test
+    public void matchesBruteForceAfterChurn() {
+        for (int i = 0; i < 3000; i++) {
+            add(randomPosition());
+        }
+        for (int round = 0; round < 20; round++) {
+            churn(1000);
+            assertEquals(positions.size(), index.size());
+            for (int query = 0; query < 20; query++) {
+                assertQueryMatches();
+                assertNearestMatches(1 + random.nextInt(20));
+            }
+        }
+    }
+
+    @Test
+    public void matchesBruteForceWithStackedPoints() {
+        // Far more points than a leaf holds at one spot force splits down to the depth limit.
+        final double[] spot = randomPosition();
+        for (int i = 0; i < 200; i++) {
+            add(random.nextBoolean() ? spot : randomPosition());
+        }
+        churn(500);
+        for (int query = 0; query < 50; query++) {
+            assertQueryMatches();
+            assertNearestMatches(1 + random.nextInt(50));
+        }
+    }
+
+    @Test
+    public void ignoresRemovedAndUnknownSlots() {
+        final int slot = add(randomPosition());
+        remove(slot);
+        index.remove(slot);
+        index.remove(-1);
+        index.remove(1000);
+
+        assertEquals(0, index.size());
+        assertEquals(Arrays.<Integer>asList(), query(AREA[0], AREA[1], AREA[2], AREA[3]));
+        assertEquals(Arrays.<Integer>asList(), nearest(AREA[0], AREA[1], 3));
+    }
+
+    @Test
+    public void returnsEveryPointWhenAskedForMore() {
+        for (int i = 0; i < 5; i++) {
+            add(randomPosition());
+        }
+
+        assertEquals(5, nearest(AREA[0], AREA[1], 10).size());
+    }
+
+    private void churn(int operations) {
+        for (int i = 0; i < operations; i++) {
+            final int operation = random.nextInt(3);
+            if (operation == 0 || positions.isEmpty()) {
+                add(randomPosition());
+                continue;
+            }
+            final List<Integer> slots = new ArrayList<>(positions.keySet());
+            final int slot = slots.get(random.nextInt(slots.size()));
+            if (operation == 1) {
+                remove(slot);
+            } else {
+                // Mostly short hops, which often stay in the same leaf, and some jumps across town.
+                final double[] from = positions.get(slot);
+                final double[] to = random.nextInt(4) == 0
+                        ? randomPosition()
+                        : new double[] {
+                                from[0] + (random.nextDouble() - 0.5) * 0.001,
+                                from[1] + (random.nextDouble() - 0.5) * 0.001};
+                index.move(slot, to[0], to[1]);
+                positions.put(slot, to);
+            }
+        }
+    }
+
+    private int add(double[] position) {
+        final int slot = index.add(position[0], position[1]);
+        assertEquals(null, positions.put(slot, position));
+        return slot;
+    }
+
+    private void remove(int slot) {
+        index.remove(slot);
+        positions.remove(slot);
+    }
+
+    private void assertQueryMatches() {
+        final double[] a = randomPosition();
+        final double[] b = randomPosition();
+        final double minLatitude = Math.min(a[0], b[0]);
+        final double minLongitude = Math.min(a[1], b[1]);
+        final double maxLatitude = Math.max(a[0], b[0]);
+        final double maxLongitude = Math.max(a[1], b[1]);
+        final List<Integer> expected = new ArrayList<>();
+        for (Map.Entry<Integer, double[]> entry : positions.entrySet()) {
+            final double[] position = entry.getValue();
+            if (position[0] >= minLatitude && position[0] <= maxLatitude
+                    && position[1] >= minLongitude && position[1] <= maxLongitude) {
+                expected.add(entry.getKey());
+            }
+        }
+        Collections.sort(expected);
+        assertEquals(expected, query(minLatitude, minLongitude, maxLatitude, maxLongitude));
+    }
+
+    private void assertNearestMatches(int k) {
+        final double[] position = randomPosition();
+        final double x = MercatorProjection.x(position[1]);
+        final double y = MercatorProjection.y(position[0]);
+        final Map<Integer, Double> distances = new HashMap<>();
+        for (Map.Entry<Integer, double[]> entry : positions.entrySet()) {
+            final double dx = MercatorProjection.x(entry.getValue()[1]) - x;
+            final double dy = MercatorProjection.y(entry.getValue()[0]) - y;
+            distances.put(entry.getKey(), dx * dx + dy * dy);
+        }
+        final List<Integer> expected = new ArrayList<>(distances.keySet());
+        Collections.sort(expected, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(distances.get(a), distances.get(b));
+            }
+        });
+        final List<Integer> actual = nearest(position[0], position[1], k);
+        assertEquals(Math.min(k, expected.size()), actual.size());
+        // Stacked points tie, so compare distances rather than slots.
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(distances.get(expected.get(i)), distances.get(actual.get(i)));
+        }
+    }
+
+    private List<Integer> query(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        final IntArrayList result = new IntArrayList();
+        index.query(minLatitude, minLongitude, maxLatitude, maxLongitude, result);
+        final List<Integer> slots = result.toList();
+        Collections.sort(slots);
+        return slots;
+    }
+
+    private List<Integer> nearest(double latitude, double longitude, int k) {
+        final IntArrayList result = new IntArrayList();
+        index.nearest(latitude, longitude, k, result);
+        return result.toList();
+    }
+
+    private double[] randomPosition() {
+        return new double[] {
+                AREA[0] + random.nextDouble() * (AREA[2] - AREA[0]),
+                AREA[1] + random.nextDouble() * (AREA[3] - AREA[1])};
+    }
+}
@@ -0,0 +1,139 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.yoonjaepark.flutter_kakao_map;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class PolylineSimplifierTest {
+    private static final double[] TOLERANCES = {0, 0.001, 0.01, 0.05, 0.1, 0.5, 1, 10};
+
+    @Test
+    public void keepsWhatDouglasPeuckerKeeps() {
+        final Random random = new Random(1);
+        for (int run = 0; run < 50; run++) {
+            final int count = 2 + random.nextInt(300);
+            final double[] xs = new double[count];
+            final double[] ys = new double[count];
+            randomWalk(random, xs, ys);
+            final double[] importance = PolylineSimplifier.importance(xs, ys, count);
+            for (double tolerance : TOLERANCES) {
+                assertEquals(
+                        "Run " + run + " at tolerance " + tolerance,
+                        douglasPeucker(xs, ys, count, tolerance),
+                        select(importance, tolerance));
+            }
+        }
+    }
+
+    @Test
+    public void nestsSimplifications() {
+        final Random random = new Random(2);
+        for (int run = 0; run < 50; run++) {
+            final int count = 2 + random.nextInt(500);
+            final double[] xs = new double[count];
+            final double[] ys = new double[count];
+            randomWalk(random, xs, ys);
+            final double[] importance = PolylineSimplifier.importance(xs, ys, count);
+            List<Integer> finer = select(importance, TOLERANCES[0]);
+            for (int i = 1; i < TOLERANCES.length; i++) {
+                final List<Integer> coarser = select(importance, TOLERANCES[i]);
+                assertTrue("Run " + run + " at tolerance " + TOLERANCES[i], finer.containsAll(coarser));
+                assertEquals(0, (int) coarser.get(0));
+                assertEquals(count - 1, (int) coarser.get(coarser.size() - 1));
+                finer = coarser;
+            }
+        }
+    }
+
+    @Test
+    public void dropsCollinearVertices() {
+        final double[] xs = {0, 1, 2, 3, 4};
+        final double[] ys = {0, 1, 2, 3, 4};
+
+        assertEquals(Arrays.asList(0, 4), select(PolylineSimplifier.importance(xs, ys, xs.length), 0));
+    }
+
+    @Test
+    public void keepsShortLines() {
+        assertEquals(Arrays.<Integer>asList(), select(PolylineSimplifier.importance(new double[0], new double[0], 0), 1));
+        assertEquals(Arrays.asList(0), select(PolylineSimplifier.importance(new double[] {1}, new double[] {1}, 1), 1));
+        assertEquals(
+                Arrays.asList(0, 1),
+                select(PolylineSimplifier.importance(new double[] {1, 2}, new double[] {1, 2}, 2), 1));
+    }
+
+    private static void randomWalk(Random random, double[] xs, double[] ys) {
+        for (int i = 1; i < xs.length; i++) {
+            xs[i] = xs[i - 1] + random.nextGaussian() * 0.1;
+            ys[i] = ys[i - 1] + random.nextGaussian() * 0.1;
+        }
+    }
+
+    private static List<Integer> select(double[] importance, double tolerance) {
+        final IntArrayList result = new IntArrayList();
+        PolylineSimplifier.select(importance, tolerance, result);
+        return result.toList();
+    }
+
+    /** Textbook recursive Douglas-Peucker, keeping the first of equally distant vertices. */
+    private static List<Integer> douglasPeucker(double[] xs, double[] ys, int count, double tolerance) {
+        final boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        douglasPeucker(xs, ys, 0, count - 1, tolerance * tolerance, keep);
+        final List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                kept.add(i);
+            }
+        }
+        return kept;
+    }
+
+    private static void douglasPeucker(
+            double[] xs, double[] ys, int first, int last, double squaredTolerance, boolean[] keep) {
+        int split = -1;
+        double maxDistance = -1;
+        for (int i = first + 1; i < last; i++) {
+            final double distance = segmentDistance(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                split = i;
+            }
+        }
+        if (split < 0 || maxDistance <= squaredTolerance) {
+            return;
+        }
+        keep[split] = true;
+        douglasPeucker(xs, ys, first, split, squaredTolerance, keep);
+        douglasPeucker(xs, ys, split, last, squaredTolerance, keep);
+    }
+
+    private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        if (dx != 0 || dy != 0) {
+            final double t = ((px - ax) * dx + (py - ay) * dy) / (dx * dx + dy * dy);
+            if (t > 1) {
+                ax = bx;
+                ay = by;
+            } else if (t > 0) {
+                ax += dx * t;
+                ay += dy * t;
+            }
+        }
+        dx = px - ax;
+        dy = py - ay;
+        return dx * dx + dy * dy;
+    }
+}
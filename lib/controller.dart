@@ -90,6 +90,19 @@ class KakaoMapController {
     _kakaoMapsFlutterPlatform.onMarkerDragEnd(mapId: mapId).listen(
         (MarkerDragEndEvent e) =>
             _kakaoMapState.onMarkerDragEnd(e.value, e.position));
+    if (_kakaoMapState.widget.onMarkerBatchApplied != null) {
+      _kakaoMapsFlutterPlatform.onMarkerBatchApplied(mapId: mapId).listen(
+          (MarkerBatchAppliedEvent e) =>
+              _kakaoMapState.widget.onMarkerBatchApplied(e));
+    }
+    if (_kakaoMapState.widget.onClusterTap != null) {
+      _kakaoMapsFlutterPlatform.onClusterTap(mapId: mapId).listen(
+          (ClusterTapEvent e) => _kakaoMapState.widget.onClusterTap(e));
+    }
+    if (_kakaoMapState.widget.onPolygonTap != null) {
+      _kakaoMapsFlutterPlatform.onPolygonTap(mapId: mapId).listen(
+          (PolygonTapEvent e) => _kakaoMapState.widget.onPolygonTap(e.value));
+    }
     _kakaoMapsFlutterPlatform.onInfoWindowTap(mapId: mapId).listen(
         (InfoWindowTapEvent e) => _kakaoMapState.onInfoWindowTap(e.value));
     _kakaoMapsFlutterPlatform
@@ -117,9 +130,11 @@ class KakaoMapController {
   /// platform side.
   ///
   /// The returned [Future] completes after listeners have been notified.
-  Future<void> _updateMarkers(MarkerUpdates markerUpdates) {
+  Future<void> _updateMarkers(MarkerUpdates markerUpdates,
+      {bool reportProgress = false}) {
     assert(markerUpdates != null);
-    return _kakaoMapsFlutterPlatform.updateMarkers(markerUpdates, mapId: mapId);
+    return _kakaoMapsFlutterPlatform.updateMarkers(markerUpdates,
+        mapId: mapId, reportProgress: reportProgress);
   }
 
   /// Starts an animated change of the map camera position.
@@ -223,8 +238,64 @@ class KakaoMapController {
     return _kakaoMapsFlutterPlatform.getZoomLevel(mapId: mapId);
   }
 
+  /// Groups nearby markers into clusters, or shows them all again when
+  /// [enabled] is false.
+  ///
+  /// Markers closer than [radius] logical pixels are merged into a cluster
+  /// of at least [minPoints] markers, at Kakao zoom level [maxZoomLevel]
+  /// and further out. Null arguments keep the native defaults. Taps on
+  /// clusters are reported to [KakaoMap.onClusterTap].
+  Future<void> configureClusters({
+    bool enabled = true,
+    double radius,
+    int minPoints,
+    int maxZoomLevel,
+  }) {
+    return _kakaoMapsFlutterPlatform.configureClusters(
+        enabled: enabled,
+        radius: radius,
+        minPoints: minPoints,
+        maxZoomLevel: maxZoomLevel,
+        mapId: mapId);
+  }
+
+  /// Registers [icon] under [iconId], so that markers can set [Marker.iconId]
+  /// instead of sending the image with every update.
+  ///
+  /// Only icons created with [BitmapDescriptor.fromBytes] can be registered.
+  Future<void> registerIcon(String iconId, BitmapDescriptor icon) {
+    assert(iconId != null);
+    assert(icon != null);
+    return _kakaoMapsFlutterPlatform.registerIcon(iconId, icon, mapId: mapId);
+  }
+
+  /// Releases the icon registered under [iconId].
+  ///
+  /// Markers already showing it keep it; markers updated afterwards that
+  /// still refer to [iconId] show the default marker image.
+  Future<void> unregisterIcon(String iconId) {
+    assert(iconId != null);
+    return _kakaoMapsFlutterPlatform.unregisterIcon(iconId, mapId: mapId);
+  }
+
   /// Returns the image bytes of the map
-  Future<Uint8List> takeSnapshot() {
-    return _kakaoMapsFlutterPlatform.takeSnapshot(mapId: mapId);
+  ///
+  /// [quality] from 0 to 100 applies to [SnapshotFormat.jpeg] and
+  /// [SnapshotFormat.webp]. A [scale] below 1.0 downscales the snapshot.
+  Future<Uint8List> takeSnapshot({
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality,
+    double scale,
+  }) {
+    return _kakaoMapsFlutterPlatform.takeSnapshot(
+        format: format, quality: quality, scale: scale, mapId: mapId);
+  }
+
+  /// Returns the unencoded pixels of the map
+  ///
+  /// A [scale] below 1.0 downscales the snapshot.
+  Future<RawSnapshot> takeRawSnapshot({double scale}) {
+    return _kakaoMapsFlutterPlatform.takeRawSnapshot(
+        scale: scale, mapId: mapId);
   }
 }
@@ -43,9 +43,13 @@ class KakaoMap extends StatefulWidget {
     this.onCameraMoveStarted,
     this.onCameraMove,
     this.onCameraZoomChanged,
+    this.cameraEventInterval,
     this.onCurrentLocationUpdate,
     this.onCameraIdle,
     this.onMarkerSelect,
+    this.onMarkerBatchApplied,
+    this.onClusterTap,
+    this.onPolygonTap,
     this.onTap,
     this.onLongPress,
   })  : assert(initialCameraPosition != null),
@@ -119,6 +123,12 @@ class KakaoMap extends StatefulWidget {
   /// 지도 확대 비율을 변경한 경우 호출된다.
   final CameraZoomCallback onCameraZoomChanged;
 
+  /// Minimum time between two [onCameraMove] or [onCameraZoomChanged] calls.
+  ///
+  /// Camera changes in between are coalesced into the latest one. When null,
+  /// they are delivered at most once per frame.
+  final Duration cameraEventInterval;
+
   /// CurrentLocationEventListener interface를 구현하는 객체를 MapView 객체에 등록하여
   /// 현위치 트래킹 이벤트를 통보받을 수 있다.
   final CameraPositionCallback onCurrentLocationUpdate;
@@ -131,6 +141,17 @@ class KakaoMap extends StatefulWidget {
   /// animations and the user has stopped interacting with the map.
   final VoidCallback onCameraIdle;
 
+  /// Called as marker updates reach the map. When set, every update is
+  /// reported, not only those applied over several frames.
+  final ArgumentCallback<MarkerBatchAppliedEvent> onMarkerBatchApplied;
+
+  /// Called when a marker cluster is tapped, see
+  /// [KakaoMapController.configureClusters].
+  final ArgumentCallback<ClusterTapEvent> onClusterTap;
+
+  /// Called with the id of a tapped polygon.
+  final ArgumentCallback<String> onPolygonTap;
+
   /// 사용자가 지도 위를 터치한 경우 호출된다.
   final ArgumentCallback<MapPoint> onTap;
 
@@ -247,7 +268,8 @@ class _KakaoMapState extends State<KakaoMap> {
     final KakaoMapController controller = await _controller.future;
     // ignore: unawaited_futures
     controller._updateMarkers(
-        MarkerUpdates.from(_markers.values.toSet(), widget.markers));
+        MarkerUpdates.from(_markers.values.toSet(), widget.markers),
+        reportProgress: widget.onMarkerBatchApplied != null);
     _markers = keyByMarkerId(widget.markers);
   }
 
@@ -315,6 +337,7 @@ class _KakaoMapOptions {
       this.scrollGesturesEnabled,
       this.tiltGesturesEnabled,
       this.trackCameraPosition,
+      this.cameraEventInterval,
       this.zoomControlsEnabled,
       this.zoomGesturesEnabled,
       this.myLocationEnabled,
@@ -333,7 +356,9 @@ class _KakaoMapOptions {
       rotateGesturesEnabled: map.rotateGesturesEnabled,
       scrollGesturesEnabled: map.scrollGesturesEnabled,
       tiltGesturesEnabled: map.tiltGesturesEnabled,
-      trackCameraPosition: map.onCameraMove != null,
+      trackCameraPosition:
+          map.onCameraMove != null || map.onCameraZoomChanged != null,
+      cameraEventInterval: map.cameraEventInterval,
       zoomControlsEnabled: map.zoomControlsEnabled,
       zoomGesturesEnabled: map.zoomGesturesEnabled,
       myLocationEnabled: map.myLocationEnabled,
@@ -363,6 +388,8 @@ class _KakaoMapOptions {
 
   final bool trackCameraPosition;
 
+  final Duration cameraEventInterval;
+
   final bool zoomControlsEnabled;
 
   final bool zoomGesturesEnabled;
@@ -397,6 +424,7 @@ class _KakaoMapOptions {
     addIfNonNull('zoomControlsEnabled', zoomControlsEnabled);
     addIfNonNull('zoomGesturesEnabled', zoomGesturesEnabled);
     addIfNonNull('trackCameraPosition', trackCameraPosition);
+    addIfNonNull('cameraEventInterval', cameraEventInterval?.inMilliseconds);
     addIfNonNull('myLocationEnabled', myLocationEnabled);
     addIfNonNull('myLocationButtonEnabled', myLocationButtonEnabled);
     addIfNonNull('padding', <double>[
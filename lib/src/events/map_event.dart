@@ -115,6 +115,52 @@ class MarkerTapEvent extends MapEvent<MarkerId> {
   MarkerTapEvent(int mapId, MarkerId markerId) : super(mapId, markerId);
 }
 
+/// An event fired while a `markers#update` is applied over several frames.
+///
+/// It is only sent for updates that take more than one frame to apply, or
+/// whose call asked for progress with `reportProgress`.
+class MarkerBatchAppliedEvent extends MapEvent<int> {
+  /// Build a MarkerBatchApplied Event triggered from the map represented by `mapId`.
+  ///
+  /// The `value` of this event is the id of the batch. Ids increase in the
+  /// order the updates were sent, so events of different updates can be told
+  /// apart; `updateMarkers` itself does not return the id.
+  MarkerBatchAppliedEvent(
+      int mapId, int batchId, this.applied, this.total, this.done)
+      : super(mapId, batchId);
+
+  /// How many operations of the batch are on the map.
+  final int applied;
+
+  /// How many operations the batch has.
+  final int total;
+
+  /// Whether the whole batch is on the map.
+  final bool done;
+}
+
+/// An event fired when a marker cluster is tapped.
+class ClusterTapEvent extends _PositionedMapEvent<List<MarkerId>> {
+  /// Build a ClusterTap Event triggered from the map represented by `mapId`.
+  ///
+  /// The `position` of this event is the center of the tapped cluster.
+  /// The `value` of this event is the list of [MarkerId]s of the markers it holds.
+  ClusterTapEvent(
+      int mapId, MapPoint position, List<MarkerId> markerIds, this.zoomLevel)
+      : super(mapId, position, markerIds);
+
+  /// The Kakao zoom level the cluster was shown at.
+  final int zoomLevel;
+}
+
+/// An event fired when a polygon is tapped.
+class PolygonTapEvent extends MapEvent<String> {
+  /// Build a PolygonTap Event triggered from the map represented by `mapId`.
+  ///
+  /// The `value` of this event is the id of the tapped polygon.
+  PolygonTapEvent(int mapId, String polygonId) : super(mapId, polygonId);
+}
+
 /// An event fired when an [InfoWindow] is tapped.
 class InfoWindowTapEvent extends MapEvent<MarkerId> {
   /// Build an InfoWindowTap Event triggered from the map represented by `mapId`.
@@ -97,6 +97,21 @@ class MethodChannelKakaoMapsFlutter extends KakaoMapsFlutterPlatform {
     return _events(mapId).whereType<MarkerTapEvent>();
   }
 
+  @override
+  Stream<MarkerBatchAppliedEvent> onMarkerBatchApplied({@required int mapId}) {
+    return _events(mapId).whereType<MarkerBatchAppliedEvent>();
+  }
+
+  @override
+  Stream<ClusterTapEvent> onClusterTap({@required int mapId}) {
+    return _events(mapId).whereType<ClusterTapEvent>();
+  }
+
+  @override
+  Stream<PolygonTapEvent> onPolygonTap({@required int mapId}) {
+    return _events(mapId).whereType<PolygonTapEvent>();
+  }
+
   @override
   Stream<InfoWindowTapEvent> onInfoWindowTap({@required int mapId}) {
     return _events(mapId).whereType<InfoWindowTapEvent>();
@@ -170,6 +185,31 @@ class MethodChannelKakaoMapsFlutter extends KakaoMapsFlutterPlatform {
           MarkerId(call.arguments['markerId']),
         ));
         break;
+      case 'markers#onBatchApplied':
+        _mapEventStreamController.add(MarkerBatchAppliedEvent(
+          mapId,
+          call.arguments['batchId'],
+          call.arguments['applied'],
+          call.arguments['total'],
+          call.arguments['done'],
+        ));
+        break;
+      case 'cluster#onTap':
+        _mapEventStreamController.add(ClusterTapEvent(
+          mapId,
+          MapPoint.fromJson(call.arguments['position']),
+          (call.arguments['markerIds'] as List<dynamic>)
+              .map((dynamic markerId) => MarkerId(markerId))
+              .toList(),
+          call.arguments['zoomLevel'],
+        ));
+        break;
+      case 'polygon#onTap':
+        _mapEventStreamController.add(PolygonTapEvent(
+          mapId,
+          call.arguments['polygonId'],
+        ));
+        break;
       case 'infoWindow#onTap':
         _mapEventStreamController.add(InfoWindowTapEvent(
           mapId,
@@ -223,11 +263,16 @@ class MethodChannelKakaoMapsFlutter extends KakaoMapsFlutterPlatform {
   Future<void> updateMarkers(
     MarkerUpdates markerUpdates, {
     @required int mapId,
+    bool reportProgress = false,
   }) {
     assert(markerUpdates != null);
+    final Map<String, dynamic> arguments = markerUpdates.toJson();
+    if (reportProgress) {
+      arguments['reportProgress'] = true;
+    }
     return channel(mapId).invokeMethod<void>(
       'markers#update',
-      markerUpdates.toJson(),
+      arguments,
     );
   }
 
@@ -401,12 +446,99 @@ class MethodChannelKakaoMapsFlutter extends KakaoMapsFlutterPlatform {
     return channel(mapId).invokeMethod<double>('map#getZoomLevel');
   }
 
+  /// Groups nearby markers into clusters, or shows them all again when
+  /// `enabled` is false.
+  ///
+  /// Markers closer than `radius` logical pixels are merged into a cluster
+  /// of at least `minPoints` markers, at Kakao zoom level `maxZoomLevel`
+  /// and further out. Null arguments keep the native defaults.
+  @override
+  Future<void> configureClusters({
+    bool enabled = true,
+    double radius,
+    int minPoints,
+    int maxZoomLevel,
+    @required int mapId,
+  }) {
+    final Map<String, dynamic> options = <String, dynamic>{'enabled': enabled};
+    if (radius != null) {
+      options['radius'] = radius;
+    }
+    if (minPoints != null) {
+      options['minPoints'] = minPoints;
+    }
+    if (maxZoomLevel != null) {
+      options['maxZoom'] = maxZoomLevel;
+    }
+    return channel(mapId).invokeMethod<void>('clusters#configure', options);
+  }
+
+  /// Registers [icon] under [iconId] so markers can refer to it by id.
+  ///
+  /// Only icons created with [BitmapDescriptor.fromBytes] can be registered.
+  @override
+  Future<void> registerIcon(
+    String iconId,
+    BitmapDescriptor icon, {
+    @required int mapId,
+  }) {
+    assert(iconId != null);
+    assert(icon != null);
+    return channel(mapId).invokeMethod<void>('icons#register',
+        <String, dynamic>{'iconId': iconId, 'icon': icon.toJson()});
+  }
+
+  /// Releases the icon registered under [iconId].
+  ///
+  /// Markers already showing it keep it; markers updated afterwards that
+  /// still refer to [iconId] show the default marker image.
+  @override
+  Future<void> unregisterIcon(
+    String iconId, {
+    @required int mapId,
+  }) {
+    assert(iconId != null);
+    return channel(mapId).invokeMethod<void>(
+        'icons#unregister', <String, String>{'iconId': iconId});
+  }
+
   /// Returns the image bytes of the map
+  ///
+  /// `quality` from 0 to 100 applies to [SnapshotFormat.jpeg] and
+  /// [SnapshotFormat.webp]. A `scale` below 1.0 downscales the snapshot.
   @override
   Future<Uint8List> takeSnapshot({
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality,
+    double scale,
     @required int mapId,
   }) {
-    return channel(mapId).invokeMethod<Uint8List>('map#takeSnapshot');
+    assert(format != null);
+    assert(quality == null || (0 <= quality && quality <= 100));
+    assert(scale == null || (0.0 < scale && scale <= 1.0));
+    return channel(mapId).invokeMethod<Uint8List>(
+        'map#takeSnapshot', <String, dynamic>{
+      'format': format.toString().split('.').last,
+      'quality': quality,
+      'scale': scale,
+    });
+  }
+
+  /// Returns the unencoded pixels of the map
+  ///
+  /// A `scale` below 1.0 downscales the snapshot.
+  @override
+  Future<RawSnapshot> takeRawSnapshot({
+    double scale,
+    @required int mapId,
+  }) async {
+    assert(scale == null || (0.0 < scale && scale <= 1.0));
+    final dynamic snapshot = await channel(mapId).invokeMethod<dynamic>(
+        'map#takeSnapshot', <String, dynamic>{
+      'format': 'rgba',
+      'scale': scale,
+    });
+    return RawSnapshot.fromJson(snapshot);
   }
 
   /// This method builds the appropriate platform view where the map
@@ -69,9 +69,13 @@ abstract class KakaoMapsFlutterPlatform extends PlatformInterface {
   /// platform side.
   ///
   /// The returned [Future] completes after listeners have been notified.
+  ///
+  /// With [reportProgress] set, [onMarkerBatchApplied] reports the update even
+  /// if it is applied within one frame.
   Future<void> updateMarkers(
     MarkerUpdates markerUpdates, {
     @required int mapId,
+    bool reportProgress = false,
   }) {
     throw UnimplementedError('updateMarkers() has not been implemented.');
   }
@@ -201,14 +205,54 @@ abstract class KakaoMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('getZoomLevel() has not been implemented.');
   }
 
+  /// Groups nearby markers into clusters, or shows them all again when
+  /// `enabled` is false.
+  Future<void> configureClusters({
+    bool enabled = true,
+    double radius,
+    int minPoints,
+    int maxZoomLevel,
+    @required int mapId,
+  }) {
+    throw UnimplementedError('configureClusters() has not been implemented.');
+  }
+
+  /// Registers [icon] under [iconId] so markers can refer to it by id.
+  Future<void> registerIcon(
+    String iconId,
+    BitmapDescriptor icon, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError('registerIcon() has not been implemented.');
+  }
+
+  /// Releases the icon registered under [iconId].
+  Future<void> unregisterIcon(
+    String iconId, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError('unregisterIcon() has not been implemented.');
+  }
+
   /// Returns the image bytes of the map
   Future<Uint8List> takeSnapshot({
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality,
+    double scale,
     @required int mapId,
   }) {
     throw UnimplementedError('takeSnapshot() has not been implemented.');
   }
 
-  // The following are the 11 possible streams of data from the native side
+  /// Returns the unencoded pixels of the map
+  Future<RawSnapshot> takeRawSnapshot({
+    double scale,
+    @required int mapId,
+  }) {
+    throw UnimplementedError('takeRawSnapshot() has not been implemented.');
+  }
+
+  // The following are the 14 possible streams of data from the native side
   // into the plugin
 
   /// The Camera started moving.
@@ -246,6 +290,22 @@ abstract class KakaoMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('onMarkerTap() has not been implemented.');
   }
 
+  /// Part of a marker update is on the map.
+  Stream<MarkerBatchAppliedEvent> onMarkerBatchApplied({@required int mapId}) {
+    throw UnimplementedError(
+        'onMarkerBatchApplied() has not been implemented.');
+  }
+
+  /// A marker cluster has been tapped.
+  Stream<ClusterTapEvent> onClusterTap({@required int mapId}) {
+    throw UnimplementedError('onClusterTap() has not been implemented.');
+  }
+
+  /// A polygon has been tapped.
+  Stream<PolygonTapEvent> onPolygonTap({@required int mapId}) {
+    throw UnimplementedError('onPolygonTap() has not been implemented.');
+  }
+
   /// An [InfoWindow] has been tapped.
   Stream<InfoWindowTapEvent> onInfoWindowTap({@required int mapId}) {
     throw UnimplementedError('onInfoWindowTap() has not been implemented.');
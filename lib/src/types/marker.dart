@@ -290,6 +290,7 @@ class Marker {
   /// * is stationary; [draggable] is false
   /// * is drawn against the screen, not the map; [flat] is false
   /// * has a default icon; [icon] is `BitmapDescriptor.defaultMarker`
+  /// * uses no registered icon; [iconId] is null
   /// * anchors the info window at top center; [infoWindowAnchor] is (0.5, 0.0)
   /// * has no info window text; [infoWindowText] is `InfoWindowText.noText`
   /// * is positioned at 0, 0; [position] is `MapPoint(0.0, 0.0)`
@@ -306,6 +307,7 @@ class Marker {
     this.draggable = false,
     this.flat = false,
     this.icon = BitmapDescriptor.defaultMarker,
+    this.iconId,
     this.infoWindow = InfoWindow.noText,
     this.position = const MapPoint(0.0, 0.0),
     this.rotation = 0.0,
@@ -348,6 +350,12 @@ class Marker {
   /// A description of the bitmap used to draw the marker icon.
   final BitmapDescriptor icon;
 
+  /// The id of an icon registered with `KakaoMapController.registerIcon`.
+  ///
+  /// Takes precedence over [icon]. An id that is not registered when the
+  /// marker is updated falls back to the default marker image.
+  final String iconId;
+
   /// A Kakao Maps InfoWindow.
   ///
   /// The window is displayed when the marker is tapped.
@@ -390,6 +398,7 @@ class Marker {
     bool draggableParam,
     bool flatParam,
     BitmapDescriptor iconParam,
+    String iconIdParam,
     InfoWindow infoWindowParam,
     MapPoint positionParam,
     double rotationParam,
@@ -409,6 +418,7 @@ class Marker {
       draggable: draggableParam ?? draggable,
       flat: flatParam ?? flat,
       icon: iconParam ?? icon,
+      iconId: iconIdParam ?? iconId,
       infoWindow: infoWindowParam ?? infoWindow,
       position: positionParam ?? position,
       rotation: rotationParam ?? rotation,
@@ -442,6 +452,7 @@ class Marker {
     addIfPresent('draggable', draggable);
     addIfPresent('flat', flat);
     addIfPresent('icon', icon?.toJson());
+    addIfPresent('iconId', iconId);
     addIfPresent('infoWindow', infoWindow?._toJson());
     addIfPresent('position', position?.toJson());
     addIfPresent('rotation', rotation);
@@ -465,6 +476,7 @@ class Marker {
         draggable == typedOther.draggable &&
         flat == typedOther.flat &&
         icon == typedOther.icon &&
+        iconId == typedOther.iconId &&
         infoWindow == typedOther.infoWindow &&
         position == typedOther.position &&
         rotation == typedOther.rotation &&
@@ -482,7 +494,7 @@ class Marker {
   String toString() {
     return 'Marker{markerId: $markerId, alpha: $alpha, anchor: $anchor, '
         'consumeTapEvents: $consumeTapEvents, draggable: $draggable, flat: $flat, '
-        'icon: $icon, infoWindow: $infoWindow, position: $position, rotation: $rotation, '
+        'icon: $icon, iconId: $iconId, infoWindow: $infoWindow, position: $position, rotation: $rotation, '
         'visible: $visible, zIndex: $zIndex, markerType: $markerType, markerSelectedType: $markerSelectedType, '
         'showAnimationType: $showAnimationType, onTap: $onTap }';
   }
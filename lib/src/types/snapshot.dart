@@ -0,0 +1,49 @@
+// Copyright 2020 The yjpark. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data' show Uint8List;
+
+import 'package:meta/meta.dart' show immutable, required;
+
+/// The image formats a snapshot of the map can be encoded in.
+enum SnapshotFormat {
+  png,
+  jpeg,
+  webp,
+}
+
+/// Unencoded pixels of a snapshot of the map.
+@immutable
+class RawSnapshot {
+  /// Creates an immutable snapshot of `width` by `height` pixels.
+  const RawSnapshot({
+    @required this.width,
+    @required this.height,
+    @required this.bytes,
+  });
+
+  /// Creates a snapshot from the map sent for the `rgba` snapshot format.
+  static RawSnapshot fromJson(dynamic json) {
+    if (json == null) {
+      return null;
+    }
+    return RawSnapshot(
+      width: json['width'],
+      height: json['height'],
+      bytes: json['bytes'],
+    );
+  }
+
+  /// The width of the snapshot in pixels.
+  final int width;
+
+  /// The height of the snapshot in pixels.
+  final int height;
+
+  /// The pixels row by row from the top left, four bytes each in RGBA order.
+  final Uint8List bytes;
+
+  @override
+  String toString() => '$runtimeType($width x $height)';
+}
@@ -15,6 +15,7 @@ export 'location.dart';
 export 'marker_updates.dart';
 export 'marker.dart';
 export 'screen_coordinate.dart';
+export 'snapshot.dart';
 
 // Export the utils, they're used by the Widget
 export 'utils/marker.dart';